@@ -32,9 +32,9 @@ import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 import it.unimi.dsi.fastutil.ints.Int2IntMap;
 import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntList;
+import org.bukkit.World;
 import org.geysermc.geyser.network.GameProtocol;
 import org.geysermc.geyser.platform.spigot.GeyserSpigotPlugin;
-import org.geysermc.geyser.session.GeyserSession;
 
 import java.util.List;
 import java.util.Objects;
@@ -68,8 +68,8 @@ public class GeyserSpigotLegacyNativeWorldManager extends GeyserSpigotNativeWorl
     }
 
     @Override
-    public int getBlockAt(GeyserSession session, int x, int y, int z) {
-        int nativeBlockId = super.getBlockAt(session, x, y, z);
+    protected int getBlockAt(World world, int x, int y, int z) {
+        int nativeBlockId = super.getBlockAt(world, x, y, z);
         return oldToNewBlockId.getOrDefault(nativeBlockId, nativeBlockId);
     }
 
@@ -32,6 +32,7 @@ import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -41,6 +42,7 @@ import org.geysermc.erosion.bukkit.BukkitLecterns;
 import org.geysermc.erosion.bukkit.BukkitUtils;
 import org.geysermc.erosion.bukkit.PickBlockUtils;
 import org.geysermc.erosion.bukkit.SchedulerUtils;
+import org.geysermc.erosion.util.BlockPositionIterator;
 import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.level.GameRule;
 import org.geysermc.geyser.level.WorldManager;
@@ -49,9 +51,14 @@ import org.geysermc.geyser.registry.BlockRegistries;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.util.BlockEntityUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The base world manager to use when there is no supported NMS revision
@@ -59,6 +66,11 @@ import java.util.concurrent.CompletableFuture;
 public class GeyserSpigotWorldManager extends WorldManager {
     private final Plugin plugin;
     private final BukkitLecterns lecterns;
+    /**
+     * Caches the Java block state of every block data we've seen, so we don't have to turn it into a string every time.
+     * CraftBlockData compares by the underlying block state, and there's a fixed amount of those.
+     */
+    private final Map<BlockData, Integer> blockDataToId = new ConcurrentHashMap<>();
 
     public GeyserSpigotWorldManager(Plugin plugin) {
         this.plugin = plugin;
@@ -71,7 +83,13 @@ public class GeyserSpigotWorldManager extends WorldManager {
         if ((bukkitPlayer = Bukkit.getPlayer(session.getPlayerEntity().getUsername())) == null) {
             return BlockStateValues.JAVA_AIR_ID;
         }
-        World world = bukkitPlayer.getWorld();
+        return getBlockAt(bukkitPlayer.getWorld(), x, y, z);
+    }
+
+    /**
+     * Gets the Java block state at the specified location of this world. Used for every block of a batch lookup.
+     */
+    protected int getBlockAt(World world, int x, int y, int z) {
         if (!world.isChunkLoaded(x >> 4, z >> 4)) {
             // If the chunk isn't loaded, how could we even be here?
             return BlockStateValues.JAVA_AIR_ID;
@@ -80,14 +98,121 @@ public class GeyserSpigotWorldManager extends WorldManager {
         return getBlockNetworkId(world.getBlockAt(x, y, z));
     }
 
+    @Override
+    public int[] getBlocksAt(GeyserSession session, BlockPositionIterator iter) {
+        return getBlocksAt(session, iter, new int[iter.getMaxIterations()]);
+    }
+
+    @Override
+    public int[] getBlocksAt(GeyserSession session, BlockPositionIterator iter, int[] buffer) {
+        int[] blocks = buffer.length >= iter.getMaxIterations() ? buffer : new int[iter.getMaxIterations()];
+        Player bukkitPlayer;
+        if ((bukkitPlayer = Bukkit.getPlayer(session.getPlayerEntity().getUsername())) == null) {
+            Arrays.fill(blocks, 0, iter.getMaxIterations(), BlockStateValues.JAVA_AIR_ID);
+            return blocks;
+        }
+        World world = bukkitPlayer.getWorld();
+        if (isRegionThreadRequired()) {
+            return getBlocksInRegion(world, iter, blocks).join();
+        }
+
+        for (; iter.hasNext(); iter.next()) {
+            blocks[iter.getIteration()] = getBlockAt(world, iter.getX(), iter.getY(), iter.getZ());
+        }
+        return blocks;
+    }
+
+    @Override
+    public CompletableFuture<int[]> getBlocksAtAsync(GeyserSession session, BlockPositionIterator iter) {
+        Player bukkitPlayer;
+        if (!isRegionThreadRequired() || (bukkitPlayer = Bukkit.getPlayer(session.getPlayerEntity().getUsername())) == null) {
+            return super.getBlocksAtAsync(session, iter);
+        }
+        return getBlocksInRegion(bukkitPlayer.getWorld(), iter, new int[iter.getMaxIterations()]);
+    }
+
+    @Override
+    public boolean hasSlowBlockLookups(GeyserSession session) {
+        return isRegionThreadRequired();
+    }
+
+    /**
+     * Reads all blocks in one task on the region thread owning the first position. The positions are usually a few
+     * blocks around a player, so this covers all of them; any blocks owned by other regions are read in tasks of their own.
+     */
+    private CompletableFuture<int[]> getBlocksInRegion(World world, BlockPositionIterator iter, int[] blocks) {
+        CompletableFuture<int[]> future = new CompletableFuture<>();
+        if (!iter.hasNext()) {
+            future.complete(blocks);
+            return future;
+        }
+
+        Bukkit.getRegionScheduler().execute(this.plugin, world, iter.getX() >> 4, iter.getZ() >> 4, () -> {
+            try {
+                List<int[]> elsewhere = null;
+                for (; iter.hasNext(); iter.next()) {
+                    int x = iter.getX();
+                    int y = iter.getY();
+                    int z = iter.getZ();
+                    if (Bukkit.isOwnedByCurrentRegion(world, x >> 4, z >> 4)) {
+                        blocks[iter.getIteration()] = getBlockAt(world, x, y, z);
+                    } else {
+                        if (elsewhere == null) {
+                            elsewhere = new ArrayList<>();
+                        }
+                        elsewhere.add(new int[] {iter.getIteration(), x, y, z});
+                    }
+                }
+
+                if (elsewhere == null) {
+                    future.complete(blocks);
+                    return;
+                }
+                // Don't wait on other regions from this one
+                AtomicInteger remaining = new AtomicInteger(elsewhere.size());
+                for (int[] position : elsewhere) {
+                    Bukkit.getRegionScheduler().execute(this.plugin, world, position[1] >> 4, position[3] >> 4, () -> {
+                        try {
+                            blocks[position[0]] = getBlockAt(world, position[1], position[2], position[3]);
+                        } catch (Throwable e) {
+                            future.completeExceptionally(e);
+                        }
+                        if (remaining.decrementAndGet() == 0) {
+                            future.complete(blocks);
+                        }
+                    });
+                }
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @return whether blocks may only be read from the thread of the region that owns them
+     */
+    protected boolean isRegionThreadRequired() {
+        return SchedulerUtils.FOLIA;
+    }
+
     public int getBlockNetworkId(Block block) {
         if (SchedulerUtils.FOLIA && !Bukkit.isOwnedByCurrentRegion(block)) {
             // Terrible behavior, but this is basically what's always been happening behind the scenes anyway.
-            CompletableFuture<String> blockData = new CompletableFuture<>();
-            Bukkit.getRegionScheduler().execute(this.plugin, block.getLocation(), () -> blockData.complete(block.getBlockData().getAsString()));
-            return BlockRegistries.JAVA_IDENTIFIER_TO_ID.getOrDefault(blockData.join(), BlockStateValues.JAVA_AIR_ID);
+            CompletableFuture<BlockData> blockData = new CompletableFuture<>();
+            Bukkit.getRegionScheduler().execute(this.plugin, block.getLocation(), () -> blockData.complete(block.getBlockData()));
+            return getBlockNetworkId(blockData.join());
+        }
+        return getBlockNetworkId(block.getBlockData());
+    }
+
+    public int getBlockNetworkId(BlockData blockData) {
+        Integer id = blockDataToId.get(blockData);
+        if (id == null) {
+            id = BlockRegistries.JAVA_IDENTIFIER_TO_ID.getOrDefault(blockData.getAsString(), BlockStateValues.JAVA_AIR_ID);
+            blockDataToId.put(blockData, id);
         }
-        return BlockRegistries.JAVA_IDENTIFIER_TO_ID.getOrDefault(block.getBlockData().getAsString(), BlockStateValues.JAVA_AIR_ID);
+        return id;
     }
 
     @Override
@@ -4,6 +4,7 @@ plugins {
     id("net.kyori.blossom")
     id("net.kyori.indra.git")
     id("geyser.publish-conventions")
+    id("me.champeau.jmh")
 }
 
 dependencies {
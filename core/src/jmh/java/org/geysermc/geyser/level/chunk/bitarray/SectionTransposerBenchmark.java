@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk.bitarray;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.BitStorage;
+import org.geysermc.geyser.util.ChunkUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link SectionTransposer} against converting a chunk section one entry at a time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SectionTransposerBenchmark {
+    private static final int SIZE = 4096;
+
+    @Param({"4", "16", "32", "64", "256"})
+    public int paletteSize;
+
+    @Param({"false", "true"})
+    public boolean waterlogging;
+
+    private BitStorage javaData;
+    private BitArrayVersion bedrockVersion;
+    private BitSet waterlogged;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(paletteSize);
+        int bits = Math.max(4, 32 - Integer.numberOfLeadingZeros(paletteSize - 1));
+        javaData = new BitStorage(bits, SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            javaData.set(i, random.nextInt(paletteSize));
+        }
+
+        bedrockVersion = BitArrayVersion.forBitsCeil(32 - Integer.numberOfLeadingZeros(paletteSize - 1));
+        waterlogged = new BitSet();
+        for (int i = 0; i < paletteSize; i += 4) {
+            waterlogged.set(i);
+        }
+    }
+
+    @Benchmark
+    public Object perEntry() {
+        BitArray bedrockData = bedrockVersion.createArray(SIZE);
+        if (!waterlogging) {
+            for (int yzx = 0; yzx < SIZE; yzx++) {
+                bedrockData.set(ChunkUtils.indexYZXtoXZY(yzx), javaData.get(yzx));
+            }
+            return bedrockData;
+        }
+
+        int[] layer1Data = new int[SIZE >> 5];
+        for (int yzx = 0; yzx < SIZE; yzx++) {
+            int paletteId = javaData.get(yzx);
+            int xzy = ChunkUtils.indexYZXtoXZY(yzx);
+            bedrockData.set(xzy, paletteId);
+            if (waterlogged.get(paletteId)) {
+                layer1Data[xzy >> 5] |= 1 << (xzy & 0x1F);
+            }
+        }
+        return layer1Data;
+    }
+
+    @Benchmark
+    public Object transposed() {
+        BitArray bedrockData = bedrockVersion.createArray(SIZE);
+        if (!waterlogging) {
+            SectionTransposer.transpose(javaData, bedrockData, null, null);
+            return bedrockData;
+        }
+
+        int[] layer1Data = new int[SIZE >> 5];
+        SectionTransposer.transpose(javaData, bedrockData, waterlogged, layer1Data);
+        return layer1Data;
+    }
+}
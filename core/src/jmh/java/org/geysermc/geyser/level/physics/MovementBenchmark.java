@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.physics;
+
+import org.cloudburstmc.math.vector.Vector3d;
+import org.cloudburstmc.math.vector.Vector3f;
+import org.geysermc.erosion.util.BlockPositionIterator;
+import org.geysermc.geyser.translator.collision.BlockCollision;
+import org.geysermc.geyser.translator.collision.SolidCollision;
+import org.geysermc.geyser.util.MathUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays player movement ticks against a synthetic world of pillars, comparing the allocating movement path
+ * {@link CollisionManager} used to have against the scratch-state path it uses now. A real collision manager needs a
+ * connected session, so the sweep is reproduced here against {@link BoundingBox} and {@link BlockCollision} directly.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovementBenchmark {
+    private static final int TICKS = 1024;
+    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("#.#####", new DecimalFormatSymbols(Locale.ENGLISH));
+
+    private final BlockCollision solid = new SolidCollision(null);
+    private final Vector3f[] positions = new Vector3f[TICKS];
+    private final BoundingBox playerBox = new BoundingBox(0, 0, 0, 0.6, 1.8, 0.6);
+
+    private final BoundingBox movementBox = new BoundingBox(0, 0, 0, 0, 0, 0);
+    private int[] blockBuffer = new int[0];
+    private int tick;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        float x = 0.5f;
+        float y = 64;
+        float z = 0.5f;
+        for (int i = 0; i < TICKS; i++) {
+            x += random.nextFloat() * 0.4f - 0.1f;
+            z += random.nextFloat() * 0.4f - 0.1f;
+            // Jump every so often
+            y = (i % 12) < 6 ? 64 + (i % 12) * 0.17f : 64 + (12 - (i % 12)) * 0.17f;
+            positions[i] = Vector3f.from(x, y, z);
+        }
+        teleport(positions[0].getX(), positions[0].getY(), positions[0].getZ());
+    }
+
+    /**
+     * Solid ground below Y 64, and two block tall pillars every few blocks.
+     */
+    private int blockAt(int x, int y, int z) {
+        if (y < 64) {
+            return 1;
+        }
+        return y < 66 && Math.floorMod(x, 5) == 0 && Math.floorMod(z, 7) == 0 ? 1 : 0;
+    }
+
+    private BlockCollision collision(int blockId) {
+        return blockId == 0 ? null : solid;
+    }
+
+    private void teleport(double x, double y, double z) {
+        playerBox.setMiddleX(x);
+        playerBox.setMiddleY(y + playerBox.getSizeY() / 2);
+        playerBox.setMiddleZ(z);
+    }
+
+    private Vector3f nextPosition() {
+        Vector3f position = positions[tick];
+        tick = (tick + 1) % TICKS;
+        if (tick == 0) {
+            teleport(positions[0].getX(), positions[0].getY(), positions[0].getZ());
+        }
+        return position;
+    }
+
+    @Benchmark
+    public Vector3d allocating() {
+        Vector3f bedrockPosition = nextPosition();
+        Vector3d position = Vector3d.from(Double.parseDouble(Float.toString(bedrockPosition.getX())), bedrockPosition.getY(),
+                Double.parseDouble(Float.toString(bedrockPosition.getZ())));
+        Vector3d movement = position.sub(playerBox.getBottomCenter());
+
+        BoundingBox box = playerBox.clone();
+        box.extend(movement);
+        BlockPositionIterator iter = BlockPositionIterator.fromMinMax(
+                (int) Math.floor(box.getMiddleX() - box.getSizeX() / 2 - CollisionManager.COLLISION_TOLERANCE),
+                (int) Math.floor(box.getMiddleY() - box.getSizeY() / 2 - 0.5 - CollisionManager.COLLISION_TOLERANCE),
+                (int) Math.floor(box.getMiddleZ() - box.getSizeZ() / 2 - CollisionManager.COLLISION_TOLERANCE),
+                (int) Math.floor(box.getMiddleX() + box.getSizeX() / 2 + CollisionManager.COLLISION_TOLERANCE),
+                (int) Math.floor(box.getMiddleY() + box.getSizeY() / 2),
+                (int) Math.floor(box.getMiddleZ() + box.getSizeZ() / 2 + CollisionManager.COLLISION_TOLERANCE));
+        int[] blocks = new int[iter.getMaxIterations()];
+        for (; iter.hasNext(); iter.next()) {
+            blocks[iter.getIteration()] = blockAt(iter.getX(), iter.getY(), iter.getZ());
+        }
+
+        double movementY = movement.getY();
+        double movementX = movement.getX();
+        double movementZ = movement.getZ();
+        for (Axis axis : Axis.VALUES) {
+            double offset = axis.choose(movement);
+            for (iter.reset(); iter.hasNext(); iter.next()) {
+                BlockCollision collision = collision(blocks[iter.getIteration()]);
+                if (collision != null) {
+                    offset = collision.computeCollisionOffset(iter.getX(), iter.getY(), iter.getZ(), playerBox, axis, offset);
+                }
+            }
+            switch (axis) {
+                case X -> movementX = offset;
+                case Y -> movementY = offset;
+                case Z -> movementZ = offset;
+            }
+        }
+        Vector3d adjusted = Vector3d.from(movementX, movementY, movementZ);
+        playerBox.translate(adjusted.getX(), adjusted.getY(), adjusted.getZ());
+
+        position = playerBox.getBottomCenter();
+        return Vector3d.from(position.getX(), Double.parseDouble(DECIMAL_FORMAT.format(position.getY())), position.getZ());
+    }
+
+    @Benchmark
+    public Vector3d scratch() {
+        Vector3f bedrockPosition = nextPosition();
+        double movementX = MathUtils.toShortestDouble(bedrockPosition.getX()) - playerBox.getMiddleX();
+        double movementY = bedrockPosition.getY() - (playerBox.getMiddleY() - playerBox.getSizeY() / 2);
+        double movementZ = MathUtils.toShortestDouble(bedrockPosition.getZ()) - playerBox.getMiddleZ();
+
+        movementBox.copyFrom(playerBox);
+        movementBox.extend(movementX, movementY, movementZ);
+        int minX = (int) Math.floor(movementBox.getMiddleX() - movementBox.getSizeX() / 2 - CollisionManager.COLLISION_TOLERANCE);
+        int minY = (int) Math.floor(movementBox.getMiddleY() - movementBox.getSizeY() / 2 - 0.5 - CollisionManager.COLLISION_TOLERANCE);
+        int minZ = (int) Math.floor(movementBox.getMiddleZ() - movementBox.getSizeZ() / 2 - CollisionManager.COLLISION_TOLERANCE);
+        int maxX = (int) Math.floor(movementBox.getMiddleX() + movementBox.getSizeX() / 2 + CollisionManager.COLLISION_TOLERANCE);
+        int maxY = (int) Math.floor(movementBox.getMiddleY() + movementBox.getSizeY() / 2);
+        int maxZ = (int) Math.floor(movementBox.getMiddleZ() + movementBox.getSizeZ() / 2 + CollisionManager.COLLISION_TOLERANCE);
+        int sizeY = maxY - minY + 1;
+        int sizeZ = maxZ - minZ + 1;
+        int volume = (maxX - minX + 1) * sizeZ * sizeY;
+        if (blockBuffer.length < volume) {
+            blockBuffer = new int[volume];
+        }
+        int index = 0;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int y = minY; y <= maxY; y++) {
+                    blockBuffer[index++] = blockAt(x, y, z);
+                }
+            }
+        }
+
+        for (Axis axis : Axis.VALUES) {
+            double offset = axis.choose(movementX, movementY, movementZ);
+            index = 0;
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    for (int y = minY; y <= maxY; y++) {
+                        BlockCollision collision = collision(blockBuffer[index++]);
+                        if (collision != null) {
+                            offset = collision.computeCollisionOffset(x, y, z, playerBox, axis, offset);
+                        }
+                    }
+                }
+            }
+            switch (axis) {
+                case X -> movementX = offset;
+                case Y -> movementY = offset;
+                case Z -> movementZ = offset;
+            }
+        }
+        playerBox.translate(movementX, movementY, movementZ);
+
+        double positionY = playerBox.getMiddleY() - playerBox.getSizeY() / 2;
+        return Vector3d.from(playerBox.getMiddleX(), Math.rint(positionY * 100000) / 100000, playerBox.getMiddleZ());
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.session.cache;
+
+import it.unimi.dsi.fastutil.ints.IntList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the tag checks done for every break time calculation when tags are stored as lists, as {@link TagCache} used
+ * to, against the bit sets it uses now. A real tag cache needs a session and a tags packet, so the checks from
+ * {@code BlockUtils#getBreakTime} are reproduced here against tags of roughly vanilla sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TagCacheBenchmark {
+    private static final int BLOCKS = 1024;
+    /**
+     * Sizes of the leaves, wool, mineable/axe, mineable/hoe, mineable/pickaxe, mineable/shovel, needs_stone_tool,
+     * needs_iron_tool and needs_diamond_tool tags.
+     */
+    private static final int[] TAG_SIZES = {10, 16, 250, 40, 700, 40, 40, 15, 6};
+    private static final String[] TOOL_TYPES = {"axe", "hoe", "pickaxe", "shears", "shovel"};
+    private static final String[] TOOL_TIERS = {"wooden", "stone", "iron", "golden"};
+
+    private final IntList[] lists = new IntList[TAG_SIZES.length];
+    private final BitSet[] bitSets = new BitSet[TAG_SIZES.length];
+    private final int[] blockIds = new int[BLOCKS];
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        for (int i = 0; i < TAG_SIZES.length; i++) {
+            int[] tag = random.ints(0, BLOCKS).distinct().limit(TAG_SIZES[i]).toArray();
+            lists[i] = IntList.of(tag);
+            bitSets[i] = new BitSet();
+            for (int id : tag) {
+                bitSets[i].set(id);
+            }
+        }
+        for (int i = 0; i < BLOCKS; i++) {
+            blockIds[i] = random.nextInt(BLOCKS);
+        }
+    }
+
+    @Benchmark
+    public boolean list() {
+        int i = index++ & (BLOCKS - 1);
+        int blockId = blockIds[i];
+        boolean shearsEffective = lists[0].contains(blockId) || lists[1].contains(blockId);
+        boolean correctTool = switch (TOOL_TYPES[i % TOOL_TYPES.length]) {
+            case "axe" -> lists[2].contains(blockId);
+            case "hoe" -> lists[3].contains(blockId);
+            case "pickaxe" -> lists[4].contains(blockId);
+            case "shears" -> shearsEffective;
+            default -> lists[5].contains(blockId);
+        };
+        boolean canTierBreak = switch (TOOL_TIERS[i % TOOL_TIERS.length]) {
+            case "stone" -> !lists[7].contains(blockId) && !lists[8].contains(blockId);
+            case "iron" -> !lists[8].contains(blockId);
+            default -> !lists[6].contains(blockId) && !lists[7].contains(blockId) && !lists[8].contains(blockId);
+        };
+        return correctTool && canTierBreak;
+    }
+
+    @Benchmark
+    public boolean bitSet() {
+        int i = index++ & (BLOCKS - 1);
+        int blockId = blockIds[i];
+        boolean shearsEffective = bitSets[0].get(blockId) || bitSets[1].get(blockId);
+        boolean correctTool = switch (TOOL_TYPES[i % TOOL_TYPES.length]) {
+            case "axe" -> bitSets[2].get(blockId);
+            case "hoe" -> bitSets[3].get(blockId);
+            case "pickaxe" -> bitSets[4].get(blockId);
+            case "shears" -> shearsEffective;
+            default -> bitSets[5].get(blockId);
+        };
+        boolean canTierBreak = switch (TOOL_TIERS[i % TOOL_TIERS.length]) {
+            case "stone" -> !bitSets[7].get(blockId) && !bitSets[8].get(blockId);
+            case "iron" -> !bitSets[8].get(blockId);
+            default -> !bitSets[6].get(blockId) && !bitSets[7].get(blockId) && !bitSets[8].get(blockId);
+        };
+        return correctTool && canTierBreak;
+    }
+}
@@ -72,10 +72,13 @@ import org.geysermc.geyser.event.GeyserEventBus;
 import org.geysermc.geyser.extension.GeyserExtensionManager;
 import org.geysermc.geyser.impl.MinecraftVersionImpl;
 import org.geysermc.geyser.level.WorldManager;
+import org.geysermc.geyser.level.chunk.ChunkSectionCache;
+import org.geysermc.geyser.metrics.TranslationMetrics;
 import org.geysermc.geyser.network.GameProtocol;
 import org.geysermc.geyser.network.netty.GeyserServer;
 import org.geysermc.geyser.registry.BlockRegistries;
 import org.geysermc.geyser.registry.Registries;
+import org.geysermc.geyser.registry.RegistryTasks;
 import org.geysermc.geyser.registry.provider.ProviderSupplier;
 import org.geysermc.geyser.scoreboard.ScoreboardUpdater;
 import org.geysermc.geyser.session.GeyserSession;
@@ -102,6 +105,8 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -145,6 +150,21 @@ public class GeyserImpl implements GeyserApi {
 
     private UnixSocketClientListener erosionUnixListener;
 
+    /**
+     * Null if disabled in the config.
+     */
+    private @Nullable ChunkSectionCache chunkSectionCache;
+
+    /**
+     * Translates chunks off the session event loops. Null if disabled in the config.
+     */
+    private @Nullable ForkJoinPool chunkTranslationExecutor;
+
+    /**
+     * Null if disabled in the config.
+     */
+    private @Nullable TranslationMetrics translationMetrics;
+
     private volatile boolean shuttingDown = false;
 
     private ScheduledExecutorService scheduledThread;
@@ -195,8 +215,10 @@ public class GeyserImpl implements GeyserApi {
         logger.info("******************************************");
 
         /* Initialize registries */
-        Registries.init();
+        // Blocks first, as item population needs the block mappings of every version
         BlockRegistries.init();
+        Registries.init();
+        RegistryTasks.finish(logger);
 
         /* Initialize translators */
         EntityDefinitions.init();
@@ -248,6 +270,30 @@ public class GeyserImpl implements GeyserApi {
 
         SkinProvider.registerCacheImageTask(this);
 
+        if (config.getSharedChunkCacheSize() > 0) {
+            this.chunkSectionCache = new ChunkSectionCache(config.getSharedChunkCacheSize());
+        } else {
+            this.chunkSectionCache = null;
+        }
+
+        int chunkTranslationThreads = config.getChunkTranslationThreads();
+        if (chunkTranslationThreads > 0) {
+            this.chunkTranslationExecutor = new ForkJoinPool(chunkTranslationThreads, pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("Geyser Chunk Translation Thread-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+        } else {
+            this.chunkTranslationExecutor = null;
+        }
+
+        if (config.getTranslationMetrics().isEnabled()) {
+            this.translationMetrics = new TranslationMetrics(this);
+            this.translationMetrics.start(config.getTranslationMetrics());
+        } else {
+            this.translationMetrics = null;
+        }
+
         Registries.RESOURCE_PACKS.load();
 
         String geyserUdpPort = System.getProperty("geyserUdpPort", "");
@@ -612,6 +658,12 @@ public class GeyserImpl implements GeyserApi {
 
         scheduledThread.shutdown();
         geyserServer.shutdown();
+        if (chunkTranslationExecutor != null) {
+            chunkTranslationExecutor.shutdown();
+        }
+        if (translationMetrics != null) {
+            translationMetrics.shutdown();
+        }
         if (skinUploader != null) {
             skinUploader.close();
         }
@@ -624,6 +676,10 @@ public class GeyserImpl implements GeyserApi {
 
         Registries.RESOURCE_PACKS.get().clear();
 
+        if (this.chunkSectionCache != null) {
+            this.chunkSectionCache.clear();
+        }
+
         this.eventBus.fire(new GeyserShutdownEvent(this.extensionManager, this.eventBus));
         this.extensionManager.disableExtensions();
 
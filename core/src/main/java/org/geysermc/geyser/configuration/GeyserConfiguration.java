@@ -128,6 +128,12 @@ public interface GeyserConfiguration {
 
         int getCompressionLevel();
 
+        CompressionAlgorithmOption getCompressionAlgorithm();
+
+        int getCompressionThreshold();
+
+        boolean isAdaptiveCompression();
+
         boolean isEnableProxyProtocol();
 
         List<String> getProxyProtocolWhitelistedIPs();
@@ -166,6 +172,17 @@ public interface GeyserConfiguration {
         String getUniqueId();
     }
 
+    interface ITranslationMetricsInfo {
+
+        boolean isEnabled();
+
+        String getPrometheusAddress();
+
+        int getPrometheusPort();
+
+        boolean isJmx();
+    }
+
     int getScoreboardPacketThreshold();
 
     // if u have offline mode enabled pls be safe
@@ -177,6 +194,26 @@ public interface GeyserConfiguration {
 
     boolean isDisableCompression();
 
+    boolean isSharedEventLoop();
+
+    int getSharedChunkCacheSize();
+
+    int getChunkTranslationThreads();
+
+    boolean isClientChunkCaching();
+
+    boolean isRequestSubChunks();
+
+    int getSubChunkResendThreshold();
+
+    boolean isCompactChunkCache();
+
+    int getChunkCacheMemoryLimit();
+
+    int getPingRateLimit();
+
+    ITranslationMetricsInfo getTranslationMetrics();
+
     int getConfigVersion();
 
     static void checkGeyserConfiguration(GeyserConfiguration geyserConfig, GeyserLogger geyserLogger) {
@@ -216,6 +216,22 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
             return Math.max(-1, Math.min(compressionLevel, 9));
         }
 
+        @Getter
+        @JsonDeserialize(using = CompressionAlgorithmOption.Deserializer.class)
+        @JsonProperty("compression-algorithm")
+        private CompressionAlgorithmOption compressionAlgorithm = CompressionAlgorithmOption.ZLIB;
+
+        @JsonProperty("compression-threshold")
+        private int compressionThreshold = 512;
+
+        public int getCompressionThreshold() {
+            return Math.max(0, Math.min(compressionThreshold, 65535));
+        }
+
+        @Getter
+        @JsonProperty("adaptive-compression")
+        private boolean adaptiveCompression = false;
+
         @Getter
         @JsonProperty("enable-proxy-protocol")
         private boolean enableProxyProtocol = false;
@@ -310,6 +326,22 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
         }
     }
 
+    @Getter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class TranslationMetricsInfo implements ITranslationMetricsInfo {
+        @JsonProperty("enabled")
+        private boolean enabled = false;
+
+        @JsonProperty("prometheus-address")
+        private String prometheusAddress = "127.0.0.1";
+
+        @JsonProperty("prometheus-port")
+        private int prometheusPort = -1;
+
+        @JsonProperty("jmx")
+        private boolean jmx = false;
+    }
+
     @JsonProperty("scoreboard-packet-threshold")
     private int scoreboardPacketThreshold = 10;
 
@@ -325,6 +357,36 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
     @JsonProperty("disable-compression")
     private boolean isDisableCompression = true;
 
+    @JsonProperty("shared-event-loop")
+    private boolean sharedEventLoop = false;
+
+    @JsonProperty("shared-chunk-cache-size")
+    private int sharedChunkCacheSize = 0;
+
+    @JsonProperty("chunk-translation-threads")
+    private int chunkTranslationThreads = 0;
+
+    @JsonProperty("client-chunk-caching")
+    private boolean clientChunkCaching = false;
+
+    @JsonProperty("request-sub-chunks")
+    private boolean requestSubChunks = false;
+
+    @JsonProperty("sub-chunk-resend-threshold")
+    private int subChunkResendThreshold = 1024;
+
+    @JsonProperty("compact-chunk-cache")
+    private boolean compactChunkCache = false;
+
+    @JsonProperty("chunk-cache-memory-limit")
+    private int chunkCacheMemoryLimit = 0;
+
+    @JsonProperty("ping-rate-limit")
+    private int pingRateLimit = 0;
+
+    @JsonProperty("translation-metrics")
+    private TranslationMetricsInfo translationMetrics = new TranslationMetricsInfo();
+
     @JsonProperty("config-version")
     private int configVersion = 0;
 
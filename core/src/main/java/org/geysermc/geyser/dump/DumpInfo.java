@@ -35,14 +35,21 @@ import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import lombok.Getter;
 import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
+import org.cloudburstmc.protocol.bedrock.data.PacketCompressionAlgorithm;
 import org.geysermc.floodgate.util.DeviceOs;
 import org.geysermc.floodgate.util.FloodgateInfoHolder;
 import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.api.GeyserApi;
 import org.geysermc.geyser.api.extension.Extension;
 import org.geysermc.geyser.configuration.GeyserConfiguration;
+import org.geysermc.geyser.level.chunk.ChunkSectionCache;
 import org.geysermc.geyser.network.GameProtocol;
+import org.geysermc.geyser.network.compression.MeasuredCompression;
+import org.geysermc.geyser.ping.GeyserLegacyPingPassthrough;
 import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.session.cache.ChunkCache;
+import org.geysermc.geyser.skin.SkinDownloadScheduler;
+import org.geysermc.geyser.skin.SkinProvider;
 import org.geysermc.geyser.text.AsteriskSerializer;
 import org.geysermc.geyser.util.CpuUtils;
 import org.geysermc.geyser.util.FileUtils;
@@ -62,6 +69,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Getter
@@ -80,6 +89,11 @@ public class DumpInfo {
     private final Object2IntMap<DeviceOs> userPlatforms;
     private final HashInfo hashInfo;
     private final RamInfo ramInfo;
+    private final ChunkSectionCacheInfo chunkSectionCacheInfo;
+    private final ChunkCacheInfo chunkCacheInfo;
+    private final PingPassthroughInfo pingPassthroughInfo;
+    private final SkinDownloadInfo skinDownloadInfo;
+    private final CompressionInfo compressionInfo;
     private LogsInfo logsInfo;
     private final BootstrapDumpInfo bootstrapInfo;
     private final FlagsInfo flagsInfo;
@@ -119,16 +133,48 @@ public class DumpInfo {
 
         this.ramInfo = new RamInfo();
 
+        ChunkSectionCache chunkSectionCache = GeyserImpl.getInstance().getChunkSectionCache();
+        this.chunkSectionCacheInfo = chunkSectionCache == null ? null : new ChunkSectionCacheInfo(chunkSectionCache);
+
         if (addLog) {
             this.logsInfo = new LogsInfo();
         }
 
         this.userPlatforms = new Object2IntOpenHashMap<>();
+        long largestChunkCache = 0;
+        long uncompressedBytes = 0;
+        long compressedBytes = 0;
+        long compressionNanos = 0;
+        Map<String, Integer> compressionLevels = new TreeMap<>();
         for (GeyserSession session : GeyserImpl.getInstance().getSessionManager().getAllSessions()) {
             DeviceOs device = session.getClientData().getDeviceOs();
             userPlatforms.put(device, userPlatforms.getOrDefault(device, 0) + 1);
+            largestChunkCache = Math.max(largestChunkCache, session.getChunkCache().getMemoryUsage());
+
+            MeasuredCompression compression = session.getUpstream().getCompression();
+            if (compression != null) {
+                uncompressedBytes += compression.getUncompressedBytes();
+                compressedBytes += compression.getCompressedBytes();
+                compressionNanos += compression.getCompressionNanos();
+                String level = compression.getAlgorithm() == PacketCompressionAlgorithm.ZLIB ? "zlib-" + compression.getLevel() : compression.getAlgorithm().name().toLowerCase(Locale.ROOT);
+                compressionLevels.merge(level, 1, Integer::sum);
+            }
+        }
+        this.compressionInfo = new CompressionInfo(uncompressedBytes / MEGABYTE, compressedBytes / MEGABYTE,
+                TimeUnit.NANOSECONDS.toMillis(compressionNanos), compressionLevels);
+        this.chunkCacheInfo = new ChunkCacheInfo(ChunkCache.getGlobalMemoryUsage() / MEGABYTE, largestChunkCache / MEGABYTE);
+
+        if (GeyserImpl.getInstance().getBootstrap().getGeyserPingPassthrough() instanceof GeyserLegacyPingPassthrough legacyPingPassthrough) {
+            this.pingPassthroughInfo = new PingPassthroughInfo(legacyPingPassthrough.getLastLatency(),
+                    legacyPingPassthrough.getSuccesses().get(), legacyPingPassthrough.getFailures().get());
+        } else {
+            this.pingPassthroughInfo = null;
         }
 
+        SkinDownloadScheduler downloadScheduler = SkinProvider.getDownloadScheduler();
+        this.skinDownloadInfo = new SkinDownloadInfo(downloadScheduler.getActiveRequests(), downloadScheduler.getQueueDepth(),
+                SkinDownloadScheduler.getLatencyBuckets(), downloadScheduler.getLatencyHistograms());
+
         this.bootstrapInfo = GeyserImpl.getInstance().getBootstrap().getDumpInfo();
 
         this.flagsInfo = new FlagsInfo();
@@ -269,6 +315,31 @@ public class DumpInfo {
         }
     }
 
+    public record ChunkSectionCacheInfo(long entries, long hits, long misses, long evictions, double hitRate) {
+        public ChunkSectionCacheInfo(ChunkSectionCache cache) {
+            this(cache.size(), cache.stats().hitCount(), cache.stats().missCount(), cache.stats().evictionCount(), cache.stats().hitRate());
+        }
+    }
+
+    /**
+     * The estimated memory used by the chunk caches, in megabytes.
+     */
+    public record ChunkCacheInfo(long total, long largestSession) {
+    }
+
+    public record PingPassthroughInfo(long lastLatency, long successes, long failures) {
+    }
+
+    public record SkinDownloadInfo(int activeRequests, int queueDepth, long[] latencyBucketsMillis, Map<String, long[]> latencyHistograms) {
+    }
+
+    /**
+     * How much Bedrock traffic has been compressed, the time spent doing so, and how many sessions use each
+     * compression level.
+     */
+    public record CompressionInfo(long uncompressedMegabytes, long compressedMegabytes, long compressionMillis, Map<String, Integer> sessionsByLevel) {
+    }
+
     /**
      * E.G. `-Xmx1024M` - all runtime JVM flags on this machine
      */
@@ -41,6 +41,7 @@ import org.cloudburstmc.protocol.bedrock.data.SoundEvent;
 import org.cloudburstmc.protocol.bedrock.packet.LevelSoundEventPacket;
 import org.geysermc.erosion.packet.ErosionPacketHandler;
 import org.geysermc.erosion.packet.ErosionPacketSender;
+import org.geysermc.erosion.packet.backendbound.BackendboundBatchBlockRequestPacket;
 import org.geysermc.erosion.packet.backendbound.BackendboundInitializePacket;
 import org.geysermc.erosion.packet.backendbound.BackendboundPacket;
 import org.geysermc.erosion.packet.geyserbound.*;
@@ -52,8 +53,11 @@ import org.geysermc.geyser.session.cache.PistonCache;
 import org.geysermc.geyser.translator.level.block.entity.PistonBlockEntity;
 import org.geysermc.geyser.util.BlockEntityUtils;
 
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public final class GeyserboundPacketHandlerImpl extends AbstractGeyserboundPacketHandler {
     private final ErosionPacketSender<BackendboundPacket> packetSender;
@@ -61,13 +65,20 @@ public final class GeyserboundPacketHandlerImpl extends AbstractGeyserboundPacke
     private CompletableFuture<Integer> pendingLookup = null;
     @Getter
     private final Int2ObjectMap<CompletableFuture<Integer>> asyncPendingLookups = Int2ObjectMaps.synchronize(new Int2ObjectOpenHashMap<>(4));
-    @Setter
-    private CompletableFuture<int[]> pendingBatchLookup = null;
+    /**
+     * Batch lookups have no transaction ID, but the backend answers them in the order they were sent, so several can be
+     * in flight at once.
+     */
+    private final Queue<CompletableFuture<int[]>> pendingBatchLookups = new ConcurrentLinkedQueue<>();
     @Setter
     private CompletableFuture<CompoundTag> pickBlockLookup = null;
 
     private final AtomicInteger nextTransactionId = new AtomicInteger(1);
 
+    private final LongAdder roundTrips = new LongAdder();
+    private final LongAdder blockingRoundTrips = new LongAdder();
+    private final LongAdder roundTripNanos = new LongAdder();
+
     public GeyserboundPacketHandlerImpl(GeyserSession session, ErosionPacketSender<BackendboundPacket> packetSender) {
         super(session);
         this.packetSender = packetSender;
@@ -75,8 +86,9 @@ public final class GeyserboundPacketHandlerImpl extends AbstractGeyserboundPacke
 
     @Override
     public void handleBatchBlockId(GeyserboundBatchBlockIdPacket packet) {
-        if (this.pendingBatchLookup != null) {
-            this.pendingBatchLookup.complete(packet.getBlocks());
+        CompletableFuture<int[]> pendingBatchLookup = this.pendingBatchLookups.poll();
+        if (pendingBatchLookup != null) {
+            pendingBatchLookup.complete(packet.getBlocks());
         } else {
             session.getGeyser().getLogger().warning("Batch block ID packet received with no future to complete.");
         }
@@ -107,8 +119,9 @@ public final class GeyserboundPacketHandlerImpl extends AbstractGeyserboundPacke
     @Override
     public void handleBlockLookupFail(GeyserboundBlockLookupFailPacket packet) {
         if (packet.getTransactionId() == 0) {
-            if (this.pendingBatchLookup != null) {
-                this.pendingBatchLookup.complete(null);
+            CompletableFuture<int[]> pendingBatchLookup = this.pendingBatchLookups.poll();
+            if (pendingBatchLookup != null) {
+                pendingBatchLookup.complete(null);
                 return;
             }
         }
@@ -194,12 +207,53 @@ public final class GeyserboundPacketHandlerImpl extends AbstractGeyserboundPacke
 
     public void close() {
         this.packetSender.close();
+        long roundTrips = this.roundTrips.sum();
+        if (roundTrips > 0) {
+            session.getGeyser().getLogger().debug("Erosion lookups for " + session.bedrockUsername() + ": " + roundTrips + " round trips ("
+                    + blockingRoundTrips.sum() + " blocking), " + (roundTripNanos.sum() / roundTrips / 1000) + "µs on average");
+        }
     }
 
     public int getNextTransactionId() {
         return nextTransactionId.getAndIncrement();
     }
 
+    /**
+     * Sends a batch block lookup. It is answered after every batch lookup sent before it.
+     */
+    public void sendBatchLookup(CompletableFuture<int[]> future, BackendboundBatchBlockRequestPacket packet) {
+        this.pendingBatchLookups.add(future);
+        sendPacket(packet);
+    }
+
+    /**
+     * Records how long the backend takes to answer a lookup.
+     *
+     * @param blocking whether the session's event loop waits for the answer
+     */
+    public void trackRoundTrip(CompletableFuture<?> future, boolean blocking) {
+        long start = System.nanoTime();
+        if (blocking) {
+            blockingRoundTrips.increment();
+        }
+        future.whenComplete((result, throwable) -> {
+            roundTrips.increment();
+            roundTripNanos.add(System.nanoTime() - start);
+        });
+    }
+
+    public long getRoundTrips() {
+        return roundTrips.sum();
+    }
+
+    public long getBlockingRoundTrips() {
+        return blockingRoundTrips.sum();
+    }
+
+    public long getRoundTripNanos() {
+        return roundTripNanos.sum();
+    }
+
     @Override
     public ErosionPacketHandler setChannel(Channel channel) {
         this.packetSender.setChannel(channel);
@@ -56,6 +56,7 @@ public class GeyserWorldManager extends WorldManager {
         }
         CompletableFuture<Integer> future = new CompletableFuture<>(); // Boxes
         erosionHandler.setPendingLookup(future);
+        erosionHandler.trackRoundTrip(future, true);
         erosionHandler.sendPacket(new BackendboundBlockRequestPacket(0, Vector3i.from(x, y, z)));
         return future.join();
     }
@@ -69,6 +70,7 @@ public class GeyserWorldManager extends WorldManager {
         CompletableFuture<Integer> future = new CompletableFuture<>(); // Boxes
         int transactionId = erosionHandler.getNextTransactionId();
         erosionHandler.getAsyncPendingLookups().put(transactionId, future);
+        erosionHandler.trackRoundTrip(future, false);
         erosionHandler.sendPacket(new BackendboundBlockRequestPacket(transactionId, Vector3i.from(x, y, z)));
         return future;
     }
@@ -80,11 +82,37 @@ public class GeyserWorldManager extends WorldManager {
             return super.getBlocksAt(session, iter);
         }
         CompletableFuture<int[]> future = new CompletableFuture<>();
-        erosionHandler.setPendingBatchLookup(future);
-        erosionHandler.sendPacket(new BackendboundBatchBlockRequestPacket(iter));
+        erosionHandler.trackRoundTrip(future, true);
+        erosionHandler.sendBatchLookup(future, new BackendboundBatchBlockRequestPacket(iter));
         return future.join();
     }
 
+    @Override
+    public CompletableFuture<int[]> getBlocksAtAsync(GeyserSession session, BlockPositionIterator iter) {
+        var erosionHandler = session.getErosionHandler().getAsActive();
+        if (erosionHandler == null) {
+            return super.getBlocksAtAsync(session, iter);
+        }
+        CompletableFuture<int[]> future = new CompletableFuture<>();
+        erosionHandler.trackRoundTrip(future, false);
+        erosionHandler.sendBatchLookup(future, new BackendboundBatchBlockRequestPacket(iter));
+        return future;
+    }
+
+    @Override
+    public boolean hasSlowBlockLookups(GeyserSession session) {
+        return session.getErosionHandler().isActive();
+    }
+
+    @Override
+    public int[] getBlocksAt(GeyserSession session, BlockPositionIterator iter, int[] buffer) {
+        if (session.getErosionHandler().getAsActive() != null) {
+            // The batch response is decoded into its own array
+            return getBlocksAt(session, iter);
+        }
+        return super.getBlocksAt(session, iter, buffer);
+    }
+
     @Override
     public boolean hasOwnChunkCache() {
         // This implementation can only fetch data from the session chunk cache
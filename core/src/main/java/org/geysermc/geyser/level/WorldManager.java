@@ -87,6 +87,45 @@ public abstract class WorldManager {
         return blocks;
     }
 
+    /**
+     * Gets the Java block states of every position in the iterator without blocking the calling thread, where block
+     * reads have to be scheduled on another thread or requested from another process.
+     *
+     * @param session the session
+     * @param iter the positions to look up. Must not be used again until the future completes.
+     * @return a future of the block states, indexed by {@link BlockPositionIterator#getIteration()}
+     */
+    public CompletableFuture<int[]> getBlocksAtAsync(GeyserSession session, BlockPositionIterator iter) {
+        return CompletableFuture.completedFuture(this.getBlocksAt(session, iter));
+    }
+
+    /**
+     * Whether looking up blocks for this session has to wait for another thread or process, so lookups should be
+     * requested through {@link #getBlocksAtAsync(GeyserSession, BlockPositionIterator)} ahead of time where possible.
+     *
+     * @param session the session
+     * @return true if block lookups are slow
+     */
+    public boolean hasSlowBlockLookups(GeyserSession session) {
+        return false;
+    }
+
+    /**
+     * Gets the Java block states of every position in the iterator, reusing the given buffer where possible.
+     *
+     * @param session the session
+     * @param iter the positions to look up
+     * @param buffer the array to fill, indexed by {@link BlockPositionIterator#getIteration()}
+     * @return {@code buffer}, or a new array if it was too small to hold every position
+     */
+    public int[] getBlocksAt(GeyserSession session, BlockPositionIterator iter, int[] buffer) {
+        int[] blocks = buffer.length >= iter.getMaxIterations() ? buffer : new int[iter.getMaxIterations()];
+        for (; iter.hasNext(); iter.next()) {
+            blocks[iter.getIteration()] = this.getBlockAt(session, iter.getX(), iter.getY(), iter.getZ());
+        }
+        return blocks;
+    }
+
     /**
      * Checks whether or not this world manager requires a separate chunk cache/has access to more block data than the chunk cache.
      * <p>
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import it.unimi.dsi.fastutil.ints.IntImmutableList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntLists;
+import lombok.Getter;
+import org.cloudburstmc.nbt.NBTOutputStream;
+import org.cloudburstmc.nbt.NbtMap;
+import org.cloudburstmc.nbt.NbtUtils;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The translated Bedrock sections of a chunk, kept for clients that request sub-chunks as they need them
+ * rather than receiving the whole column at once.
+ */
+public final class BedrockChunk {
+    /**
+     * Indexed by Bedrock section Y, starting from the bottom of the Bedrock dimension.
+     */
+    private final GeyserChunkSection[] sections;
+    /**
+     * If a section is present here, it is shared with other sessions and must be copied before it is modified.
+     */
+    private final byte[][] encodedSections;
+    private final List<NbtMap> blockEntities;
+    private final int minSubChunkIndex;
+    /**
+     * The biomes of this chunk, which are sent in the level chunk packet itself.
+     */
+    @Getter
+    private final byte[] biomeData;
+    @Getter
+    private final int subChunkLimit;
+
+    public BedrockChunk(GeyserChunkSection[] sections, byte[][] encodedSections, List<NbtMap> blockEntities, int minSubChunkIndex,
+                        byte[] biomeData, int subChunkLimit) {
+        this.sections = sections;
+        this.encodedSections = encodedSections;
+        this.blockEntities = blockEntities;
+        this.minSubChunkIndex = minSubChunkIndex;
+        this.biomeData = biomeData;
+        this.subChunkLimit = subChunkLimit;
+    }
+
+    /**
+     * @param subChunkIndex the absolute sub-chunk Y, as sent by the client
+     * @return if there is no block data for this sub-chunk
+     */
+    public boolean isEmpty(int subChunkIndex) {
+        int sectionY = subChunkIndex - minSubChunkIndex;
+        return sectionY < 0 || sectionY >= sections.length || sections[sectionY] == null;
+    }
+
+    public boolean isInBounds(int subChunkIndex) {
+        int sectionY = subChunkIndex - minSubChunkIndex;
+        return sectionY >= 0 && sectionY < sections.length;
+    }
+
+    /**
+     * Writes a sub-chunk followed by the block entities inside of it.
+     */
+    public void writeSubChunk(int subChunkIndex, ByteBuf byteBuf) throws IOException {
+        int sectionY = subChunkIndex - minSubChunkIndex;
+        if (encodedSections[sectionY] != null) {
+            byteBuf.writeBytes(encodedSections[sectionY]);
+        } else {
+            sections[sectionY].writeToNetwork(byteBuf);
+        }
+
+        NBTOutputStream nbtStream = NbtUtils.createNetworkWriter(new ByteBufOutputStream(byteBuf));
+        for (NbtMap blockEntity : blockEntities) {
+            if ((blockEntity.getInt("y") >> 4) == subChunkIndex) {
+                nbtStream.writeTag(blockEntity);
+            }
+        }
+    }
+
+    /**
+     * Keeps a sub-chunk up to date with a block update, in case the client has not requested it yet.
+     *
+     * @param layer1RuntimeId the block on the second layer, which is either water or air
+     */
+    public void setBlock(int x, int y, int z, int runtimeId, int layer1RuntimeId, int airRuntimeId) {
+        int subChunkIndex = y >> 4;
+        int sectionY = subChunkIndex - minSubChunkIndex;
+        if (sectionY < 0 || sectionY >= sections.length) {
+            return;
+        }
+
+        GeyserChunkSection section = sections[sectionY];
+        if (section == null) {
+            if (runtimeId == airRuntimeId && layer1RuntimeId == airRuntimeId) {
+                return;
+            }
+            section = new GeyserChunkSection(airRuntimeId, subChunkIndex);
+        } else if (encodedSections[sectionY] != null || isImmutable(section)) {
+            section = section.copy(subChunkIndex);
+        }
+
+        BlockStorage[] layers = section.getBlockStorageArray();
+        if (layers.length < 2 && layer1RuntimeId != airRuntimeId) {
+            section = new GeyserChunkSection(new BlockStorage[] {layers[0], new BlockStorage(airRuntimeId)}, subChunkIndex);
+        }
+
+        section.setFullBlock(x & 0xF, y & 0xF, z & 0xF, 0, runtimeId);
+        if (section.getBlockStorageArray().length > 1) {
+            section.setFullBlock(x & 0xF, y & 0xF, z & 0xF, 1, layer1RuntimeId);
+        }
+        sections[sectionY] = section;
+        encodedSections[sectionY] = null;
+    }
+
+    /**
+     * Keeps a block entity up to date, replacing any block entity already at its position.
+     */
+    public void setBlockEntity(NbtMap blockEntity) {
+        int x = blockEntity.getInt("x");
+        int y = blockEntity.getInt("y");
+        int z = blockEntity.getInt("z");
+        for (int i = 0; i < blockEntities.size(); i++) {
+            NbtMap existing = blockEntities.get(i);
+            if (existing.getInt("x") == x && existing.getInt("y") == y && existing.getInt("z") == z) {
+                blockEntities.set(i, blockEntity);
+                return;
+            }
+        }
+        blockEntities.add(blockEntity);
+    }
+
+    private static boolean isImmutable(GeyserChunkSection section) {
+        for (BlockStorage storage : section.getBlockStorageArray()) {
+            IntList palette = storage.getPalette();
+            if (palette instanceof IntImmutableList || palette instanceof IntLists.Singleton) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
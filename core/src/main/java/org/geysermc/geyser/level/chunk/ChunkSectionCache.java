@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.BitStorage;
+import com.github.steveice10.mc.protocol.data.game.chunk.DataPalette;
+import com.github.steveice10.mc.protocol.data.game.chunk.palette.GlobalPalette;
+import com.github.steveice10.mc.protocol.data.game.chunk.palette.Palette;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.geyser.registry.type.BlockMappings;
+import org.geysermc.geyser.translator.level.BiomeTranslator;
+
+import java.util.Arrays;
+
+/**
+ * A cache shared between all sessions that stores translated and encoded Bedrock chunk sections, keyed by the content
+ * of the Java section they were translated from. Players standing in the same area receive the same Java sections,
+ * so each one only needs to be translated once.
+ * <p>
+ * Entries returned from this cache are shared and must never be modified - copy the section first.
+ */
+public final class ChunkSectionCache {
+    private final Cache<ContentKey, CachedSection> cache;
+
+    public ChunkSectionCache(int maximumSizeMegabytes) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maximumSizeMegabytes * 1024L * 1024L)
+                .weigher((ContentKey key, CachedSection value) -> key.weight() + value.weight())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Creates a key for the given Java block section. The backing arrays are not copied until the key is inserted
+     * into the cache, so creating a key for a lookup is cheap.
+     */
+    public ContentKey sectionKey(BlockMappings mappings, int subChunkIndex, Palette palette, BitStorage storage) {
+        return ContentKey.of(mappings, null, subChunkIndex, paletteStates(palette), storage.getBitsPerEntry(), storage.getData());
+    }
+
+    public @Nullable CachedSection getSection(ContentKey key) {
+        return this.cache.getIfPresent(key);
+    }
+
+    /**
+     * Stores a freshly translated section in the cache.
+     *
+     * @return the encoded bytes of this section, as they should be written to the network
+     */
+    public byte[] putSection(ContentKey key, GeyserChunkSection section) {
+        ByteBuf buffer = ByteBufAllocator.DEFAULT.heapBuffer(section.estimateNetworkSize());
+        byte[] encoded;
+        try {
+            section.writeToNetwork(buffer);
+            encoded = ByteBufUtil.getBytes(buffer);
+        } finally {
+            buffer.release();
+        }
+        this.cache.put(key.copy(), new CachedSection(section, encoded));
+        return encoded;
+    }
+
+    /**
+     * @return the encoded Bedrock biome section for this Java biome section, translating it if it is not yet cached
+     */
+    public byte[] getBiome(int[] biomeTranslations, DataPalette biomeData) {
+        BitStorage storage = biomeData.getStorage();
+        ContentKey key = ContentKey.of(null, biomeTranslations, 0, paletteStates(biomeData.getPalette()),
+                storage == null ? 0 : storage.getBitsPerEntry(), storage == null ? null : storage.getData());
+        CachedSection cached = this.cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.encoded();
+        }
+
+        BlockStorage biomes = BiomeTranslator.toNewBedrockBiome(biomeTranslations, biomeData);
+        ByteBuf buffer = ByteBufAllocator.DEFAULT.heapBuffer(biomes.estimateNetworkSize());
+        byte[] encoded;
+        try {
+            biomes.writeToNetwork(buffer);
+            encoded = ByteBufUtil.getBytes(buffer);
+        } finally {
+            buffer.release();
+        }
+        this.cache.put(key.copy(), new CachedSection(null, encoded));
+        return encoded;
+    }
+
+    public CacheStats stats() {
+        return this.cache.stats();
+    }
+
+    public long size() {
+        return this.cache.size();
+    }
+
+    public void clear() {
+        this.cache.invalidateAll();
+    }
+
+    private static int[] paletteStates(Palette palette) {
+        if (palette instanceof GlobalPalette) {
+            // The storage holds the states themselves; an empty array can't be mistaken for any other palette
+            return IntArrays.EMPTY_ARRAY;
+        }
+        int[] states = new int[palette.size()];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = palette.idToState(i);
+        }
+        return states;
+    }
+
+    /**
+     * @param section the translated section, or null if this is a biome section
+     * @param encoded the network representation of this section
+     */
+    public record CachedSection(@Nullable GeyserChunkSection section, byte[] encoded) {
+        int weight() {
+            // Sections hold roughly the same amount of data as their encoded form
+            return this.section == null ? this.encoded.length : this.encoded.length * 2;
+        }
+    }
+
+    /**
+     * Compares the full content of a section, so a hash collision can never result in the wrong section being sent.
+     * Block mappings and biome translations are compared by identity, as they are shared between sessions.
+     */
+    public static final class ContentKey {
+        private final @Nullable BlockMappings mappings;
+        private final int @Nullable [] biomeTranslations;
+        private final int subChunkIndex;
+        private final int[] palette;
+        private final int bitsPerEntry;
+        private final long @Nullable [] data;
+        private final int hash;
+
+        private ContentKey(@Nullable BlockMappings mappings, int @Nullable [] biomeTranslations, int subChunkIndex,
+                           int[] palette, int bitsPerEntry, long @Nullable [] data, int hash) {
+            this.mappings = mappings;
+            this.biomeTranslations = biomeTranslations;
+            this.subChunkIndex = subChunkIndex;
+            this.palette = palette;
+            this.bitsPerEntry = bitsPerEntry;
+            this.data = data;
+            this.hash = hash;
+        }
+
+        private static ContentKey of(@Nullable BlockMappings mappings, int @Nullable [] biomeTranslations, int subChunkIndex,
+                                     int[] palette, int bitsPerEntry, long @Nullable [] data) {
+            int hash = System.identityHashCode(mappings);
+            hash = 31 * hash + Arrays.hashCode(biomeTranslations);
+            hash = 31 * hash + subChunkIndex;
+            hash = 31 * hash + Arrays.hashCode(palette);
+            hash = 31 * hash + bitsPerEntry;
+            hash = 31 * hash + Arrays.hashCode(data);
+            return new ContentKey(mappings, biomeTranslations, subChunkIndex, palette, bitsPerEntry, data, hash);
+        }
+
+        /**
+         * Java data is mutated by the chunk cache on block updates, so anything stored must have its own copy.
+         */
+        private ContentKey copy() {
+            return new ContentKey(this.mappings, this.biomeTranslations, this.subChunkIndex, this.palette, this.bitsPerEntry,
+                    this.data == null ? null : this.data.clone(), this.hash);
+        }
+
+        private int weight() {
+            int weight = 64 + this.palette.length * 4;
+            if (this.data != null) {
+                weight += this.data.length * 8;
+            }
+            return weight;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ContentKey other)) return false;
+            return this.hash == other.hash
+                    && this.mappings == other.mappings
+                    && this.subChunkIndex == other.subChunkIndex
+                    && this.bitsPerEntry == other.bitsPerEntry
+                    && Arrays.equals(this.biomeTranslations, other.biomeTranslations)
+                    && Arrays.equals(this.palette, other.palette)
+                    && Arrays.equals(this.data, other.data);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.BitStorage;
+import com.github.steveice10.mc.protocol.data.game.chunk.DataPalette;
+import com.github.steveice10.mc.protocol.data.game.chunk.palette.GlobalPalette;
+import com.github.steveice10.mc.protocol.data.game.chunk.palette.Palette;
+import com.github.steveice10.mc.protocol.data.game.chunk.palette.SingletonPalette;
+import org.geysermc.geyser.util.MathUtils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A read-optimised copy of a Java chunk section, holding only the block states as a palette and packed indices.
+ * Sections made of a single block are shared between all chunks and sessions, and are replaced with a new
+ * section as soon as a different block is set.
+ */
+public final class CompactChunkSection {
+    private static final int SIZE = 4096;
+    /**
+     * The smallest amount of bits used for indices, as with Java Edition.
+     */
+    private static final int MIN_BITS = 4;
+    /**
+     * Past this, palettes are dropped and block states are stored directly, with as many bits as the highest block state
+     * in the section needs.
+     */
+    private static final int MAX_PALETTE_BITS = 8;
+
+    private static final Map<Integer, CompactChunkSection> SINGLETONS = new ConcurrentHashMap<>();
+
+    /**
+     * The block states of this section, or null if block states are stored directly in {@link #data}.
+     */
+    private int[] palette;
+    private int paletteSize;
+    /**
+     * Packed the same way as Java Edition: entries do not span across longs. Null if there is only one block state.
+     */
+    private long[] data;
+    private int bits;
+    private int valuesPerLong;
+    private long mask;
+
+    private CompactChunkSection(int[] palette, int paletteSize, long[] data, int bits) {
+        this.palette = palette;
+        this.paletteSize = paletteSize;
+        setData(data, bits);
+    }
+
+    public static CompactChunkSection singleton(int blockState) {
+        CompactChunkSection section = SINGLETONS.get(blockState);
+        if (section == null) {
+            section = SINGLETONS.computeIfAbsent(blockState, state -> new CompactChunkSection(new int[] {state}, 1, null, 0));
+        }
+        return section;
+    }
+
+    public static CompactChunkSection from(DataPalette dataPalette) {
+        Palette javaPalette = dataPalette.getPalette();
+        if (javaPalette instanceof SingletonPalette) {
+            return singleton(javaPalette.idToState(0));
+        }
+
+        // The storage is not used anywhere else once the chunk has been translated, so it doesn't need to be copied
+        BitStorage storage = dataPalette.getStorage();
+        if (javaPalette instanceof GlobalPalette) {
+            return new CompactChunkSection(null, 0, storage.getData(), storage.getBitsPerEntry());
+        }
+
+        int[] palette = new int[javaPalette.size()];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = javaPalette.idToState(i);
+        }
+        return new CompactChunkSection(palette, palette.length, storage.getData(), storage.getBitsPerEntry());
+    }
+
+    public int get(int x, int y, int z) {
+        if (data == null) {
+            return palette[0];
+        }
+        int value = getIndex(index(x, y, z));
+        return palette == null ? value : palette[value];
+    }
+
+    /**
+     * @return this section, or a new section if this one is shared and must not be modified
+     */
+    public CompactChunkSection set(int x, int y, int z, int blockState) {
+        CompactChunkSection section = this;
+        if (data == null) {
+            if (palette[0] == blockState) {
+                return this;
+            }
+            int[] palette = new int[1 << MIN_BITS];
+            palette[0] = this.palette[0];
+            section = new CompactChunkSection(palette, 1, new long[SIZE / (64 / MIN_BITS)], MIN_BITS);
+        }
+        section.set(index(x, y, z), blockState);
+        return section;
+    }
+
+    private void set(int index, int blockState) {
+        if (palette == null) {
+            if (blockState > mask) {
+                resize(MathUtils.getGlobalPaletteForSize(blockState + 1));
+            }
+            setIndex(index, blockState);
+            return;
+        }
+
+        int paletteId = -1;
+        for (int i = 0; i < paletteSize; i++) {
+            if (palette[i] == blockState) {
+                paletteId = i;
+                break;
+            }
+        }
+
+        if (paletteId == -1) {
+            if (paletteSize > mask) {
+                if (bits + 1 > MAX_PALETTE_BITS) {
+                    toDirect(blockState);
+                    setIndex(index, blockState);
+                    return;
+                }
+                resize(bits + 1);
+            }
+            if (paletteSize == palette.length) {
+                palette = Arrays.copyOf(palette, 1 << bits);
+            }
+            paletteId = paletteSize++;
+            palette[paletteId] = blockState;
+        }
+        setIndex(index, paletteId);
+    }
+
+    /**
+     * Repacks the indices, or the block states once stored directly, with a different amount of bits.
+     */
+    private void resize(int newBits) {
+        int[] values = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = getIndex(i);
+        }
+        repack(values, newBits);
+    }
+
+    /**
+     * Drops the palette and stores block states directly.
+     *
+     * @param blockState the block state about to be set, which is not in the palette yet
+     */
+    private void toDirect(int blockState) {
+        int maxBlockState = blockState;
+        for (int i = 0; i < paletteSize; i++) {
+            maxBlockState = Math.max(maxBlockState, palette[i]);
+        }
+
+        int[] values = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = palette[getIndex(i)];
+        }
+        palette = null;
+        paletteSize = 0;
+        repack(values, MathUtils.getGlobalPaletteForSize(maxBlockState + 1));
+    }
+
+    private void repack(int[] values, int newBits) {
+        setData(new long[(SIZE + (64 / newBits) - 1) / (64 / newBits)], newBits);
+        for (int i = 0; i < SIZE; i++) {
+            setIndex(i, values[i]);
+        }
+    }
+
+    private void setData(long[] data, int bits) {
+        this.data = data;
+        this.bits = bits;
+        this.valuesPerLong = bits == 0 ? 0 : 64 / bits;
+        this.mask = (1L << bits) - 1;
+    }
+
+    private int getIndex(int index) {
+        int shift = (index % valuesPerLong) * bits;
+        return (int) ((data[index / valuesPerLong] >>> shift) & mask);
+    }
+
+    private void setIndex(int index, int value) {
+        int cellIndex = index / valuesPerLong;
+        int shift = (index % valuesPerLong) * bits;
+        data[cellIndex] = (data[cellIndex] & ~(mask << shift)) | ((value & mask) << shift);
+    }
+
+    /**
+     * @return roughly how many bytes this section takes up in memory. Shared sections are not counted.
+     */
+    public long estimateMemoryUsage() {
+        if (data == null) {
+            return 0;
+        }
+        long usage = 40; // Object header and fields
+        usage += 16L + data.length * 8L;
+        if (palette != null) {
+            usage += 16L + palette.length * 4L;
+        }
+        return usage;
+    }
+
+    private static int index(int x, int y, int z) {
+        return y << 8 | z << 4 | x;
+    }
+}
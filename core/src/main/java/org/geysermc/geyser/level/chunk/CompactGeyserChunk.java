@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.DataPalette;
+import org.geysermc.geyser.level.block.BlockStateValues;
+
+/**
+ * Stores chunks as {@link CompactChunkSection}s, which take up much less memory than the sections received from the
+ * Java server.
+ */
+public record CompactGeyserChunk(CompactChunkSection[] sections) implements GeyserChunk {
+
+    public static CompactGeyserChunk from(DataPalette[] javaSections) {
+        CompactChunkSection[] sections = new CompactChunkSection[javaSections.length];
+        for (int i = 0; i < sections.length; i++) {
+            DataPalette javaSection = javaSections[i];
+            sections[i] = javaSection == null ? CompactChunkSection.singleton(BlockStateValues.JAVA_AIR_ID) : CompactChunkSection.from(javaSection);
+        }
+        return new CompactGeyserChunk(sections);
+    }
+
+    @Override
+    public int sectionCount() {
+        return sections.length;
+    }
+
+    @Override
+    public int getBlock(int sectionY, int x, int y, int z) {
+        return sections[sectionY].get(x, y, z);
+    }
+
+    @Override
+    public long setBlock(int sectionY, int x, int y, int z, int block) {
+        CompactChunkSection section = sections[sectionY];
+        long previousUsage = section.estimateMemoryUsage();
+        section = section.set(x, y, z, block);
+        sections[sectionY] = section;
+        return section.estimateMemoryUsage() - previousUsage;
+    }
+
+    @Override
+    public long estimateMemoryUsage() {
+        long usage = 16L + sections.length * 4L;
+        for (CompactChunkSection section : sections) {
+            usage += section.estimateMemoryUsage();
+        }
+        return usage;
+    }
+}
@@ -30,9 +30,31 @@ import com.github.steveice10.mc.protocol.data.game.chunk.DataPalette;
 /**
  * Acts as a lightweight chunk class that doesn't store biomes, heightmaps or block entities.
  */
-public record GeyserChunk(DataPalette[] sections) {
+public interface GeyserChunk {
 
-    public static GeyserChunk from(DataPalette[] sections) {
-        return new GeyserChunk(sections);
+    static GeyserChunk from(DataPalette[] sections, boolean compact) {
+        return compact ? CompactGeyserChunk.from(sections) : new PaletteGeyserChunk(sections);
     }
+
+    /**
+     * @return the amount of sections in this chunk
+     */
+    int sectionCount();
+
+    /**
+     * @param sectionY the index of the section, starting from the bottom of the world
+     * @return the Java block state at this position
+     */
+    int getBlock(int sectionY, int x, int y, int z);
+
+    /**
+     * @param sectionY the index of the section, starting from the bottom of the world
+     * @return how many bytes were added to the estimated memory usage of this chunk
+     */
+    long setBlock(int sectionY, int x, int y, int z, int block);
+
+    /**
+     * @return roughly how many bytes this chunk takes up in memory
+     */
+    long estimateMemoryUsage();
 }
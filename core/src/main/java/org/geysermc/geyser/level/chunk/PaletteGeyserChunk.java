@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.DataPalette;
+import com.github.steveice10.mc.protocol.data.game.chunk.palette.GlobalPalette;
+import com.github.steveice10.mc.protocol.data.game.chunk.palette.MapPalette;
+import com.github.steveice10.mc.protocol.data.game.chunk.palette.Palette;
+import org.geysermc.geyser.level.block.BlockStateValues;
+
+/**
+ * Stores chunks as they were received from the Java server.
+ */
+public record PaletteGeyserChunk(DataPalette[] sections) implements GeyserChunk {
+
+    @Override
+    public int sectionCount() {
+        return sections.length;
+    }
+
+    @Override
+    public int getBlock(int sectionY, int x, int y, int z) {
+        DataPalette palette = sections[sectionY];
+        if (palette != null) {
+            return palette.get(x, y, z);
+        }
+        return BlockStateValues.JAVA_AIR_ID;
+    }
+
+    @Override
+    public long setBlock(int sectionY, int x, int y, int z, int block) {
+        DataPalette palette = sections[sectionY];
+        long previousUsage = 0;
+        if (palette == null) {
+            if (block == BlockStateValues.JAVA_AIR_ID) {
+                // Nothing to update
+                return 0;
+            }
+            // A previously empty chunk, which is no longer empty as a block has been added to it
+            palette = DataPalette.createForChunk();
+            // Fixes the chunk assuming that all blocks is the `block` variable we are updating. /shrug
+            palette.getPalette().stateToId(BlockStateValues.JAVA_AIR_ID);
+            sections[sectionY] = palette;
+        } else {
+            previousUsage = estimateMemoryUsage(palette);
+        }
+
+        palette.set(x, y, z, block);
+        return estimateMemoryUsage(palette) - previousUsage;
+    }
+
+    @Override
+    public long estimateMemoryUsage() {
+        long usage = 16L + sections.length * 4L;
+        for (DataPalette palette : sections) {
+            if (palette != null) {
+                usage += estimateMemoryUsage(palette);
+            }
+        }
+        return usage;
+    }
+
+    private static long estimateMemoryUsage(DataPalette palette) {
+        long usage = 48; // The palette, its storage and their fields
+        if (palette.getStorage() != null) {
+            usage += 16L + palette.getStorage().getData().length * 8L;
+        }
+
+        Palette javaPalette = palette.getPalette();
+        if (javaPalette instanceof MapPalette) {
+            // Two hash maps of boxed integers
+            usage += javaPalette.size() * 64L;
+        } else if (!(javaPalette instanceof GlobalPalette)) {
+            usage += javaPalette.size() * 4L;
+        }
+        return usage;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk.bitarray;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.BitStorage;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.BitSet;
+
+/**
+ * Converts a Java block storage into a Bedrock bit array, changing the coordinate order from YZX to XZY.
+ * This works on the backing words of both arrays rather than getting and setting each entry separately.
+ */
+public final class SectionTransposer {
+    private static final int SIZE = 4096;
+
+    private static final ThreadLocal<int[]> UNPACKED = ThreadLocal.withInitial(() -> new int[SIZE]);
+
+    /**
+     * Fills the Bedrock bit array with every palette ID of the Java storage.
+     *
+     * @param javaData the Java storage, in YZX order
+     * @param bedrockData a freshly created Bedrock bit array with enough bits to store every Java palette ID
+     * @param waterlogged the palette IDs that are waterlogged, or null if no waterlogged layer is needed
+     * @param layer1Data the words of a {@link BitArrayVersion#V1} array, which will have a bit set for every
+     *                   waterlogged block. Must not be null if waterlogged is not null.
+     */
+    public static void transpose(BitStorage javaData, BitArray bedrockData, @Nullable BitSet waterlogged, int @Nullable [] layer1Data) {
+        int[] unpacked = UNPACKED.get();
+        unpack(javaData, unpacked);
+
+        int[] words = bedrockData.getWords();
+        switch (bedrockData.getVersion()) {
+            case V2 -> packColumns(unpacked, words, 2, waterlogged, layer1Data);
+            case V4 -> packColumns(unpacked, words, 4, waterlogged, layer1Data);
+            case V8 -> packColumns(unpacked, words, 8, waterlogged, layer1Data);
+            case V16 -> packColumns(unpacked, words, 16, waterlogged, layer1Data);
+            case V1, V3, V5, V6 -> packSequential(unpacked, words, bedrockData.getVersion(), waterlogged, layer1Data);
+            default -> throw new IllegalArgumentException("Cannot transpose into " + bedrockData.getVersion());
+        }
+    }
+
+    /**
+     * Reads every entry of the Java storage into an int array, in YZX order.
+     */
+    static void unpack(BitStorage javaData, int[] unpacked) {
+        long[] data = javaData.getData();
+        int bits = javaData.getBitsPerEntry();
+        if (bits == 4) {
+            // By far the most common case - exactly 16 entries per long
+            for (int i = 0; i < data.length; i++) {
+                long word = data[i];
+                int base = i << 4;
+                for (int j = 0; j < 16; j++) {
+                    unpacked[base + j] = (int) (word & 0xF);
+                    word >>>= 4;
+                }
+            }
+            return;
+        }
+
+        // Since 1.16, entries do not span across longs and the unused high bits are padding
+        int valuesPerLong = 64 / bits;
+        long mask = (1L << bits) - 1;
+        int index = 0;
+        for (long word : data) {
+            for (int j = 0; j < valuesPerLong && index < SIZE; j++) {
+                unpacked[index++] = (int) (word & mask);
+                word >>>= bits;
+            }
+        }
+    }
+
+    /**
+     * For power-of-two versions of at least two bits, a word never spans more than one XZ column. Going column by
+     * column means the YZX index of each entry is a fixed base plus 256 for every Y level.
+     */
+    private static void packColumns(int[] unpacked, int[] words, int bits, @Nullable BitSet waterlogged, int @Nullable [] layer1Data) {
+        int wordIndex = 0;
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                int yzxBase = (z << 4) | x;
+                int y = 0;
+                while (y < 16) {
+                    int word = 0;
+                    for (int shift = 0; shift < 32; shift += bits) {
+                        word |= unpacked[yzxBase | (y << 8)] << shift;
+                        y++;
+                    }
+                    words[wordIndex++] = word;
+                }
+
+                if (waterlogged != null) {
+                    // Each column takes up half of a layer 1 word
+                    int column = (x << 4) | z;
+                    int layer1Word = 0;
+                    for (y = 0; y < 16; y++) {
+                        if (waterlogged.get(unpacked[yzxBase | (y << 8)])) {
+                            layer1Word |= 1 << y;
+                        }
+                    }
+                    layer1Data[column >> 1] |= layer1Word << ((column & 1) << 4);
+                }
+            }
+        }
+    }
+
+    /**
+     * Padded versions (and V1) have words that span more than one column, so entries are packed in XZY order.
+     */
+    private static void packSequential(int[] unpacked, int[] words, BitArrayVersion version, @Nullable BitSet waterlogged, int @Nullable [] layer1Data) {
+        int bits = version.bits;
+        int entriesPerWord = version.entriesPerWord;
+        int xzy = 0;
+        for (int i = 0; i < words.length; i++) {
+            int word = 0;
+            for (int j = 0; j < entriesPerWord && xzy < SIZE; j++) {
+                int paletteId = unpacked[((xzy & 0xF) << 8) | (xzy & 0xF0) | (xzy >> 8)];
+                word |= paletteId << (j * bits);
+                if (waterlogged != null && waterlogged.get(paletteId)) {
+                    layer1Data[xzy >> 5] |= 1 << (xzy & 0x1F);
+                }
+                xzy++;
+            }
+            words[i] = word;
+        }
+    }
+
+    private SectionTransposer() {
+    }
+}
@@ -71,6 +71,21 @@ public class BoundingBox implements Cloneable {
         return checkIntersection(offset.getX(), offset.getY(), offset.getZ(), otherBox);
     }
 
+    /**
+     * Copies the position and size of another bounding box into this one.
+     *
+     * @param other the bounding box to copy from
+     */
+    public void copyFrom(BoundingBox other) {
+        middleX = other.middleX;
+        middleY = other.middleY;
+        middleZ = other.middleZ;
+
+        sizeX = other.sizeX;
+        sizeY = other.sizeY;
+        sizeZ = other.sizeZ;
+    }
+
     public Vector3d getMin() {
         double x = middleX - sizeX / 2;
         double y = middleY - sizeY / 2;
@@ -89,6 +104,22 @@ public class BoundingBox implements Cloneable {
         return Vector3d.from(middleX, middleY - sizeY / 2, middleZ);
     }
 
+    private double getMin(Axis axis) {
+        return switch (axis) {
+            case X -> middleX - sizeX / 2;
+            case Y -> middleY - sizeY / 2;
+            case Z -> middleZ - sizeZ / 2;
+        };
+    }
+
+    private double getMax(Axis axis) {
+        return switch (axis) {
+            case X -> middleX + sizeX / 2;
+            case Y -> middleY + sizeY / 2;
+            case Z -> middleZ + sizeZ / 2;
+        };
+    }
+
     private boolean checkOverlapInAxis(double xOffset, double yOffset, double zOffset, BoundingBox otherBox, Axis axis) {
         return switch (axis) {
             case X -> Math.abs((middleX + xOffset) - otherBox.getMiddleX()) * 2 < (sizeX + otherBox.getSizeX());
@@ -116,14 +147,14 @@ public class BoundingBox implements Cloneable {
             }
         }
         if (offset > 0) {
-            double min = axis.choose(getMin().add(xOffset, yOffset, zOffset));
-            double max = axis.choose(otherBoundingBox.getMax());
+            double min = getMin(axis) + axis.choose(xOffset, yOffset, zOffset);
+            double max = otherBoundingBox.getMax(axis);
             if ((min - max) >= -2.0 * CollisionManager.COLLISION_TOLERANCE) {
                 offset = Math.min(min - max, offset);
             }
         } else if (offset < 0) {
-            double min = axis.choose(otherBoundingBox.getMin());
-            double max = axis.choose(getMax().add(xOffset, yOffset, zOffset));
+            double min = otherBoundingBox.getMin(axis);
+            double max = getMax(axis) + axis.choose(xOffset, yOffset, zOffset);
             if ((min - max) >= -2.0 * CollisionManager.COLLISION_TOLERANCE) {
                 offset = Math.max(max - min, offset);
             }
@@ -140,12 +171,12 @@ public class BoundingBox implements Cloneable {
      */
     public double getIntersectionSize(BoundingBox otherBoundingBox, Direction side) {
         return switch (side) {
-            case DOWN -> getMax().getY() - otherBoundingBox.getMin().getY();
-            case UP -> otherBoundingBox.getMax().getY() - getMin().getY();
-            case NORTH -> getMax().getZ() - otherBoundingBox.getMin().getZ();
-            case SOUTH -> otherBoundingBox.getMax().getZ() - getMin().getZ();
-            case WEST -> getMax().getX() - otherBoundingBox.getMin().getX();
-            case EAST -> otherBoundingBox.getMax().getX() - getMin().getX();
+            case DOWN -> getMax(Axis.Y) - otherBoundingBox.getMin(Axis.Y);
+            case UP -> otherBoundingBox.getMax(Axis.Y) - getMin(Axis.Y);
+            case NORTH -> getMax(Axis.Z) - otherBoundingBox.getMin(Axis.Z);
+            case SOUTH -> otherBoundingBox.getMax(Axis.Z) - getMin(Axis.Z);
+            case WEST -> getMax(Axis.X) - otherBoundingBox.getMin(Axis.X);
+            case EAST -> otherBoundingBox.getMax(Axis.X) - getMin(Axis.X);
         };
     }
 
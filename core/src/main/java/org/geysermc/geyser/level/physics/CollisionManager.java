@@ -44,10 +44,7 @@ import org.geysermc.geyser.session.cache.PistonCache;
 import org.geysermc.geyser.translator.collision.BlockCollision;
 import org.geysermc.geyser.translator.collision.ScaffoldingCollision;
 import org.geysermc.geyser.util.BlockUtils;
-
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
-import java.util.Locale;
+import org.geysermc.geyser.util.MathUtils;
 
 public class CollisionManager {
 
@@ -56,6 +53,12 @@ public class CollisionManager {
     @Getter
     private final BoundingBox playerBoundingBox;
 
+    /**
+     * The blocks around the player, so that movement packets usually don't need to query the world
+     */
+    @Getter
+    private final CollisionSnapshot collisionSnapshot;
+
     /**
      * Whether the player is inside scaffolding
      */
@@ -75,9 +78,9 @@ public class CollisionManager {
     public static final double COLLISION_TOLERANCE = 0.00001;
     /**
      * Trims Y coordinates when jumping to prevent rounding issues being sent to the server.
-     * The locale used is necessary so other regions don't use <code>,</code> as their decimal separator.
+     * Y coordinates are rounded to five decimal places.
      */
-    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("#.#####", new DecimalFormatSymbols(Locale.ENGLISH));
+    private static final double Y_TRIM_SCALE = 100000;
 
     private static final double PLAYER_STEP_UP = 0.6;
 
@@ -87,9 +90,27 @@ public class CollisionManager {
      */
     private static final double INCORRECT_MOVEMENT_THRESHOLD = 0.08;
 
+    /*
+     * Scratch state for movement correction, which runs for every movement packet. This is only touched from the
+     * session's event loop, so it can be reused instead of allocating new vectors and bounding boxes each time.
+     */
+    private final BoundingBox movementBoundingBox = new BoundingBox(0, 0, 0, 0, 0, 0);
+    private final BoundingBox stretchedBoundingBox = new BoundingBox(0, 0, 0, 0, 0, 0);
+    private double correctedX;
+    private double correctedY;
+    private double correctedZ;
+
+    private int minCollisionX;
+    private int minCollisionY;
+    private int minCollisionZ;
+    private int maxCollisionX;
+    private int maxCollisionY;
+    private int maxCollisionZ;
+
     public CollisionManager(GeyserSession session) {
         this.session = session;
         this.playerBoundingBox = new BoundingBox(0, 0, 0, 0.6, 1.8, 0.6);
+        this.collisionSnapshot = new CollisionSnapshot(session);
     }
 
     /**
@@ -140,18 +161,21 @@ public class CollisionManager {
         if (pistonCache.isPlayerAttachedToHoney()) {
             return null;
         }
-        // We need to parse the float as a string since casting a float to a double causes us to
+        // We need to use the float's shortest decimal representation since casting a float to a double causes us to
         // lose precision and thus, causes players to get stuck when walking near walls
         double javaY = bedrockPosition.getY() - EntityDefinitions.PLAYER.offset();
 
-        Vector3d position = Vector3d.from(Double.parseDouble(Float.toString(bedrockPosition.getX())), javaY,
-                Double.parseDouble(Float.toString(bedrockPosition.getZ())));
-
-        Vector3d startingPos = playerBoundingBox.getBottomCenter();
-        Vector3d movement = position.sub(startingPos);
-        Vector3d adjustedMovement = correctPlayerMovement(movement, false, teleported);
-        playerBoundingBox.translate(adjustedMovement.getX(), adjustedMovement.getY(), adjustedMovement.getZ());
-        playerBoundingBox.translate(pistonCache.getPlayerMotion().getX(), pistonCache.getPlayerMotion().getY(), pistonCache.getPlayerMotion().getZ());
+        double movementX = MathUtils.toShortestDouble(bedrockPosition.getX()) - playerBoundingBox.getMiddleX();
+        double movementY = javaY - (playerBoundingBox.getMiddleY() - playerBoundingBox.getSizeY() / 2);
+        double movementZ = MathUtils.toShortestDouble(bedrockPosition.getZ()) - playerBoundingBox.getMiddleZ();
+
+        correctPlayerMovement(movementX, movementY, movementZ, false, teleported);
+        double adjustedX = correctedX;
+        double adjustedY = correctedY;
+        double adjustedZ = correctedZ;
+        playerBoundingBox.translate(adjustedX, adjustedY, adjustedZ);
+        Vector3f playerMotion = pistonCache.getPlayerMotion();
+        playerBoundingBox.translate(playerMotion.getX(), playerMotion.getY(), playerMotion.getZ());
         // Correct player position
         if (!correctPlayerPosition()) {
             // Cancel the movement if it needs to be cancelled
@@ -164,23 +188,29 @@ public class CollisionManager {
             return null;
         }
 
-        position = playerBoundingBox.getBottomCenter();
+        double positionX = playerBoundingBox.getMiddleX();
+        double positionY = playerBoundingBox.getMiddleY() - playerBoundingBox.getSizeY() / 2;
+        double positionZ = playerBoundingBox.getMiddleZ();
 
-        boolean newOnGround = adjustedMovement.getY() != movement.getY() && movement.getY() < 0 || onGround;
+        boolean newOnGround = adjustedY != movementY && movementY < 0 || onGround;
         // Send corrected position to Bedrock if they differ by too much to prevent de-syncs
-        if (onGround != newOnGround || movement.distanceSquared(adjustedMovement) > INCORRECT_MOVEMENT_THRESHOLD) {
+        double differenceX = movementX - adjustedX;
+        double differenceY = movementY - adjustedY;
+        double differenceZ = movementZ - adjustedZ;
+        if (onGround != newOnGround || differenceX * differenceX + differenceY * differenceY + differenceZ * differenceZ > INCORRECT_MOVEMENT_THRESHOLD) {
             PlayerEntity playerEntity = session.getPlayerEntity();
-            if (pistonCache.getPlayerMotion().equals(Vector3f.ZERO) && !pistonCache.isPlayerSlimeCollision()) {
-                playerEntity.moveAbsolute(position.toFloat(), playerEntity.getYaw(), playerEntity.getPitch(), playerEntity.getHeadYaw(), newOnGround, true);
+            if (playerMotion.equals(Vector3f.ZERO) && !pistonCache.isPlayerSlimeCollision()) {
+                Vector3f position = Vector3f.from((float) positionX, (float) positionY, (float) positionZ);
+                playerEntity.moveAbsolute(position, playerEntity.getYaw(), playerEntity.getPitch(), playerEntity.getHeadYaw(), newOnGround, true);
             }
         }
 
         if (!onGround) {
             // Trim the position to prevent rounding errors that make Java think we are clipping into a block
-            position = Vector3d.from(position.getX(), Double.parseDouble(DECIMAL_FORMAT.format(position.getY())), position.getZ());
+            positionY = Math.rint(positionY * Y_TRIM_SCALE) / Y_TRIM_SCALE;
         }
 
-        return position;
+        return Vector3d.from(positionX, positionY, positionZ);
     }
 
     // TODO: This makes the player look upwards for some reason, rotation values must be wrong
@@ -198,29 +228,35 @@ public class CollisionManager {
     }
 
     public BlockPositionIterator collidableBlocksIterator(BoundingBox box) {
-        Vector3d position = Vector3d.from(box.getMiddleX(),
-                box.getMiddleY() - (box.getSizeY() / 2),
-                box.getMiddleZ());
+        updateCollisionBounds(box);
+        return BlockPositionIterator.fromMinMax(minCollisionX, minCollisionY, minCollisionZ, maxCollisionX, maxCollisionY, maxCollisionZ);
+    }
+
+    public BlockPositionIterator playerCollidableBlocksIterator() {
+        return collidableBlocksIterator(playerBoundingBox);
+    }
+
+    /**
+     * Stores the range of blocks that could collide with the given bounding box in the collision bound fields.
+     */
+    private void updateCollisionBounds(BoundingBox box) {
+        double positionX = box.getMiddleX();
+        double positionY = box.getMiddleY() - (box.getSizeY() / 2);
+        double positionZ = box.getMiddleZ();
 
         // Expand volume by 1 in each direction to include moving blocks
         double pistonExpand = session.getPistonCache().getPistons().isEmpty() ? 0 : 1;
 
         // Loop through all blocks that could collide
-        int minCollisionX = (int) Math.floor(position.getX() - ((box.getSizeX() / 2) + COLLISION_TOLERANCE + pistonExpand));
-        int maxCollisionX = (int) Math.floor(position.getX() + (box.getSizeX() / 2) + COLLISION_TOLERANCE + pistonExpand);
+        minCollisionX = (int) Math.floor(positionX - ((box.getSizeX() / 2) + COLLISION_TOLERANCE + pistonExpand));
+        maxCollisionX = (int) Math.floor(positionX + (box.getSizeX() / 2) + COLLISION_TOLERANCE + pistonExpand);
 
         // Y extends 0.5 blocks down because of fence hitboxes
-        int minCollisionY = (int) Math.floor(position.getY() - 0.5 - COLLISION_TOLERANCE - pistonExpand / 2.0);
-        int maxCollisionY = (int) Math.floor(position.getY() + box.getSizeY() + pistonExpand);
-
-        int minCollisionZ = (int) Math.floor(position.getZ() - ((box.getSizeZ() / 2) + COLLISION_TOLERANCE + pistonExpand));
-        int maxCollisionZ = (int) Math.floor(position.getZ() + (box.getSizeZ() / 2) + COLLISION_TOLERANCE + pistonExpand);
+        minCollisionY = (int) Math.floor(positionY - 0.5 - COLLISION_TOLERANCE - pistonExpand / 2.0);
+        maxCollisionY = (int) Math.floor(positionY + box.getSizeY() + pistonExpand);
 
-        return BlockPositionIterator.fromMinMax(minCollisionX, minCollisionY, minCollisionZ, maxCollisionX, maxCollisionY, maxCollisionZ);
-    }
-
-    public BlockPositionIterator playerCollidableBlocksIterator() {
-        return collidableBlocksIterator(playerBoundingBox);
+        minCollisionZ = (int) Math.floor(positionZ - ((box.getSizeZ() / 2) + COLLISION_TOLERANCE + pistonExpand));
+        maxCollisionZ = (int) Math.floor(positionZ + (box.getSizeZ() / 2) + COLLISION_TOLERANCE + pistonExpand);
     }
 
     /**
@@ -234,22 +270,31 @@ public class CollisionManager {
         touchingScaffolding = false;
         onScaffolding = false;
 
+        updateCollisionBounds(playerBoundingBox);
+        collisionSnapshot.cover(minCollisionX, minCollisionY, minCollisionZ, maxCollisionX, maxCollisionY, maxCollisionZ);
+
         // Used when correction code needs to be run before the main correction
-        BlockPositionIterator iter = session.getCollisionManager().playerCollidableBlocksIterator();
-        int[] blocks = session.getGeyser().getWorldManager().getBlocksAt(session, iter);
-        for (iter.reset(); iter.hasNext(); iter.next()) {
-            BlockCollision blockCollision = BlockUtils.getCollision(blocks[iter.getIteration()]);
-            if (blockCollision != null) {
-                blockCollision.beforeCorrectPosition(iter.getX(), iter.getY(), iter.getZ(), playerBoundingBox);
+        for (int x = minCollisionX; x <= maxCollisionX; x++) {
+            for (int z = minCollisionZ; z <= maxCollisionZ; z++) {
+                for (int y = minCollisionY; y <= maxCollisionY; y++) {
+                    BlockCollision blockCollision = collisionSnapshot.getCollision(x, y, z);
+                    if (blockCollision != null) {
+                        blockCollision.beforeCorrectPosition(x, y, z, playerBoundingBox);
+                    }
+                }
             }
         }
 
         // Main correction code
-        for (iter.reset(); iter.hasNext(); iter.next()) {
-            BlockCollision blockCollision = BlockUtils.getCollision(blocks[iter.getIteration()]);
-            if (blockCollision != null) {
-                if (!blockCollision.correctPosition(session, iter.getX(), iter.getY(), iter.getZ(), playerBoundingBox)) {
-                    return false;
+        for (int x = minCollisionX; x <= maxCollisionX; x++) {
+            for (int z = minCollisionZ; z <= maxCollisionZ; z++) {
+                for (int y = minCollisionY; y <= maxCollisionY; y++) {
+                    BlockCollision blockCollision = collisionSnapshot.getCollision(x, y, z);
+                    if (blockCollision != null) {
+                        if (!blockCollision.correctPosition(session, x, y, z, playerBoundingBox)) {
+                            return false;
+                        }
+                    }
                 }
             }
         }
@@ -260,103 +305,147 @@ public class CollisionManager {
     }
 
     public Vector3d correctPlayerMovement(Vector3d movement, boolean checkWorld, boolean teleported) {
+        correctPlayerMovement(movement.getX(), movement.getY(), movement.getZ(), checkWorld, teleported);
+        return Vector3d.from(correctedX, correctedY, correctedZ);
+    }
+
+    /**
+     * Same as {@link #correctPlayerMovement(Vector3d, boolean, boolean)}, but stores the result in the corrected fields.
+     */
+    private void correctPlayerMovement(double movementX, double movementY, double movementZ, boolean checkWorld, boolean teleported) {
         // On the teleported check: see https://github.com/GeyserMC/Geyser/issues/2540
         // As of this commit we don't know how it happens but we don't need to check movement here anyway in that case
         if (teleported || (!checkWorld && session.getPistonCache().getPistons().isEmpty())) { // There is nothing to check
-            return movement;
+            correctedX = movementX;
+            correctedY = movementY;
+            correctedZ = movementZ;
+            return;
         }
-        return correctMovement(movement, playerBoundingBox, session.getPlayerEntity().isOnGround(), PLAYER_STEP_UP, checkWorld);
+        correctMovement(movementX, movementY, movementZ, playerBoundingBox, session.getPlayerEntity().isOnGround(), PLAYER_STEP_UP, checkWorld);
     }
 
     public Vector3d correctMovement(Vector3d movement, BoundingBox boundingBox, boolean onGround, double stepUp, boolean checkWorld) {
-        Vector3d adjustedMovement = movement;
-        if (!movement.equals(Vector3d.ZERO)) {
-            adjustedMovement = correctMovementForCollisions(movement, boundingBox, checkWorld);
+        correctMovement(movement.getX(), movement.getY(), movement.getZ(), boundingBox, onGround, stepUp, checkWorld);
+        return Vector3d.from(correctedX, correctedY, correctedZ);
+    }
+
+    /**
+     * Same as {@link #correctMovement(Vector3d, BoundingBox, boolean, double, boolean)}, but stores the result in the corrected fields.
+     */
+    private void correctMovement(double movementX, double movementY, double movementZ, BoundingBox boundingBox, boolean onGround, double stepUp, boolean checkWorld) {
+        double adjustedX = movementX;
+        double adjustedY = movementY;
+        double adjustedZ = movementZ;
+        if (movementX != 0 || movementY != 0 || movementZ != 0) {
+            correctMovementForCollisions(movementX, movementY, movementZ, boundingBox, checkWorld);
+            adjustedX = correctedX;
+            adjustedY = correctedY;
+            adjustedZ = correctedZ;
         }
 
-        boolean verticalCollision = adjustedMovement.getY() != movement.getY();
-        boolean horizontalCollision = adjustedMovement.getX() != movement.getX() || adjustedMovement.getZ() != movement.getZ();
-        boolean falling = movement.getY() < 0;
+        boolean verticalCollision = adjustedY != movementY;
+        boolean horizontalCollision = adjustedX != movementX || adjustedZ != movementZ;
+        boolean falling = movementY < 0;
         onGround = onGround || (verticalCollision && falling);
         if (onGround && horizontalCollision) {
-            Vector3d horizontalMovement = Vector3d.from(movement.getX(), 0, movement.getZ());
-            Vector3d stepUpMovement = correctMovementForCollisions(horizontalMovement.up(stepUp), boundingBox, checkWorld);
-
-            BoundingBox stretchedBoundingBox = boundingBox.clone();
-            stretchedBoundingBox.extend(horizontalMovement);
-            double maxStepUp = correctMovementForCollisions(Vector3d.from(0, stepUp, 0), stretchedBoundingBox, checkWorld).getY();
+            correctMovementForCollisions(movementX, stepUp, movementZ, boundingBox, checkWorld);
+            double stepUpX = correctedX;
+            double stepUpY = correctedY;
+            double stepUpZ = correctedZ;
+
+            stretchedBoundingBox.copyFrom(boundingBox);
+            stretchedBoundingBox.extend(movementX, 0, movementZ);
+            correctMovementForCollisions(0, stepUp, 0, stretchedBoundingBox, checkWorld);
+            double maxStepUp = correctedY;
             if (maxStepUp < stepUp) { // The player collided with a block above them
                 boundingBox.translate(0, maxStepUp, 0);
-                Vector3d adjustedStepUpMovement = correctMovementForCollisions(horizontalMovement, boundingBox, checkWorld);
+                correctMovementForCollisions(movementX, 0, movementZ, boundingBox, checkWorld);
                 boundingBox.translate(0, -maxStepUp, 0);
 
-                if (squaredHorizontalLength(adjustedStepUpMovement) > squaredHorizontalLength(stepUpMovement)) {
-                    stepUpMovement = adjustedStepUpMovement.up(maxStepUp);
+                if (squaredHorizontalLength(correctedX, correctedZ) > squaredHorizontalLength(stepUpX, stepUpZ)) {
+                    stepUpX = correctedX;
+                    stepUpY = correctedY + maxStepUp;
+                    stepUpZ = correctedZ;
                 }
             }
 
-            if (squaredHorizontalLength(stepUpMovement) > squaredHorizontalLength(adjustedMovement)) {
-                boundingBox.translate(stepUpMovement.getX(), stepUpMovement.getY(), stepUpMovement.getZ());
+            if (squaredHorizontalLength(stepUpX, stepUpZ) > squaredHorizontalLength(adjustedX, adjustedZ)) {
+                boundingBox.translate(stepUpX, stepUpY, stepUpZ);
                 // Apply the player's remaining vertical movement
-                double verticalMovement = correctMovementForCollisions(Vector3d.from(0, movement.getY() - stepUpMovement.getY(), 0), boundingBox, checkWorld).getY();
-                boundingBox.translate(-stepUpMovement.getX(), -stepUpMovement.getY(), -stepUpMovement.getZ());
+                correctMovementForCollisions(0, movementY - stepUpY, 0, boundingBox, checkWorld);
+                double verticalMovement = correctedY;
+                boundingBox.translate(-stepUpX, -stepUpY, -stepUpZ);
 
-                stepUpMovement = stepUpMovement.up(verticalMovement);
-                adjustedMovement = stepUpMovement;
+                adjustedX = stepUpX;
+                adjustedY = stepUpY + verticalMovement;
+                adjustedZ = stepUpZ;
             }
         }
-        return adjustedMovement;
-    }
 
-    private double squaredHorizontalLength(Vector3d vector) {
-        return vector.getX() * vector.getX() + vector.getZ() * vector.getZ();
+        correctedX = adjustedX;
+        correctedY = adjustedY;
+        correctedZ = adjustedZ;
     }
 
-    private Vector3d correctMovementForCollisions(Vector3d movement, BoundingBox boundingBox, boolean checkWorld) {
-        double movementX = movement.getX();
-        double movementY = movement.getY();
-        double movementZ = movement.getZ();
+    private double squaredHorizontalLength(double x, double z) {
+        return x * x + z * z;
+    }
 
-        BoundingBox movementBoundingBox = boundingBox.clone();
-        movementBoundingBox.extend(movement);
-        BlockPositionIterator iter = collidableBlocksIterator(movementBoundingBox);
+    private void correctMovementForCollisions(double movementX, double movementY, double movementZ, BoundingBox boundingBox, boolean checkWorld) {
+        movementBoundingBox.copyFrom(boundingBox);
+        movementBoundingBox.extend(movementX, movementY, movementZ);
+        updateCollisionBounds(movementBoundingBox);
+        if (checkWorld) {
+            collisionSnapshot.cover(minCollisionX, minCollisionY, minCollisionZ, maxCollisionX, maxCollisionY, maxCollisionZ);
+        }
         if (Math.abs(movementY) > CollisionManager.COLLISION_TOLERANCE) {
-            movementY = computeCollisionOffset(boundingBox, Axis.Y, movementY, iter, checkWorld);
+            movementY = computeCollisionOffset(boundingBox, Axis.Y, movementY, checkWorld);
             boundingBox.translate(0, movementY, 0);
         }
         boolean checkZFirst = Math.abs(movementZ) > Math.abs(movementX);
         if (checkZFirst && Math.abs(movementZ) > CollisionManager.COLLISION_TOLERANCE) {
-            movementZ = computeCollisionOffset(boundingBox, Axis.Z, movementZ, iter, checkWorld);
+            movementZ = computeCollisionOffset(boundingBox, Axis.Z, movementZ, checkWorld);
             boundingBox.translate(0, 0, movementZ);
         }
         if (Math.abs(movementX) > CollisionManager.COLLISION_TOLERANCE) {
-            movementX = computeCollisionOffset(boundingBox, Axis.X, movementX, iter, checkWorld);
+            movementX = computeCollisionOffset(boundingBox, Axis.X, movementX, checkWorld);
             boundingBox.translate(movementX, 0, 0);
         }
         if (!checkZFirst && Math.abs(movementZ) > CollisionManager.COLLISION_TOLERANCE) {
-            movementZ = computeCollisionOffset(boundingBox, Axis.Z, movementZ, iter, checkWorld);
+            movementZ = computeCollisionOffset(boundingBox, Axis.Z, movementZ, checkWorld);
             boundingBox.translate(0, 0, movementZ);
         }
 
         boundingBox.translate(-movementX, -movementY, -movementZ);
-        return Vector3d.from(movementX, movementY, movementZ);
+        correctedX = movementX;
+        correctedY = movementY;
+        correctedZ = movementZ;
     }
 
-    private double computeCollisionOffset(BoundingBox boundingBox, Axis axis, double offset, BlockPositionIterator iter, boolean checkWorld) {
-        for (iter.reset(); iter.hasNext(); iter.next()) {
-            int x = iter.getX();
-            int y = iter.getY();
-            int z = iter.getZ();
-            if (checkWorld) {
-                BlockCollision blockCollision = BlockUtils.getCollisionAt(session, x, y, z);
-                if (blockCollision != null && !(blockCollision instanceof ScaffoldingCollision)) {
-                    offset = blockCollision.computeCollisionOffset(x, y, z, boundingBox, axis, offset);
+    /**
+     * Computes the collision offset against every block within the current collision bounds, visiting them in the
+     * same order as {@link BlockPositionIterator}.
+     */
+    private double computeCollisionOffset(BoundingBox boundingBox, Axis axis, double offset, boolean checkWorld) {
+        PistonCache pistonCache = session.getPistonCache();
+        boolean checkPistons = !pistonCache.getMovingBlocksMap().isEmpty();
+        for (int x = minCollisionX; x <= maxCollisionX; x++) {
+            for (int z = minCollisionZ; z <= maxCollisionZ; z++) {
+                for (int y = minCollisionY; y <= maxCollisionY; y++) {
+                    if (checkWorld) {
+                        BlockCollision blockCollision = collisionSnapshot.getCollision(x, y, z);
+                        if (blockCollision != null && !(blockCollision instanceof ScaffoldingCollision)) {
+                            offset = blockCollision.computeCollisionOffset(x, y, z, boundingBox, axis, offset);
+                        }
+                    }
+                    if (checkPistons) {
+                        offset = pistonCache.computeCollisionOffset(Vector3i.from(x, y, z), boundingBox, axis, offset);
+                    }
+                    if (Math.abs(offset) < COLLISION_TOLERANCE) {
+                        return 0;
+                    }
                 }
             }
-            offset = session.getPistonCache().computeCollisionOffset(Vector3i.from(x, y, z), boundingBox, axis, offset);
-            if (Math.abs(offset) < COLLISION_TOLERANCE) {
-                return 0;
-            }
         }
         return offset;
     }
@@ -405,7 +494,8 @@ public class CollisionManager {
      * @return if the player is currently in a water block
      */
     public boolean isPlayerInWater() {
-        return session.getGeyser().getWorldManager().getBlockAt(session, session.getPlayerEntity().getPosition().toInt()) == BlockStateValues.JAVA_WATER_ID;
+        Vector3f position = session.getPlayerEntity().getPosition();
+        return collisionSnapshot.getBlockAt(GenericMath.floor(position.getX()), GenericMath.floor(position.getY()), GenericMath.floor(position.getZ())) == BlockStateValues.JAVA_WATER_ID;
     }
 
     public boolean isWaterInEyes() {
@@ -414,7 +504,7 @@ public class CollisionManager {
         double eyeZ = playerBoundingBox.getMiddleZ();
 
         eyeY -= 1 / ((double) BlockStateValues.NUM_WATER_LEVELS); // Subtract the height of one water layer
-        int blockID = session.getGeyser().getWorldManager().getBlockAt(session, GenericMath.floor(eyeX), GenericMath.floor(eyeY), GenericMath.floor(eyeZ));
+        int blockID = collisionSnapshot.getBlockAt(GenericMath.floor(eyeX), GenericMath.floor(eyeY), GenericMath.floor(eyeZ));
         double waterHeight = BlockStateValues.getWaterHeight(blockID);
 
         return waterHeight != -1 && eyeY < (Math.floor(eyeY) + waterHeight);
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.physics;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.geysermc.erosion.util.BlockPositionIterator;
+import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.translator.collision.BlockCollision;
+import org.geysermc.geyser.util.BlockUtils;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A copy of the Java block states around the player and their collisions, so movement can be checked without
+ * querying the world on every movement packet. The chunk cache keeps it up to date as blocks change; it is only
+ * refetched once the player leaves the area it covers or a chunk inside it is (un)loaded.
+ * <p>
+ * If block lookups are slow, such as when they go through Erosion, the area around the player is requested ahead of
+ * time once they get close to the edge of the snapshot, so moving on rarely has to wait for a lookup.
+ * <p>
+ * Only used from the session's event loop.
+ */
+public final class CollisionSnapshot {
+    /**
+     * How many blocks past the requested area are also fetched, so that small movements stay inside the snapshot.
+     */
+    private static final int MARGIN = 2;
+    /**
+     * How close to the edge of the snapshot the player may get before the next area is requested ahead of time.
+     */
+    private static final int PREFETCH_DISTANCE = 1;
+
+    private final GeyserSession session;
+
+    private int minX;
+    private int minY;
+    private int minZ;
+    private int maxX;
+    private int maxY;
+    private int maxZ;
+    private int sizeY;
+    private int sizeZ;
+
+    private int[] blockStates = new int[0];
+    private @Nullable BlockCollision[] collisions = new BlockCollision[0];
+    private int[] lookupBuffer = new int[0];
+    private boolean valid;
+    private @Nullable Prefetch prefetch;
+
+    CollisionSnapshot(GeyserSession session) {
+        this.session = session;
+    }
+
+    /**
+     * Makes sure that every block within these bounds is in the snapshot, querying the world manager if not.
+     */
+    void cover(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        if (valid && minX >= this.minX && minY >= this.minY && minZ >= this.minZ
+                && maxX <= this.maxX && maxY <= this.maxY && maxZ <= this.maxZ) {
+            if (prefetch == null && (minX - this.minX < PREFETCH_DISTANCE || minY - this.minY < PREFETCH_DISTANCE
+                    || minZ - this.minZ < PREFETCH_DISTANCE || this.maxX - maxX < PREFETCH_DISTANCE
+                    || this.maxY - maxY < PREFETCH_DISTANCE || this.maxZ - maxZ < PREFETCH_DISTANCE)
+                    && session.getGeyser().getWorldManager().hasSlowBlockLookups(session)) {
+                prefetch = new Prefetch(minX - MARGIN, minY - MARGIN, minZ - MARGIN, maxX + MARGIN, maxY + MARGIN, maxZ + MARGIN);
+                prefetch.future = session.getGeyser().getWorldManager().getBlocksAtAsync(session, prefetch.iter);
+            }
+            return;
+        }
+
+        Prefetch prefetch = this.prefetch;
+        this.prefetch = null;
+        if (prefetch != null && prefetch.covers(minX, minY, minZ, maxX, maxY, maxZ)) {
+            // Usually done by now; if not, waiting for it is still quicker than a new lookup
+            int[] blocks = prefetch.future.join();
+            if (blocks != null) {
+                setBounds(prefetch.minX, prefetch.minY, prefetch.minZ, prefetch.maxX, prefetch.maxY, prefetch.maxZ);
+                fill(prefetch.iter, blocks);
+                // Catch up on changes made while the lookup was in flight
+                IntList updates = prefetch.updates;
+                for (int i = 0; i < updates.size(); i += 4) {
+                    updateBlock(updates.getInt(i), updates.getInt(i + 1), updates.getInt(i + 2), updates.getInt(i + 3));
+                }
+                return;
+            }
+        }
+
+        setBounds(minX - MARGIN, minY - MARGIN, minZ - MARGIN, maxX + MARGIN, maxY + MARGIN, maxZ + MARGIN);
+        BlockPositionIterator iter = BlockPositionIterator.fromMinMax(this.minX, this.minY, this.minZ, this.maxX, this.maxY, this.maxZ);
+        fill(iter, lookupBuffer = session.getGeyser().getWorldManager().getBlocksAt(session, iter, lookupBuffer));
+    }
+
+    private void setBounds(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        this.sizeY = maxY - minY + 1;
+        this.sizeZ = maxZ - minZ + 1;
+        int volume = (maxX - minX + 1) * sizeZ * sizeY;
+        if (blockStates.length < volume) {
+            blockStates = new int[volume];
+            collisions = new BlockCollision[volume];
+        }
+    }
+
+    private void fill(BlockPositionIterator iter, int[] blocks) {
+        for (iter.reset(); iter.hasNext(); iter.next()) {
+            int index = index(iter.getX(), iter.getY(), iter.getZ());
+            int blockState = blocks[iter.getIteration()];
+            blockStates[index] = blockState;
+            collisions[index] = BlockUtils.getCollision(blockState);
+        }
+        valid = true;
+    }
+
+    private boolean contains(int x, int y, int z) {
+        return valid && x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    private int index(int x, int y, int z) {
+        return ((x - minX) * sizeZ + (z - minZ)) * sizeY + (y - minY);
+    }
+
+    /**
+     * @return the Java block state at this position, from the snapshot if it covers the position
+     */
+    int getBlockAt(int x, int y, int z) {
+        if (contains(x, y, z)) {
+            return blockStates[index(x, y, z)];
+        }
+        return session.getGeyser().getWorldManager().getBlockAt(session, x, y, z);
+    }
+
+    /**
+     * Must only be called for positions inside the bounds last passed to {@link #cover(int, int, int, int, int, int)}.
+     */
+    @Nullable BlockCollision getCollision(int x, int y, int z) {
+        return collisions[index(x, y, z)];
+    }
+
+    /**
+     * Called whenever the Java block state at a position changes.
+     */
+    public void updateBlock(int x, int y, int z, int blockState) {
+        if (prefetch != null && prefetch.covers(x, y, z, x, y, z)) {
+            prefetch.updates.add(x);
+            prefetch.updates.add(y);
+            prefetch.updates.add(z);
+            prefetch.updates.add(blockState);
+        }
+        if (contains(x, y, z)) {
+            int index = index(x, y, z);
+            blockStates[index] = blockState;
+            collisions[index] = BlockUtils.getCollision(blockState);
+        }
+    }
+
+    /**
+     * Called whenever a chunk is loaded or unloaded.
+     */
+    public void invalidateChunk(int chunkX, int chunkZ) {
+        if (prefetch != null && (chunkX << 4) <= prefetch.maxX && (chunkX << 4) + 15 >= prefetch.minX
+                && (chunkZ << 4) <= prefetch.maxZ && (chunkZ << 4) + 15 >= prefetch.minZ) {
+            prefetch = null;
+        }
+        if (valid && (chunkX << 4) <= maxX && (chunkX << 4) + 15 >= minX && (chunkZ << 4) <= maxZ && (chunkZ << 4) + 15 >= minZ) {
+            valid = false;
+        }
+    }
+
+    /**
+     * Called whenever the world changes as a whole, such as when switching dimensions.
+     */
+    public void invalidate() {
+        valid = false;
+        prefetch = null;
+    }
+
+    /**
+     * An area requested ahead of time, and the block changes within it since it was requested.
+     */
+    private static final class Prefetch {
+        private final int minX;
+        private final int minY;
+        private final int minZ;
+        private final int maxX;
+        private final int maxY;
+        private final int maxZ;
+        private final BlockPositionIterator iter;
+        private CompletableFuture<int[]> future;
+        private final IntList updates = new IntArrayList();
+
+        Prefetch(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+            this.iter = BlockPositionIterator.fromMinMax(minX, minY, minZ, maxX, maxY, maxZ);
+        }
+
+        boolean covers(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            return minX >= this.minX && minY >= this.minY && minZ >= this.minZ
+                    && maxX <= this.maxX && maxY <= this.maxY && maxZ <= this.maxZ;
+        }
+    }
+}
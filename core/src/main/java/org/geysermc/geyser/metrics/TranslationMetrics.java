@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.metrics;
+
+import com.google.common.cache.CacheStats;
+import com.sun.net.httpserver.HttpServer;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.configuration.GeyserConfiguration;
+import org.geysermc.geyser.erosion.GeyserboundPacketHandlerImpl;
+import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.text.MinecraftTranslationRegistry;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.ToLongFunction;
+
+/**
+ * Counts and times the translation of every packet, how long translations wait for a session's event loop, and how
+ * many bytes each session sends and receives. Only exists if enabled in the config, so that translating packets
+ * costs nothing extra otherwise.
+ * <p>
+ * Exported in the Prometheus text format over HTTP and/or as a JMX MBean.
+ */
+public final class TranslationMetrics implements TranslationMetricsMXBean {
+    private static final String MBEAN_NAME = "org.geysermc.geyser:type=TranslationMetrics";
+    /**
+     * The histogram buckets exported to Prometheus, in nanoseconds.
+     */
+    private static final long[] PROMETHEUS_BUCKETS = {10_000, 50_000, 100_000, 250_000, 500_000, 1_000_000, 2_500_000,
+            5_000_000, 10_000_000, 25_000_000, 50_000_000, 100_000_000, 250_000_000, 1_000_000_000};
+
+    private final GeyserImpl geyser;
+
+    private final Queue<PacketMetrics> packetMetrics = new ConcurrentLinkedQueue<>();
+    private final ClassValue<PacketMetrics> packetMetricsByClass = new ClassValue<>() {
+        @Override
+        protected PacketMetrics computeValue(Class<?> type) {
+            String protocol = BedrockPacket.class.isAssignableFrom(type) ? "bedrock" : "java";
+            PacketMetrics metrics = new PacketMetrics(protocol, type.getSimpleName(), new LatencyHistogram());
+            packetMetrics.add(metrics);
+            return metrics;
+        }
+    };
+    private final LatencyHistogram queueDelay = new LatencyHistogram();
+
+    private @Nullable HttpServer prometheusServer;
+    private @Nullable ObjectName mbeanName;
+
+    public TranslationMetrics(GeyserImpl geyser) {
+        this.geyser = geyser;
+    }
+
+    public void recordTranslation(Class<?> packetClass, long nanos) {
+        packetMetricsByClass.get(packetClass).histogram().record(nanos);
+    }
+
+    public void recordQueueDelay(long nanos) {
+        queueDelay.record(nanos);
+    }
+
+    /**
+     * Starts exporting the metrics as configured.
+     */
+    public void start(GeyserConfiguration.ITranslationMetricsInfo config) {
+        if (config.getPrometheusPort() >= 0) {
+            try {
+                HttpServer server = HttpServer.create(new InetSocketAddress(config.getPrometheusAddress(), config.getPrometheusPort()), 0);
+                server.createContext("/metrics", exchange -> {
+                    byte[] body = toPrometheusText().getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                });
+                server.start();
+                this.prometheusServer = server;
+                geyser.getLogger().info("Serving translation metrics on " + server.getAddress() + "/metrics");
+            } catch (Exception e) {
+                geyser.getLogger().error("Unable to serve translation metrics on port " + config.getPrometheusPort(), e);
+            }
+        }
+
+        if (config.isJmx()) {
+            try {
+                MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+                ObjectName name = new ObjectName(MBEAN_NAME);
+                if (mbeanServer.isRegistered(name)) {
+                    // Left over from before a reload
+                    mbeanServer.unregisterMBean(name);
+                }
+                mbeanServer.registerMBean(this, name);
+                this.mbeanName = name;
+            } catch (Exception e) {
+                geyser.getLogger().error("Unable to register the translation metrics MBean", e);
+            }
+        }
+    }
+
+    public void shutdown() {
+        if (prometheusServer != null) {
+            prometheusServer.stop(0);
+            prometheusServer = null;
+        }
+        if (mbeanName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+            } catch (Exception e) {
+                geyser.getLogger().debug("Unable to unregister the translation metrics MBean: " + e.getMessage());
+            }
+            mbeanName = null;
+        }
+    }
+
+    public String toPrometheusText() {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("# HELP geyser_packet_translation_seconds Time spent translating each packet type.\n");
+        builder.append("# TYPE geyser_packet_translation_seconds histogram\n");
+        for (PacketMetrics metrics : packetMetrics) {
+            String labels = "protocol=\"" + metrics.protocol() + "\",packet=\"" + metrics.name() + "\"";
+            appendHistogram(builder, "geyser_packet_translation_seconds", labels, metrics.histogram());
+        }
+
+        builder.append("# HELP geyser_event_loop_queue_delay_seconds Time packets waited for their session's event loop before being translated.\n");
+        builder.append("# TYPE geyser_event_loop_queue_delay_seconds histogram\n");
+        appendHistogram(builder, "geyser_event_loop_queue_delay_seconds", null, queueDelay);
+
+        builder.append("# HELP geyser_session_bytes_total Bytes sent and received per session and connection.\n");
+        builder.append("# TYPE geyser_session_bytes_total counter\n");
+        for (GeyserSession session : geyser.getSessionManager().getAllSessions()) {
+            String name = escapeLabel(session.bedrockUsername());
+            appendTraffic(builder, name, "bedrock", session.getUpstreamTraffic());
+            appendTraffic(builder, name, "java", session.getDownstreamTraffic());
+        }
+
+        builder.append("# HELP geyser_erosion_round_trips_total Block lookups answered by the Erosion backend, by whether the session waited on them.\n");
+        builder.append("# TYPE geyser_erosion_round_trips_total counter\n");
+        StringBuilder roundTripTime = new StringBuilder();
+        for (GeyserSession session : geyser.getSessionManager().getAllSessions()) {
+            GeyserboundPacketHandlerImpl erosionHandler = session.getErosionHandler().getAsActive();
+            if (erosionHandler == null) {
+                continue;
+            }
+            String name = escapeLabel(session.bedrockUsername());
+            long blocking = erosionHandler.getBlockingRoundTrips();
+            builder.append("geyser_erosion_round_trips_total{session=\"").append(name).append("\",mode=\"blocking\"} ")
+                    .append(blocking).append('\n');
+            builder.append("geyser_erosion_round_trips_total{session=\"").append(name).append("\",mode=\"async\"} ")
+                    .append(Math.max(0, erosionHandler.getRoundTrips() - blocking)).append('\n');
+            roundTripTime.append("geyser_erosion_round_trip_seconds_total{session=\"").append(name).append("\"} ")
+                    .append(erosionHandler.getRoundTripNanos() / 1e9).append('\n');
+        }
+        builder.append("# HELP geyser_erosion_round_trip_seconds_total Time spent waiting on the Erosion backend to answer block lookups.\n");
+        builder.append("# TYPE geyser_erosion_round_trip_seconds_total counter\n");
+        builder.append(roundTripTime);
+
+        CacheStats formatStats = MinecraftTranslationRegistry.formatStats();
+        builder.append("# HELP geyser_translation_format_cache_requests_total Lookups of cached translation formats.\n");
+        builder.append("# TYPE geyser_translation_format_cache_requests_total counter\n");
+        builder.append("geyser_translation_format_cache_requests_total{result=\"hit\"} ").append(formatStats.hitCount()).append('\n');
+        builder.append("geyser_translation_format_cache_requests_total{result=\"miss\"} ").append(formatStats.missCount()).append('\n');
+        return builder.toString();
+    }
+
+    private static void appendHistogram(StringBuilder builder, String name, @Nullable String labels, LatencyHistogram histogram) {
+        String prefix = labels == null ? "{" : "{" + labels + ",";
+        for (long bucket : PROMETHEUS_BUCKETS) {
+            builder.append(name).append("_bucket").append(prefix).append("le=\"").append(bucket / 1e9).append("\"} ")
+                    .append(histogram.countBelow(bucket)).append('\n');
+        }
+        long count = histogram.getCount();
+        builder.append(name).append("_bucket").append(prefix).append("le=\"+Inf\"} ").append(count).append('\n');
+        String suffix = labels == null ? "" : "{" + labels + "}";
+        builder.append(name).append("_sum").append(suffix).append(' ').append(histogram.getSum() / 1e9).append('\n');
+        builder.append(name).append("_count").append(suffix).append(' ').append(count).append('\n');
+    }
+
+    private static void appendTraffic(StringBuilder builder, String session, String connection, @Nullable TrafficCounter counter) {
+        if (counter == null) {
+            return;
+        }
+        String labels = "session=\"" + session + "\",connection=\"" + connection + "\",direction=";
+        builder.append("geyser_session_bytes_total{").append(labels).append("\"in\"} ").append(counter.getBytesIn()).append('\n');
+        builder.append("geyser_session_bytes_total{").append(labels).append("\"out\"} ").append(counter.getBytesOut()).append('\n');
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    @Override
+    public Map<String, Long> getTranslationCounts() {
+        return collectPackets(LatencyHistogram::getCount);
+    }
+
+    @Override
+    public Map<String, Long> getTotalTranslationNanos() {
+        return collectPackets(LatencyHistogram::getSum);
+    }
+
+    @Override
+    public Map<String, Long> getTranslationNanosP99() {
+        return collectPackets(histogram -> histogram.getValueAtPercentile(99));
+    }
+
+    private Map<String, Long> collectPackets(ToLongFunction<LatencyHistogram> value) {
+        Map<String, Long> values = new TreeMap<>();
+        for (PacketMetrics metrics : packetMetrics) {
+            values.put(metrics.protocol() + "/" + metrics.name(), value.applyAsLong(metrics.histogram()));
+        }
+        return values;
+    }
+
+    @Override
+    public long getQueuedTranslations() {
+        return queueDelay.getCount();
+    }
+
+    @Override
+    public long getQueueDelayNanosP99() {
+        return queueDelay.getValueAtPercentile(99);
+    }
+
+    @Override
+    public Map<String, Long> getSessionBytesIn() {
+        return collectTraffic(TrafficCounter::getBytesIn);
+    }
+
+    @Override
+    public Map<String, Long> getSessionBytesOut() {
+        return collectTraffic(TrafficCounter::getBytesOut);
+    }
+
+    private Map<String, Long> collectTraffic(ToLongFunction<TrafficCounter> value) {
+        Map<String, Long> values = new TreeMap<>();
+        for (GeyserSession session : geyser.getSessionManager().getAllSessions()) {
+            TrafficCounter upstream = session.getUpstreamTraffic();
+            if (upstream != null) {
+                values.put(session.bedrockUsername() + "/bedrock", value.applyAsLong(upstream));
+            }
+            TrafficCounter downstream = session.getDownstreamTraffic();
+            if (downstream != null) {
+                values.put(session.bedrockUsername() + "/java", value.applyAsLong(downstream));
+            }
+        }
+        return values;
+    }
+
+    private record PacketMetrics(String protocol, String name, LatencyHistogram histogram) {
+    }
+}
@@ -55,6 +55,7 @@ import org.geysermc.geyser.api.pack.PackCodec;
 import org.geysermc.geyser.api.pack.ResourcePack;
 import org.geysermc.geyser.api.pack.ResourcePackManifest;
 import org.geysermc.geyser.event.type.SessionLoadResourcePacksEventImpl;
+import org.geysermc.geyser.network.compression.CompressionPolicy;
 import org.geysermc.geyser.pack.GeyserResourcePack;
 import org.geysermc.geyser.registry.BlockRegistries;
 import org.geysermc.geyser.registry.Registries;
@@ -143,15 +144,14 @@ public class UpstreamPacketHandler extends LoggingPacketHandler {
         }
 
         // New since 1.19.30 - sent before login packet
-        PacketCompressionAlgorithm algorithm = PacketCompressionAlgorithm.ZLIB;
+        PacketCompressionAlgorithm algorithm = CompressionPolicy.selectAlgorithm(session);
 
         NetworkSettingsPacket responsePacket = new NetworkSettingsPacket();
         responsePacket.setCompressionAlgorithm(algorithm);
-        responsePacket.setCompressionThreshold(512);
+        responsePacket.setCompressionThreshold(this.geyser.getConfig().getBedrock().getCompressionThreshold());
         session.sendUpstreamPacketImmediately(responsePacket);
 
-        session.getUpstream().getSession().setCompression(algorithm);
-        session.getUpstream().getSession().setCompressionLevel(this.geyser.getConfig().getBedrock().getCompressionLevel());
+        CompressionPolicy.enableCompression(session, algorithm);
         networkSettingsRequested = true;
         return PacketSignal.HANDLED;
     }
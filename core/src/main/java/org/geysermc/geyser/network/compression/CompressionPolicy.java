@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.network.compression;
+
+import org.cloudburstmc.protocol.bedrock.data.PacketCompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.BatchCompression;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.SimpleCompressionStrategy;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.SnappyCompression;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.ZlibCompression;
+import org.cloudburstmc.protocol.common.util.Zlib;
+import org.geysermc.geyser.configuration.GeyserConfiguration;
+import org.geysermc.geyser.session.GeyserSession;
+
+import java.net.InetAddress;
+
+/**
+ * Decides how network traffic to each Bedrock client is compressed.
+ */
+public final class CompressionPolicy {
+
+    /**
+     * @return the compression algorithm the given session should use, as configured
+     */
+    public static PacketCompressionAlgorithm selectAlgorithm(GeyserSession session) {
+        return switch (session.getGeyser().getConfig().getBedrock().getCompressionAlgorithm()) {
+            case SNAPPY -> PacketCompressionAlgorithm.SNAPPY;
+            case AUTO -> isLocalNetwork(session.getUpstream().getAddress().getAddress()) ? PacketCompressionAlgorithm.SNAPPY : PacketCompressionAlgorithm.ZLIB;
+            default -> PacketCompressionAlgorithm.ZLIB;
+        };
+    }
+
+    /**
+     * Enables compression for the session, measured so the trade-off between CPU time and bandwidth can be seen.
+     * The client must have already been told which algorithm to use.
+     */
+    public static void enableCompression(GeyserSession session, PacketCompressionAlgorithm algorithm) {
+        GeyserConfiguration.IBedrockConfiguration config = session.getGeyser().getConfig().getBedrock();
+        BatchCompression compression = algorithm == PacketCompressionAlgorithm.SNAPPY ? new SnappyCompression() : new ZlibCompression(Zlib.RAW);
+        MeasuredCompression measuredCompression = new MeasuredCompression(compression, config.getCompressionLevel(), config.isAdaptiveCompression());
+
+        session.getUpstream().getSession().getPeer().setCompression(new SimpleCompressionStrategy(measuredCompression));
+        session.getUpstream().setCompression(measuredCompression);
+    }
+
+    private static boolean isLocalNetwork(InetAddress address) {
+        return address.isLoopbackAddress() || address.isSiteLocalAddress() || address.isLinkLocalAddress();
+    }
+
+    private CompressionPolicy() {
+    }
+}
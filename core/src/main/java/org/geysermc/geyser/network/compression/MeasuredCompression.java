@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.network.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import lombok.Getter;
+import org.cloudburstmc.protocol.bedrock.data.PacketCompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.BatchCompression;
+
+/**
+ * Wraps the compression of a session to count how much data goes in and out, and how long it takes.
+ * If adaptive, the zlib level is lowered while compressing takes more than {@link #CPU_BUDGET} of a core,
+ * and raised back up to the configured level when it takes much less than that.
+ * <p>
+ * Only encoded on the session's channel, so the counters have a single writer.
+ */
+public class MeasuredCompression implements BatchCompression {
+    /**
+     * The fraction of one core each session may spend compressing before its level is lowered.
+     * At 0.5%, 400 players use at most two cores for compression.
+     */
+    private static final double CPU_BUDGET = 0.005;
+    /**
+     * Below this many compressed bytes per second, a higher level saves too little bandwidth to be worth raising.
+     */
+    private static final double MIN_BANDWIDTH_FOR_RAISE = 16 * 1024;
+    private static final long WINDOW_NANOS = 5_000_000_000L;
+    private static final int MIN_LEVEL = 1;
+
+    private final BatchCompression delegate;
+    private final int maxLevel;
+    private final boolean adaptive;
+
+    @Getter
+    private volatile long uncompressedBytes;
+    @Getter
+    private volatile long compressedBytes;
+    @Getter
+    private volatile long compressionNanos;
+
+    private long windowStart = System.nanoTime();
+    private long windowNanos;
+    private long windowCompressedBytes;
+
+    public MeasuredCompression(BatchCompression delegate, int level, boolean adaptive) {
+        this.delegate = delegate;
+        this.maxLevel = level;
+        // Snappy has no levels to adjust
+        this.adaptive = adaptive && level > MIN_LEVEL && delegate.getAlgorithm() == PacketCompressionAlgorithm.ZLIB;
+        delegate.setLevel(level);
+    }
+
+    @Override
+    public ByteBuf encode(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
+        int size = msg.readableBytes();
+        long start = System.nanoTime();
+        ByteBuf compressed = delegate.encode(ctx, msg);
+        long end = System.nanoTime();
+
+        //noinspection NonAtomicOperationOnVolatileField - only ever written from the channel's event loop
+        uncompressedBytes += size;
+        //noinspection NonAtomicOperationOnVolatileField
+        compressedBytes += compressed.readableBytes();
+        //noinspection NonAtomicOperationOnVolatileField
+        compressionNanos += end - start;
+
+        if (adaptive) {
+            windowNanos += end - start;
+            windowCompressedBytes += compressed.readableBytes();
+            if (end - windowStart >= WINDOW_NANOS) {
+                adjustLevel(end - windowStart);
+                windowStart = end;
+                windowNanos = 0;
+                windowCompressedBytes = 0;
+            }
+        }
+        return compressed;
+    }
+
+    private void adjustLevel(long elapsedNanos) {
+        double cpuUsage = (double) windowNanos / elapsedNanos;
+        double bandwidth = windowCompressedBytes * 1_000_000_000D / elapsedNanos;
+        int level = delegate.getLevel();
+        if (cpuUsage > CPU_BUDGET && level > MIN_LEVEL) {
+            delegate.setLevel(level - 1);
+        } else if (cpuUsage < CPU_BUDGET / 4 && bandwidth > MIN_BANDWIDTH_FOR_RAISE && level < maxLevel) {
+            delegate.setLevel(level + 1);
+        }
+    }
+
+    @Override
+    public ByteBuf decode(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
+        return delegate.decode(ctx, msg);
+    }
+
+    @Override
+    public PacketCompressionAlgorithm getAlgorithm() {
+        return delegate.getAlgorithm();
+    }
+
+    @Override
+    public void setLevel(int level) {
+        delegate.setLevel(level);
+    }
+
+    @Override
+    public int getLevel() {
+        return delegate.getLevel();
+    }
+}
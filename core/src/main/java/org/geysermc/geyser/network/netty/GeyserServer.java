@@ -27,6 +27,9 @@ package org.geysermc.geyser.network.netty;
 
 import com.github.steveice10.packetlib.helper.TransportHelper;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.EventLoopGroup;
@@ -43,11 +46,13 @@ import io.netty.util.concurrent.Future;
 import lombok.Getter;
 import net.jodah.expiringmap.ExpirationPolicy;
 import net.jodah.expiringmap.ExpiringMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.cloudburstmc.netty.channel.raknet.RakChannelFactory;
 import org.cloudburstmc.netty.channel.raknet.config.RakChannelOption;
 import org.cloudburstmc.netty.handler.codec.raknet.server.RakServerOfflineHandler;
 import org.cloudburstmc.protocol.bedrock.BedrockPong;
 import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.api.event.connection.GeyserBedrockPingEvent;
 import org.geysermc.geyser.command.defaults.ConnectionTestCommand;
 import org.geysermc.geyser.configuration.GeyserConfiguration;
 import org.geysermc.geyser.event.type.GeyserBedrockPingEventImpl;
@@ -66,6 +71,7 @@ import org.geysermc.geyser.translator.text.MessageTranslator;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.IntFunction;
@@ -83,6 +89,10 @@ public final class GeyserServer {
      * The MOTD, sub-MOTD and Minecraft version ({@link #MINECRAFT_VERSION_BYTES_LENGTH}) combined cannot reach this length.
      */
     private static final int MAGIC_RAKNET_LENGTH = 338;
+    /**
+     * How long a result from the ping passthrough is reused for while pongs are being cached.
+     */
+    private static final long PING_INFO_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
 
     private static final Transport TRANSPORT = compatibleTransport();
 
@@ -107,6 +117,11 @@ public final class GeyserServer {
      */
     private final int broadcastPort;
 
+    /**
+     * The last pong sent, which is reused until anything that goes into it changes.
+     */
+    private volatile CachedPong cachedPong;
+
     public GeyserServer(GeyserImpl geyser, int threadCount) {
         this.geyser = geyser;
         this.group = TRANSPORT.eventLoopGroupFactory().apply(threadCount);
@@ -144,7 +159,7 @@ public final class GeyserServer {
         // Add our ping handler
         channel.pipeline()
                 .addFirst(RakConnectionRequestHandler.NAME, new RakConnectionRequestHandler(this))
-                .addAfter(RakServerOfflineHandler.NAME, RakPingHandler.NAME, new RakPingHandler(this));
+                .addAfter(RakServerOfflineHandler.NAME, RakPingHandler.NAME, new RakPingHandler(this, this.geyser.getConfig().getPingRateLimit()));
 
         if (this.geyser.getConfig().getBedrock().isEnableProxyProtocol()) {
             channel.pipeline().addFirst("proxy-protocol-decoder", new ProxyServerHandler());
@@ -224,7 +239,10 @@ public final class GeyserServer {
         return true;
     }
 
-    public BedrockPong onQuery(InetSocketAddress inetSocketAddress) {
+    /**
+     * @return the pong to reply to an unconnected ping with
+     */
+    public ByteBuf onQuery(InetSocketAddress inetSocketAddress) {
         if (geyser.getConfig().isDebugMode() && PRINT_DEBUG_PINGS) {
             String ip;
             if (geyser.getConfig().isLogPlayerIpAddresses()) {
@@ -240,15 +258,50 @@ public final class GeyserServer {
         }
 
         GeyserConfiguration config = geyser.getConfig();
+        // Ping event listeners can change the pong depending on who is pinging, so it can only be reused without any
+        boolean cacheable = geyser.eventBus().subscribers(GeyserBedrockPingEvent.class).isEmpty();
+        CachedPong cached = cacheable ? this.cachedPong : null;
+
+        long now = System.nanoTime();
+        GeyserPingInfo pingInfo;
+        long pingInfoTime;
+        if (cached != null && now - cached.pingInfoTime() < PING_INFO_REFRESH_NANOS) {
+            pingInfo = cached.pingInfo();
+            pingInfoTime = cached.pingInfoTime();
+        } else {
+            pingInfo = null;
+            if (config.isPassthroughMotd() || config.isPassthroughPlayerCounts()) {
+                IGeyserPingPassthrough pingPassthrough = geyser.getBootstrap().getGeyserPingPassthrough();
+                if (pingPassthrough != null) {
+                    pingInfo = pingPassthrough.getPingInformation(inetSocketAddress);
+                }
+            }
+            pingInfoTime = now;
+        }
 
-        GeyserPingInfo pingInfo = null;
-        if (config.isPassthroughMotd() || config.isPassthroughPlayerCounts()) {
-            IGeyserPingPassthrough pingPassthrough = geyser.getBootstrap().getGeyserPingPassthrough();
-            if (pingPassthrough != null) {
-                pingInfo = pingPassthrough.getPingInformation(inetSocketAddress);
+        int playerCount = geyser.getSessionManager().getSessions().size();
+        if (cached != null && cached.matches(config, pingInfo, playerCount)) {
+            if (cached.pingInfoTime() != pingInfoTime) {
+                this.cachedPong = new CachedPong(config, pingInfo, pingInfoTime, playerCount, cached.connectionTestMotd(), cached.data());
             }
+            return Unpooled.wrappedBuffer(cached.data());
         }
 
+        ByteBuf pongBuf = createPong(config, pingInfo, playerCount, inetSocketAddress).toByteBuf();
+        byte[] data;
+        try {
+            data = ByteBufUtil.getBytes(pongBuf);
+        } finally {
+            pongBuf.release();
+        }
+
+        if (cacheable) {
+            this.cachedPong = new CachedPong(config, pingInfo, pingInfoTime, playerCount, ConnectionTestCommand.CONNECTION_TEST_MOTD, data);
+        }
+        return Unpooled.wrappedBuffer(data);
+    }
+
+    private BedrockPong createPong(GeyserConfiguration config, @Nullable GeyserPingInfo pingInfo, int playerCount, InetSocketAddress inetSocketAddress) {
         BedrockPong pong = new BedrockPong()
                 .edition("MCPE")
                 .gameType("Survival") // Can only be Survival or Creative as of 1.16.210.59
@@ -276,7 +329,7 @@ public final class GeyserServer {
             pong.playerCount(pingInfo.getPlayers().getOnline());
             pong.maximumPlayerCount(pingInfo.getPlayers().getMax());
         } else {
-            pong.playerCount(geyser.getSessionManager().getSessions().size());
+            pong.playerCount(playerCount);
             pong.maximumPlayerCount(config.getMaxPlayers());
         }
 
@@ -328,6 +381,20 @@ public final class GeyserServer {
         return pong;
     }
 
+    /**
+     * A pong that has already been serialized, along with everything that went into it.
+     *
+     * @param pingInfoTime when the ping passthrough was last asked for {@code pingInfo}, from {@link System#nanoTime()}
+     */
+    private record CachedPong(GeyserConfiguration config, @Nullable GeyserPingInfo pingInfo, long pingInfoTime,
+                              int playerCount, @Nullable String connectionTestMotd, byte[] data) {
+
+        boolean matches(GeyserConfiguration config, @Nullable GeyserPingInfo pingInfo, int playerCount) {
+            return this.config == config && Objects.equals(this.pingInfo, pingInfo) && this.playerCount == playerCount
+                    && Objects.equals(this.connectionTestMotd, ConnectionTestCommand.CONNECTION_TEST_MOTD);
+        }
+    }
+
     /**
      * @return the throwable from the given supplier, or the throwable caught while calling the supplier.
      */
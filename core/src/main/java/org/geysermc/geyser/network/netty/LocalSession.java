@@ -38,6 +38,7 @@ import io.netty.channel.*;
 import io.netty.channel.unix.PreferredDirectByteBufAllocator;
 import io.netty.handler.codec.haproxy.*;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.net.Inet4Address;
 import java.net.InetSocketAddress;
@@ -53,12 +54,22 @@ public final class LocalSession extends TcpSession {
     private final SocketAddress targetAddress;
     private final String clientIp;
     private final PacketCodecHelper codecHelper;
+    /**
+     * If not null, the event loop to register the channel on instead of the shared group.
+     */
+    private final @Nullable EventLoop eventLoop;
 
     public LocalSession(String host, int port, SocketAddress targetAddress, String clientIp, PacketProtocol protocol, MinecraftCodecHelper codecHelper) {
+        this(host, port, targetAddress, clientIp, protocol, codecHelper, null);
+    }
+
+    public LocalSession(String host, int port, SocketAddress targetAddress, String clientIp, PacketProtocol protocol,
+                        MinecraftCodecHelper codecHelper, @Nullable EventLoop eventLoop) {
         super(host, port, protocol);
         this.targetAddress = targetAddress;
         this.clientIp = clientIp;
         this.codecHelper = codecHelper;
+        this.eventLoop = eventLoop;
     }
 
     @Override
@@ -67,7 +78,7 @@ public final class LocalSession extends TcpSession {
             throw new IllegalStateException("Connection has already been disconnected.");
         }
 
-        if (DEFAULT_EVENT_LOOP_GROUP == null) {
+        if (eventLoop == null && DEFAULT_EVENT_LOOP_GROUP == null) {
             DEFAULT_EVENT_LOOP_GROUP = new DefaultEventLoopGroup();
         }
 
@@ -91,7 +102,7 @@ public final class LocalSession extends TcpSession {
 
                     addHAProxySupport(pipeline);
                 }
-            }).group(DEFAULT_EVENT_LOOP_GROUP).option(ChannelOption.CONNECT_TIMEOUT_MILLIS, getConnectTimeout() * 1000);
+            }).group(eventLoop != null ? eventLoop : DEFAULT_EVENT_LOOP_GROUP).option(ChannelOption.CONNECT_TIMEOUT_MILLIS, getConnectTimeout() * 1000);
 
             if (PREFERRED_DIRECT_BYTE_BUF_ALLOCATOR != null) {
                 bootstrap.option(ChannelOption.ALLOCATOR, PREFERRED_DIRECT_BYTE_BUF_ALLOCATOR);
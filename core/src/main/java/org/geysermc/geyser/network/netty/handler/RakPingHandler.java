@@ -29,23 +29,60 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import lombok.RequiredArgsConstructor;
+import net.jodah.expiringmap.ExpirationPolicy;
+import net.jodah.expiringmap.ExpiringMap;
 import org.cloudburstmc.netty.channel.raknet.RakPing;
 import org.cloudburstmc.netty.channel.raknet.RakPong;
 import org.cloudburstmc.netty.channel.raknet.config.RakChannelOption;
 import org.geysermc.geyser.network.netty.GeyserServer;
 
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @ChannelHandler.Sharable
 @RequiredArgsConstructor
 public class RakPingHandler extends SimpleChannelInboundHandler<RakPing> {
     public static final String NAME = "rak-ping-handler";
+    /**
+     * Pings can come from spoofed addresses, so only this many addresses are tracked at once. Once full, the oldest
+     * entries are dropped early.
+     */
+    private static final int MAX_TRACKED_ADDRESSES = 8192;
 
     private final GeyserServer server;
+    /**
+     * How many pings each IP address may send per second, or 0 for no limit.
+     */
+    private final int pingRateLimit;
+
+    private final Map<InetAddress, AtomicInteger> pingCounts = ExpiringMap.builder()
+            .expiration(1, TimeUnit.SECONDS)
+            .expirationPolicy(ExpirationPolicy.CREATED)
+            .maxSize(MAX_TRACKED_ADDRESSES)
+            .build();
 
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, RakPing msg) {
+        if (this.pingRateLimit > 0 && isRateLimited(msg.getSender())) {
+            return;
+        }
+
         long guid = ctx.channel().config().getOption(RakChannelOption.RAK_GUID);
 
-        RakPong pong = msg.reply(guid, this.server.onQuery(msg.getSender()).toByteBuf());
+        RakPong pong = msg.reply(guid, this.server.onQuery(msg.getSender()));
         ctx.writeAndFlush(pong);
     }
+
+    private boolean isRateLimited(InetSocketAddress sender) {
+        Map<InetSocketAddress, InetSocketAddress> proxiedAddresses = this.server.getProxiedAddresses();
+        if (proxiedAddresses != null) {
+            sender = proxiedAddresses.getOrDefault(sender, sender);
+        }
+
+        AtomicInteger count = this.pingCounts.computeIfAbsent(sender.getAddress(), address -> new AtomicInteger());
+        return count.incrementAndGet() > this.pingRateLimit;
+    }
 }
@@ -25,33 +25,69 @@
 
 package org.geysermc.geyser.ping;
 
-import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.databind.JsonMappingException;
-import org.checkerframework.checker.nullness.qual.Nullable;
-import org.cloudburstmc.nbt.util.VarInts;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.haproxy.HAProxyCommand;
+import io.netty.handler.codec.haproxy.HAProxyMessage;
+import io.netty.handler.codec.haproxy.HAProxyMessageEncoder;
+import io.netty.handler.codec.haproxy.HAProxyProtocolVersion;
 import io.netty.handler.codec.haproxy.HAProxyProxiedProtocol;
-import io.netty.util.NetUtil;
+import io.netty.handler.codec.protobuf.ProtobufVarint32FrameDecoder;
+import io.netty.handler.timeout.ReadTimeoutException;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.Getter;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.cloudburstmc.protocol.common.util.VarInts;
 import org.geysermc.geyser.GeyserImpl;
 import org.geysermc.geyser.network.GameProtocol;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
-import java.io.IOException;
-import java.net.*;
+import java.net.ConnectException;
+import java.net.Inet4Address;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class GeyserLegacyPingPassthrough implements IGeyserPingPassthrough, Runnable {
-    private static final byte[] HAPROXY_BINARY_PREFIX = new byte[]{13, 10, 13, 10, 0, 13, 10, 81, 85, 73, 84, 10};
+    private static final int TIMEOUT_MILLIS = 5000;
+
+    /**
+     * Shared by all ping passthroughs, so reloading does not leave threads behind.
+     */
+    private static EventLoopGroup eventLoopGroup;
 
     private final GeyserImpl geyser;
+    private final AtomicBoolean pinging = new AtomicBoolean();
+
+    /**
+     * How long the last successful status query took, in milliseconds.
+     */
+    @Getter
+    private volatile long lastLatency = -1;
+    @Getter
+    private final AtomicLong successes = new AtomicLong();
+    @Getter
+    private final AtomicLong failures = new AtomicLong();
 
     public GeyserLegacyPingPassthrough(GeyserImpl geyser) {
         this.geyser = geyser;
     }
 
-    private GeyserPingInfo pingInfo;
+    private volatile GeyserPingInfo pingInfo;
 
     /**
      * Start legacy ping passthrough thread
@@ -70,80 +106,159 @@ public class GeyserLegacyPingPassthrough implements IGeyserPingPassthrough, Runn
         return null;
     }
 
+    private static synchronized EventLoopGroup eventLoopGroup() {
+        if (eventLoopGroup == null) {
+            eventLoopGroup = new NioEventLoopGroup(1, new DefaultThreadFactory("Geyser Ping Passthrough Thread", true));
+        }
+        return eventLoopGroup;
+    }
+
     @Override
     public GeyserPingInfo getPingInformation(InetSocketAddress inetSocketAddress) {
         return pingInfo;
     }
 
+    /**
+     * Starts a status query to the remote server. This returns straight away; the result is handled on the ping
+     * passthrough event loop.
+     */
     @Override
     public void run() {
-        try (Socket socket = new Socket()) {
-            String address = geyser.getConfig().getRemote().address();
-            int port = geyser.getConfig().getRemote().port();
-            InetSocketAddress endpoint = new InetSocketAddress(address, port);
-            socket.connect(endpoint, 5000);
-
-            ByteArrayOutputStream byteArrayStream = new ByteArrayOutputStream();
-            try (DataOutputStream handshake = new DataOutputStream(byteArrayStream)) {
-                handshake.write(0x0);
-                VarInts.writeUnsignedInt(handshake, GameProtocol.getJavaProtocolVersion());
-                VarInts.writeUnsignedInt(handshake, address.length());
-                handshake.writeBytes(address);
-                handshake.writeShort(port);
-                VarInts.writeUnsignedInt(handshake, 1);
-            }
+        if (!pinging.compareAndSet(false, true)) {
+            // The last query is still going and will time out on its own
+            return;
+        }
 
-            byte[] buffer;
-
-            try (DataOutputStream dataOutputStream = new DataOutputStream(socket.getOutputStream())) {
-                if (geyser.getConfig().getRemote().isUseProxyProtocol()) {
-                    // HAProxy support
-                    // Based on https://github.com/netty/netty/blob/d8ad931488f6b942dabe28ecd6c399b4438da0a8/codec-haproxy/src/main/java/io/netty/handler/codec/haproxy/HAProxyMessageEncoder.java#L78
-                    dataOutputStream.write(HAPROXY_BINARY_PREFIX);
-                    dataOutputStream.writeByte((0x02 << 4) | HAProxyCommand.PROXY.byteValue());
-                    dataOutputStream.writeByte(socket.getLocalAddress() instanceof Inet4Address ?
-                            HAProxyProxiedProtocol.TCP4.byteValue() : HAProxyProxiedProtocol.TCP6.byteValue());
-                    byte[] srcAddrBytes = NetUtil.createByteArrayFromIpAddressString(
-                            ((InetSocketAddress) socket.getLocalSocketAddress()).getAddress().getHostAddress());
-                    byte[] dstAddrBytes = NetUtil.createByteArrayFromIpAddressString(
-                            endpoint.getAddress().getHostAddress());
-                    dataOutputStream.writeShort(srcAddrBytes.length + dstAddrBytes.length + 4);
-                    dataOutputStream.write(srcAddrBytes);
-                    dataOutputStream.write(dstAddrBytes);
-                    dataOutputStream.writeShort(((InetSocketAddress) socket.getLocalSocketAddress()).getPort());
-                    dataOutputStream.writeShort(port);
-                }
-
-                VarInts.writeUnsignedInt(dataOutputStream, byteArrayStream.size());
-                dataOutputStream.write(byteArrayStream.toByteArray());
-                dataOutputStream.writeByte(0x01);
-                dataOutputStream.writeByte(0x00);
-
-                try (DataInputStream dataInputStream = new DataInputStream(socket.getInputStream())) {
-                    VarInts.readUnsignedInt(dataInputStream);
-                    VarInts.readUnsignedInt(dataInputStream);
-                    int length = VarInts.readUnsignedInt(dataInputStream);
-                    buffer = new byte[length];
-                    dataInputStream.readFully(buffer);
-                    dataOutputStream.writeByte(0x09);
-                    dataOutputStream.writeByte(0x01);
-                    dataOutputStream.writeLong(System.currentTimeMillis());
-
-                    VarInts.readUnsignedInt(dataInputStream);
-                }
-            }
+        String address = geyser.getConfig().getRemote().address();
+        int port = geyser.getConfig().getRemote().port();
+        boolean useProxyProtocol = geyser.getConfig().getRemote().isUseProxyProtocol();
+        long startTime = System.nanoTime();
+
+        new Bootstrap()
+                .group(eventLoopGroup())
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, TIMEOUT_MILLIS)
+                .handler(new ChannelInitializer<>() {
+                    @Override
+                    protected void initChannel(@NonNull Channel channel) {
+                        channel.pipeline().addLast("timeout", new ReadTimeoutHandler(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+                        if (useProxyProtocol) {
+                            channel.pipeline().addLast("proxy-protocol-encoder", HAProxyMessageEncoder.INSTANCE);
+                        }
+                        channel.pipeline().addLast("frame-decoder", new ProtobufVarint32FrameDecoder());
+                        channel.pipeline().addLast("status-handler", new StatusHandler(address, port, useProxyProtocol, startTime));
+                    }
+                })
+                .connect(address, port)
+                .addListener((ChannelFutureListener) future -> {
+                    if (!future.isSuccess()) {
+                        onFailure(future.cause());
+                    }
+                });
+    }
 
-            this.pingInfo = GeyserImpl.JSON_MAPPER.readValue(buffer, GeyserPingInfo.class);
-        } catch (SocketTimeoutException | ConnectException ex) {
+    private void onFailure(Throwable cause) {
+        failures.incrementAndGet();
+        pinging.set(false);
+
+        if (cause instanceof ConnectException || cause instanceof ReadTimeoutException) {
             this.pingInfo = null;
             this.geyser.getLogger().debug("Connection timeout for ping passthrough.");
-        } catch (JsonParseException | JsonMappingException ex) {
-            this.geyser.getLogger().error("Failed to parse json when pinging server!", ex);
-        } catch (UnknownHostException ex) {
+        } else if (cause instanceof JsonProcessingException) {
+            this.geyser.getLogger().error("Failed to parse json when pinging server!", cause);
+        } else if (cause instanceof UnknownHostException) {
             // Don't reset pingInfo, as we want to keep the last known value
             this.geyser.getLogger().warning("Unable to resolve remote host! Is the remote server down or invalid?");
-        } catch (IOException e) {
-            this.geyser.getLogger().error("IO error while trying to use legacy ping passthrough", e);
+        } else {
+            this.geyser.getLogger().error("IO error while trying to use legacy ping passthrough", cause);
+        }
+    }
+
+    /**
+     * Sends the handshake and status request once connected, then reads the status response.
+     */
+    private final class StatusHandler extends SimpleChannelInboundHandler<ByteBuf> {
+        private final String address;
+        private final int port;
+        private final boolean useProxyProtocol;
+        private final long startTime;
+        private boolean done;
+
+        StatusHandler(String address, int port, boolean useProxyProtocol, long startTime) {
+            this.address = address;
+            this.port = port;
+            this.useProxyProtocol = useProxyProtocol;
+            this.startTime = startTime;
+        }
+
+        @Override
+        public void channelActive(@NonNull ChannelHandlerContext ctx) throws Exception {
+            Channel channel = ctx.channel();
+            if (useProxyProtocol) {
+                InetSocketAddress localAddress = (InetSocketAddress) channel.localAddress();
+                InetSocketAddress remoteAddress = (InetSocketAddress) channel.remoteAddress();
+                HAProxyProxiedProtocol proxiedProtocol = localAddress.getAddress() instanceof Inet4Address ? HAProxyProxiedProtocol.TCP4 : HAProxyProxiedProtocol.TCP6;
+                channel.write(new HAProxyMessage(
+                        HAProxyProtocolVersion.V2, HAProxyCommand.PROXY, proxiedProtocol,
+                        localAddress.getAddress().getHostAddress(), remoteAddress.getAddress().getHostAddress(),
+                        localAddress.getPort(), port
+                ));
+            }
+
+            ByteBuf handshake = ctx.alloc().buffer();
+            handshake.writeByte(0x00); // Handshake packet ID
+            VarInts.writeUnsignedInt(handshake, GameProtocol.getJavaProtocolVersion());
+            byte[] addressBytes = address.getBytes(StandardCharsets.UTF_8);
+            VarInts.writeUnsignedInt(handshake, addressBytes.length);
+            handshake.writeBytes(addressBytes);
+            handshake.writeShort(port);
+            VarInts.writeUnsignedInt(handshake, 1); // Next state: status
+
+            ByteBuf packets = ctx.alloc().buffer(handshake.readableBytes() + 7);
+            VarInts.writeUnsignedInt(packets, handshake.readableBytes());
+            packets.writeBytes(handshake);
+            handshake.release();
+            // Status request
+            packets.writeByte(0x01);
+            packets.writeByte(0x00);
+            channel.writeAndFlush(packets);
+
+            super.channelActive(ctx);
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, ByteBuf frame) throws Exception {
+            VarInts.readUnsignedInt(frame); // Status response packet ID
+            int length = VarInts.readUnsignedInt(frame);
+            byte[] json = new byte[length];
+            frame.readBytes(json);
+
+            GeyserPingInfo pingInfo = GeyserImpl.JSON_MAPPER.readValue(json, GeyserPingInfo.class);
+            GeyserLegacyPingPassthrough.this.pingInfo = pingInfo;
+            lastLatency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            successes.incrementAndGet();
+            done = true;
+            pinging.set(false);
+            ctx.close();
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            if (!done) {
+                done = true;
+                onFailure(cause);
+            }
+            ctx.close();
+        }
+
+        @Override
+        public void channelInactive(@NonNull ChannelHandlerContext ctx) throws Exception {
+            if (!done) {
+                // The server closed the connection without sending a status
+                done = true;
+                onFailure(new ConnectException("Connection closed before a status was received"));
+            }
+            super.channelInactive(ctx);
         }
     }
 }
@@ -131,15 +131,20 @@ public class BlockRegistries {
     public static final SimpleMappedRegistry<String, CustomSkull> CUSTOM_SKULLS = SimpleMappedRegistry.create(RegistryLoaders.empty(Object2ObjectOpenHashMap::new));
 
     static {
-        CustomSkullRegistryPopulator.populate();
+        // Starts parsing the Java mappings and Bedrock palettes in the background; the stages below that need them wait
         BlockRegistryPopulator.populate(BlockRegistryPopulator.Stage.PRE_INIT);
-        CustomBlockRegistryPopulator.populate(CustomBlockRegistryPopulator.Stage.DEFINITION);
-        CustomBlockRegistryPopulator.populate(CustomBlockRegistryPopulator.Stage.NON_VANILLA_REGISTRATION);
-        BlockRegistryPopulator.populate(BlockRegistryPopulator.Stage.INIT_JAVA);
-        COLLISIONS = IntMappedRegistry.create(Pair.of("org.geysermc.geyser.translator.collision.CollisionRemapper", "mappings/collision.json"), CollisionRegistryLoader::new);
-        CustomBlockRegistryPopulator.populate(CustomBlockRegistryPopulator.Stage.VANILLA_REGISTRATION);
-        CustomBlockRegistryPopulator.populate(CustomBlockRegistryPopulator.Stage.CUSTOM_REGISTRATION);
-        BlockRegistryPopulator.populate(BlockRegistryPopulator.Stage.INIT_BEDROCK);
+        RegistryTasks.time("custom skulls", CustomSkullRegistryPopulator::populate);
+        RegistryTasks.time("custom block definitions", () -> {
+            CustomBlockRegistryPopulator.populate(CustomBlockRegistryPopulator.Stage.DEFINITION);
+            CustomBlockRegistryPopulator.populate(CustomBlockRegistryPopulator.Stage.NON_VANILLA_REGISTRATION);
+        });
+        RegistryTasks.time("java blocks", () -> BlockRegistryPopulator.populate(BlockRegistryPopulator.Stage.INIT_JAVA));
+        COLLISIONS = RegistryTasks.timed("collisions", () -> IntMappedRegistry.create(Pair.of("org.geysermc.geyser.translator.collision.CollisionRemapper", "mappings/collision.json"), CollisionRegistryLoader::new));
+        RegistryTasks.time("custom block registration", () -> {
+            CustomBlockRegistryPopulator.populate(CustomBlockRegistryPopulator.Stage.VANILLA_REGISTRATION);
+            CustomBlockRegistryPopulator.populate(CustomBlockRegistryPopulator.Stage.CUSTOM_REGISTRATION);
+        });
+        RegistryTasks.time("bedrock blocks", () -> BlockRegistryPopulator.populate(BlockRegistryPopulator.Stage.INIT_BEDROCK));
         BlockRegistryPopulator.populate(BlockRegistryPopulator.Stage.POST_INIT);
     }
 
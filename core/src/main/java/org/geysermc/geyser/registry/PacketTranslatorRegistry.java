@@ -30,7 +30,9 @@ import com.github.steveice10.mc.protocol.packet.ingame.clientbound.ClientboundTa
 import com.github.steveice10.mc.protocol.packet.ingame.clientbound.level.ClientboundChunkBatchStartPacket;
 import com.github.steveice10.mc.protocol.packet.ingame.clientbound.level.ClientboundLightUpdatePacket;
 import io.netty.channel.EventLoop;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.geysermc.geyser.GeyserImpl;
+import org.geysermc.geyser.metrics.TranslationMetrics;
 import org.geysermc.geyser.registry.loader.RegistryLoaders;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.text.GeyserLocale;
@@ -63,10 +65,17 @@ public class PacketTranslatorRegistry<T> extends AbstractMappedRegistry<Class<?
         PacketTranslator<P> translator = (PacketTranslator<P>) this.mappings.get(clazz);
         if (translator != null) {
             EventLoop eventLoop = session.getEventLoop();
+            TranslationMetrics metrics = GeyserImpl.getInstance().getTranslationMetrics();
             if (!translator.shouldExecuteInEventLoop() || eventLoop.inEventLoop()) {
-                translate0(session, translator, packet);
+                translate0(session, translator, packet, metrics);
+            } else if (metrics == null) {
+                eventLoop.execute(() -> translate0(session, translator, packet, null));
             } else {
-                eventLoop.execute(() -> translate0(session, translator, packet));
+                long queuedAt = System.nanoTime();
+                eventLoop.execute(() -> {
+                    metrics.recordQueueDelay(System.nanoTime() - queuedAt);
+                    translate0(session, translator, packet, metrics);
+                });
             }
             return true;
         } else {
@@ -80,13 +89,19 @@ public class PacketTranslatorRegistry<T> extends AbstractMappedRegistry<Class<?
         }
     }
 
-    private <P extends T> void translate0(GeyserSession session, PacketTranslator<P> translator, P packet) {
+    private <P extends T> void translate0(GeyserSession session, PacketTranslator<P> translator, P packet, @Nullable TranslationMetrics metrics) {
         if (session.isClosed()) {
             return;
         }
 
         try {
-            translator.translate(session, packet);
+            if (metrics == null) {
+                translator.translate(session, packet);
+            } else {
+                long start = System.nanoTime();
+                translator.translate(session, packet);
+                metrics.recordTranslation(packet.getClass(), System.nanoTime() - start);
+            }
         } catch (Throwable ex) {
             GeyserImpl.getInstance().getLogger().error(GeyserLocale.getLocaleStringLog("geyser.network.translator.packet.failed", packet.getClass().getSimpleName()), ex);
             ex.printStackTrace();
@@ -179,9 +179,9 @@ public final class Registries {
     }
 
     static {
-        PacketRegistryPopulator.populate();
-        ItemRegistryPopulator.populate();
-        RecipeRegistryPopulator.populate();
+        RegistryTasks.time("packet translators", PacketRegistryPopulator::populate);
+        RegistryTasks.time("items", ItemRegistryPopulator::populate);
+        RegistryTasks.time("recipes", RecipeRegistryPopulator::populate);
 
         // Create registries that require other registries to load first
         POTION_MIXES = VersionedRegistry.create(PotionMixRegistryLoader::new);
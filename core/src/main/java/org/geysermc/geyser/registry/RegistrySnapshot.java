@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.registry;
+
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
+import org.geysermc.geyser.GeyserImpl;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the parsed form of large registry resources in the cache folder, in a flat binary format that is much
+ * cheaper to read than the original JSON or compressed NBT.
+ * <p>
+ * Every snapshot stores the build of Geyser it was made by, since resources only change between builds. Outside of
+ * production builds, where resources may be edited between runs, the SHA-256 hash of the resource is stored instead.
+ * If the key doesn't match, or the snapshot can't be read for any reason, the resource is parsed as usual and the
+ * snapshot is written again. Snapshots are memory-mapped on load.
+ * <p>
+ * Only resources whose parsed form doesn't depend on extensions should be snapshotted; custom blocks and items are
+ * added on top of the parsed resources on every start.
+ */
+public final class RegistrySnapshot {
+    private static final int MAGIC = 0x47535253; // GSRS
+    /**
+     * Increase when the layout of any snapshot changes.
+     */
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_PREFIX_LENGTH = Integer.BYTES * 2 + Short.BYTES;
+
+    /**
+     * Loads the parsed form of a resource from its snapshot if possible, or parses it and writes a new snapshot.
+     *
+     * @param resource the path of the resource inside Geyser
+     * @param name the name of the snapshot file
+     * @param reader reads the parsed form from a snapshot
+     * @param writer writes the parsed form to a snapshot
+     * @param parser parses the resource
+     * @return the parsed form of the resource
+     */
+    public static <T> T load(String resource, String name, Reader<T> reader, Writer<T> writer, Callable<T> parser) throws Exception {
+        GeyserImpl geyser = GeyserImpl.getInstance();
+        String key;
+        if (geyser.isProductionEnvironment()) {
+            key = GeyserImpl.GIT_VERSION + "/" + GeyserImpl.BUILD_NUMBER;
+        } else {
+            try {
+                key = HexFormat.of().formatHex(hashResource(resource));
+            } catch (IOException | NoSuchAlgorithmException e) {
+                geyser.getLogger().debug("Unable to hash " + resource + " for its registry snapshot: " + e.getMessage());
+                return parser.call();
+            }
+        }
+
+        Path path = geyser.getBootstrap().getConfigFolder().resolve("cache").resolve("registries").resolve(name + ".bin");
+        return load(path, key, reader, writer, parser, geyser.getLogger()::debug);
+    }
+
+    static <T> T load(Path path, String key, Reader<T> reader, Writer<T> writer, Callable<T> parser, Consumer<String> debug) throws Exception {
+        if (Files.isRegularFile(path)) {
+            try {
+                T value = read(path, key, reader);
+                if (value != null) {
+                    return value;
+                }
+            } catch (Exception e) {
+                debug.accept("Unable to read registry snapshot " + path + ": " + e);
+            }
+        }
+
+        T value = parser.call();
+        try {
+            write(path, key, writer, value);
+        } catch (Exception e) {
+            debug.accept("Unable to write registry snapshot " + path + ": " + e);
+        }
+        return value;
+    }
+
+    private static byte[] hashResource(String resource) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream stream = new DigestInputStream(GeyserImpl.getInstance().getBootstrap().getResourceOrThrow(resource), digest)) {
+            byte[] buffer = new byte[8192];
+            //noinspection StatementWithEmptyBody
+            while (stream.read(buffer) != -1) {
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * @return the snapshot, or null if it is outdated
+     */
+    private static <T> T read(Path path, String key, Reader<T> reader) throws IOException {
+        byte[] expectedKey = key.getBytes(StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // Check the header before mapping, so outdated snapshots are never mapped and can always be replaced
+            ByteBuffer header = ByteBuffer.allocate(HEADER_PREFIX_LENGTH + expectedKey.length);
+            header.limit(HEADER_PREFIX_LENGTH);
+            if (!readFully(channel, header)) {
+                return null;
+            }
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION || header.getShort() != expectedKey.length) {
+                return null;
+            }
+            header.limit(header.capacity());
+            if (!readFully(channel, header)) {
+                return null;
+            }
+            if (!header.flip().position(HEADER_PREFIX_LENGTH).equals(ByteBuffer.wrap(expectedKey))) {
+                return null;
+            }
+
+            ByteBuffer body = channel.map(FileChannel.MapMode.READ_ONLY, header.capacity(), channel.size() - header.capacity());
+            try (DataInputStream in = new DataInputStream(new ByteBufInputStream(Unpooled.wrappedBuffer(body), true))) {
+                T value = reader.read(in);
+                if (in.available() != 0) {
+                    throw new IOException(in.available() + " bytes left over");
+                }
+                return value;
+            }
+        }
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) == -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T> void write(Path path, String key, Writer<T> writer, T value) throws IOException {
+        Files.createDirectories(path.getParent());
+        // Write next to the snapshot first, so a half-written snapshot is never read
+        Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream stream = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+                byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeShort(keyBytes.length);
+                out.write(keyBytes);
+                writer.write(out, value);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Reader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface Writer<T> {
+        void write(DataOutputStream out, T value) throws IOException;
+    }
+
+    private RegistrySnapshot() {
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.registry;
+
+import org.geysermc.geyser.GeyserLogger;
+
+import java.util.Queue;
+import java.util.StringJoiner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent parts of registry population, such as parsing each Bedrock version's palettes, on a fork-join
+ * pool, and records how long every stage of population takes so it can be reported once startup is done.
+ * <p>
+ * Tasks submitted here must not touch {@link Registries} or {@link BlockRegistries}. Both are populated from their
+ * static initializers, so any other thread reading them would wait for the main thread, which is waiting for the task.
+ * Submit the parsing of resources as early as possible, and join the result where the registries need it.
+ */
+public final class RegistryTasks {
+    private static final Queue<Timing> TIMINGS = new ConcurrentLinkedQueue<>();
+    private static ForkJoinPool pool;
+
+    private static synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            int parallelism = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1, 4));
+            pool = new ForkJoinPool(parallelism, p -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setName("Geyser Registry Loader-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+        }
+        return pool;
+    }
+
+    /**
+     * Starts a stage on the registry pool.
+     *
+     * @param stage the name of the stage, as shown in the startup log
+     * @param task the task; should not touch any registries
+     * @return a future to pass to {@link #join(CompletableFuture)} once the result is needed
+     */
+    public static <T> CompletableFuture<T> submit(String stage, Callable<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                return task.call();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            } finally {
+                TIMINGS.add(new Timing(stage, System.nanoTime() - start, true));
+            }
+        }, pool());
+    }
+
+    /**
+     * Waits for a stage started with {@link #submit(String, Callable)}, throwing anything it threw as-is so that
+     * startup fails the same way it would if the stage ran on this thread.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a stage on this thread and records how long it took.
+     */
+    public static void time(String stage, Runnable task) {
+        timed(stage, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs a stage on this thread that creates something, and records how long it took.
+     */
+    public static <T> T timed(String stage, Supplier<T> task) {
+        long start = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            TIMINGS.add(new Timing(stage, System.nanoTime() - start, false));
+        }
+    }
+
+    /**
+     * Logs the recorded timings and stops the pool; registries are only populated once.
+     */
+    public static void finish(GeyserLogger logger) {
+        synchronized (RegistryTasks.class) {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
+        }
+
+        if (TIMINGS.isEmpty()) {
+            return;
+        }
+        StringJoiner joiner = new StringJoiner(", ");
+        Timing timing;
+        while ((timing = TIMINGS.poll()) != null) {
+            joiner.add(timing.stage() + " " + (timing.nanos() / 1_000_000) + "ms" + (timing.parallel() ? " (parallel)" : ""));
+        }
+        logger.info("Registry population timings: " + joiner);
+    }
+
+    private record Timing(String stage, long nanos, boolean parallel) {
+    }
+
+    private RegistryTasks() {
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.registry.populator;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.cloudburstmc.nbt.NbtMap;
+import org.cloudburstmc.nbt.NbtMapBuilder;
+import org.geysermc.geyser.registry.RegistrySnapshot;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores a Bedrock block palette for {@link RegistrySnapshot} in a flat form that is read without any NBT parsing.
+ * <p>
+ * Every string is written once in a string table, and every distinct {@code states} compound once in a compound table,
+ * so identical states are shared between blocks once read. Blocks and compounds are lists of entries whose values are
+ * bytes, ints, strings, or (for blocks only) a reference into the compound table. Entries keep their order.
+ */
+final class BlockPaletteSnapshot {
+    private static final byte TYPE_BYTE = 0;
+    private static final byte TYPE_INT = 1;
+    private static final byte TYPE_STRING = 2;
+    private static final byte TYPE_COMPOUND = 3;
+
+    static List<NbtMap> read(DataInputStream in) throws IOException {
+        String[] strings = new String[in.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = in.readUTF();
+        }
+
+        NbtMap[] compounds = new NbtMap[in.readInt()];
+        for (int i = 0; i < compounds.length; i++) {
+            compounds[i] = readCompound(in, strings, null);
+        }
+
+        int size = in.readInt();
+        List<NbtMap> blocks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            blocks.add(readCompound(in, strings, compounds));
+        }
+        return blocks;
+    }
+
+    private static NbtMap readCompound(DataInputStream in, String[] strings, NbtMap[] compounds) throws IOException {
+        int size = in.readUnsignedShort();
+        NbtMapBuilder builder = NbtMap.builder();
+        for (int i = 0; i < size; i++) {
+            String key = strings[in.readInt()];
+            byte type = in.readByte();
+            switch (type) {
+                case TYPE_BYTE -> builder.putByte(key, in.readByte());
+                case TYPE_INT -> builder.putInt(key, in.readInt());
+                case TYPE_STRING -> builder.putString(key, strings[in.readInt()]);
+                case TYPE_COMPOUND -> {
+                    if (compounds == null) {
+                        throw new IOException("Nested compound in block states");
+                    }
+                    builder.putCompound(key, compounds[in.readInt()]);
+                }
+                default -> throw new IOException("Unknown entry type " + type);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @throws IOException if a block holds anything other than bytes, ints, strings and compounds of those
+     */
+    static void write(DataOutputStream out, List<NbtMap> blocks) throws IOException {
+        Object2IntMap<String> stringIds = new Object2IntOpenHashMap<>();
+        List<String> strings = new ArrayList<>();
+        Object2IntMap<NbtMap> compoundIds = new Object2IntOpenHashMap<>();
+        List<NbtMap> compounds = new ArrayList<>();
+        for (NbtMap block : blocks) {
+            for (Map.Entry<String, Object> entry : block.entrySet()) {
+                addString(entry.getKey(), stringIds, strings);
+                if (entry.getValue() instanceof NbtMap compound) {
+                    if (!compoundIds.containsKey(compound)) {
+                        compoundIds.put(compound, compounds.size());
+                        compounds.add(compound);
+                        for (Map.Entry<String, Object> state : compound.entrySet()) {
+                            addString(state.getKey(), stringIds, strings);
+                            if (state.getValue() instanceof String value) {
+                                addString(value, stringIds, strings);
+                            }
+                        }
+                    }
+                } else if (entry.getValue() instanceof String value) {
+                    addString(value, stringIds, strings);
+                }
+            }
+        }
+
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            out.writeUTF(string);
+        }
+        out.writeInt(compounds.size());
+        for (NbtMap compound : compounds) {
+            writeCompound(out, compound, stringIds, null);
+        }
+        out.writeInt(blocks.size());
+        for (NbtMap block : blocks) {
+            writeCompound(out, block, stringIds, compoundIds);
+        }
+    }
+
+    private static void addString(String string, Object2IntMap<String> stringIds, List<String> strings) {
+        if (!stringIds.containsKey(string)) {
+            stringIds.put(string, strings.size());
+            strings.add(string);
+        }
+    }
+
+    private static void writeCompound(DataOutputStream out, NbtMap compound, Object2IntMap<String> stringIds,
+                                      Object2IntMap<NbtMap> compoundIds) throws IOException {
+        out.writeShort(compound.size());
+        for (Map.Entry<String, Object> entry : compound.entrySet()) {
+            out.writeInt(stringIds.getInt(entry.getKey()));
+            Object value = entry.getValue();
+            if (value instanceof Byte b) {
+                out.writeByte(TYPE_BYTE);
+                out.writeByte(b);
+            } else if (value instanceof Integer i) {
+                out.writeByte(TYPE_INT);
+                out.writeInt(i);
+            } else if (value instanceof String s) {
+                out.writeByte(TYPE_STRING);
+                out.writeInt(stringIds.getInt(s));
+            } else if (value instanceof NbtMap nested && compoundIds != null) {
+                out.writeByte(TYPE_COMPOUND);
+                out.writeInt(compoundIds.getInt(nested));
+            } else {
+                throw new IOException("Unsupported value for " + entry.getKey() + ": " + value);
+            }
+        }
+    }
+
+    private BlockPaletteSnapshot() {
+    }
+}
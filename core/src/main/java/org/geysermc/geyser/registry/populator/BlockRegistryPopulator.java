@@ -50,15 +50,19 @@ import org.geysermc.geyser.api.block.custom.nonvanilla.JavaBlockState;
 import org.geysermc.geyser.level.block.BlockStateValues;
 import org.geysermc.geyser.level.physics.PistonBehavior;
 import org.geysermc.geyser.registry.BlockRegistries;
+import org.geysermc.geyser.registry.RegistrySnapshot;
+import org.geysermc.geyser.registry.RegistryTasks;
 import org.geysermc.geyser.registry.type.BlockMapping;
 import org.geysermc.geyser.registry.type.BlockMappings;
 import org.geysermc.geyser.registry.type.GeyserBedrockBlock;
 import org.geysermc.geyser.util.BlockUtils;
 
 import java.io.DataInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.zip.GZIPInputStream;
 
 /**
@@ -96,7 +100,8 @@ public final class BlockRegistryPopulator {
 
     public static void populate(Stage stage) {
         switch (stage) {
-            case PRE_INIT, POST_INIT -> nullifyBlocksNode();
+            case PRE_INIT -> startParsing();
+            case POST_INIT -> nullifyBlocksNode();
             case INIT_JAVA -> registerJavaBlocks();
             case INIT_BEDROCK -> registerBedrockBlocks();
             default -> throw new IllegalArgumentException("Unknown stage: " + stage);
@@ -112,42 +117,86 @@ public final class BlockRegistryPopulator {
 
     private static void nullifyBlocksNode() {
         BLOCKS_JSON = null;
+        BLOCKS_JSON_FUTURE = null;
+        PALETTE_FUTURES = null;
     }
 
-    private static void registerBedrockBlocks() {
-        var blockMappers = ImmutableMap.<ObjectIntPair<String>, Remapper>builder()
-                .put(ObjectIntPair.of("1_20_40", Bedrock_v622.CODEC.getProtocolVersion()), Conversion630_622::remapBlock)
-                .put(ObjectIntPair.of("1_20_50", Bedrock_v630.CODEC.getProtocolVersion()), tag -> tag)
-                .build();
+    private static final Map<ObjectIntPair<String>, Remapper> BLOCK_MAPPERS = ImmutableMap.<ObjectIntPair<String>, Remapper>builder()
+            .put(ObjectIntPair.of("1_20_40", Bedrock_v622.CODEC.getProtocolVersion()), Conversion630_622::remapBlock)
+            .put(ObjectIntPair.of("1_20_50", Bedrock_v630.CODEC.getProtocolVersion()), tag -> tag)
+            .build();
+
+    /**
+     * The Java block mappings and each Bedrock block palette, parsed on the registry pool while custom blocks are
+     * registered and the Java blocks are populated.
+     */
+    private static CompletableFuture<JsonNode> BLOCKS_JSON_FUTURE;
+    private static Map<ObjectIntPair<String>, CompletableFuture<List<NbtMap>>> PALETTE_FUTURES;
+
+    private static void startParsing() {
+        BLOCKS_JSON_FUTURE = RegistryTasks.submit("blocks.json", () -> {
+            try (InputStream stream = GeyserImpl.getInstance().getBootstrap().getResourceOrThrow("mappings/blocks.json")) {
+                return GeyserImpl.JSON_MAPPER.readTree(stream);
+            } catch (Exception e) {
+                throw new AssertionError("Unable to load Java block mappings", e);
+            }
+        });
 
         // We can keep this strong as nothing should be garbage collected
         // Safe to intern since Cloudburst NBT is immutable
         //noinspection UnstableApiUsage
         Interner<NbtMap> statesInterner = Interners.newStrongInterner();
 
-        for (ObjectIntPair<String> palette : blockMappers.keySet()) {
-            int protocolVersion = palette.valueInt();
-            List<NbtMap> vanillaBlockStates;
-            List<NbtMap> blockStates;
-            try (InputStream stream = GeyserImpl.getInstance().getBootstrap().getResourceOrThrow(String.format("bedrock/block_palette.%s.nbt", palette.key()));
-                 NBTInputStream nbtInputStream = new NBTInputStream(new DataInputStream(new GZIPInputStream(stream)), true, true)) {
-                NbtMap blockPalette = (NbtMap) nbtInputStream.readTag();
+        PALETTE_FUTURES = new Object2ObjectArrayMap<>(BLOCK_MAPPERS.size());
+        for (ObjectIntPair<String> palette : BLOCK_MAPPERS.keySet()) {
+            PALETTE_FUTURES.put(palette, RegistryTasks.submit("block palette " + palette.key(), () -> readPalette(palette.key(), statesInterner)));
+        }
+    }
 
-                vanillaBlockStates = new ArrayList<>(blockPalette.getList("blocks", NbtType.COMPOUND));
-                for (int i = 0; i < vanillaBlockStates.size(); i++) {
-                    NbtMapBuilder builder = vanillaBlockStates.get(i).toBuilder();
-                    builder.remove("version"); // Remove all nbt tags which are not needed for differentiating states
-                    builder.remove("name_hash"); // Quick workaround - was added in 1.19.20
-                    builder.remove("network_id"); // Added in 1.19.80 - ????
-                    //noinspection UnstableApiUsage
-                    builder.putCompound("states", statesInterner.intern((NbtMap) builder.remove("states")));
-                    vanillaBlockStates.set(i, builder.build());
-                }
+    private static List<NbtMap> readPalette(String version, Interner<NbtMap> statesInterner) {
+        String resource = String.format("bedrock/block_palette.%s.nbt", version);
+        List<NbtMap> vanillaBlockStates;
+        try {
+            vanillaBlockStates = RegistrySnapshot.load(resource, "block_palette." + version,
+                    BlockPaletteSnapshot::read, BlockPaletteSnapshot::write, () -> parsePalette(resource));
+        } catch (Exception e) {
+            throw new AssertionError("Unable to get blocks from runtime block states", e);
+        }
 
-                blockStates = new ArrayList<>(vanillaBlockStates);
-            } catch (Exception e) {
-                throw new AssertionError("Unable to get blocks from runtime block states", e);
+        for (int i = 0; i < vanillaBlockStates.size(); i++) {
+            NbtMap tag = vanillaBlockStates.get(i);
+            NbtMap states = tag.getCompound("states");
+            //noinspection UnstableApiUsage
+            NbtMap internedStates = statesInterner.intern(states);
+            if (internedStates != states) {
+                vanillaBlockStates.set(i, tag.toBuilder().putCompound("states", internedStates).build());
             }
+        }
+        return vanillaBlockStates;
+    }
+
+    private static List<NbtMap> parsePalette(String resource) throws IOException {
+        try (InputStream stream = GeyserImpl.getInstance().getBootstrap().getResourceOrThrow(resource);
+             NBTInputStream nbtInputStream = new NBTInputStream(new DataInputStream(new GZIPInputStream(stream)), true, true)) {
+            NbtMap blockPalette = (NbtMap) nbtInputStream.readTag();
+
+            List<NbtMap> vanillaBlockStates = new ArrayList<>(blockPalette.getList("blocks", NbtType.COMPOUND));
+            for (int i = 0; i < vanillaBlockStates.size(); i++) {
+                NbtMapBuilder builder = vanillaBlockStates.get(i).toBuilder();
+                builder.remove("version"); // Remove all nbt tags which are not needed for differentiating states
+                builder.remove("name_hash"); // Quick workaround - was added in 1.19.20
+                builder.remove("network_id"); // Added in 1.19.80 - ????
+                vanillaBlockStates.set(i, builder.build());
+            }
+            return vanillaBlockStates;
+        }
+    }
+
+    private static void registerBedrockBlocks() {
+        for (ObjectIntPair<String> palette : BLOCK_MAPPERS.keySet()) {
+            int protocolVersion = palette.valueInt();
+            List<NbtMap> vanillaBlockStates = RegistryTasks.join(PALETTE_FUTURES.get(palette));
+            List<NbtMap> blockStates = new ArrayList<>(vanillaBlockStates);
 
             List<BlockPropertyData> customBlockProperties = new ArrayList<>();
             List<NbtMap> customBlockStates = new ArrayList<>();
@@ -213,7 +262,7 @@ public final class BlockRegistryPopulator {
             BlockDefinition movingBlockDefinition = null;
             Iterator<Map.Entry<String, JsonNode>> blocksIterator = BLOCKS_JSON.fields();
 
-            Remapper stateMapper = blockMappers.get(palette);
+            Remapper stateMapper = BLOCK_MAPPERS.get(palette);
 
             GeyserBedrockBlock[] javaToBedrockBlocks = new GeyserBedrockBlock[JAVA_BLOCKS_SIZE];
             GeyserBedrockBlock[] javaToVanillaBedrockBlocks = new GeyserBedrockBlock[JAVA_BLOCKS_SIZE];
@@ -360,12 +409,7 @@ public final class BlockRegistryPopulator {
     }
 
     private static void registerJavaBlocks() {
-        JsonNode blocksJson;
-        try (InputStream stream = GeyserImpl.getInstance().getBootstrap().getResourceOrThrow("mappings/blocks.json")) {
-            blocksJson = GeyserImpl.JSON_MAPPER.readTree(stream);
-        } catch (Exception e) {
-            throw new AssertionError("Unable to load Java block mappings", e);
-        }
+        JsonNode blocksJson = RegistryTasks.join(BLOCKS_JSON_FUTURE);
 
         JAVA_BLOCKS_SIZE = blocksJson.size();
 
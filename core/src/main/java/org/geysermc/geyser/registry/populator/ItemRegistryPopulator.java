@@ -61,10 +61,16 @@ import org.geysermc.geyser.item.Items;
 import org.geysermc.geyser.item.type.Item;
 import org.geysermc.geyser.registry.BlockRegistries;
 import org.geysermc.geyser.registry.Registries;
+import org.geysermc.geyser.registry.RegistrySnapshot;
+import org.geysermc.geyser.registry.RegistryTasks;
 import org.geysermc.geyser.registry.type.*;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -92,6 +98,25 @@ public class ItemRegistryPopulator {
 
         GeyserBootstrap bootstrap = GeyserImpl.getInstance().getBootstrap();
 
+        // Parse the palette of every version in the background while the Java mappings and custom items are loaded
+        Map<PaletteVersion, CompletableFuture<List<PaletteItem>>> paletteFutures = new Object2ObjectArrayMap<>(paletteVersions.size());
+        for (PaletteVersion palette : paletteVersions) {
+            paletteFutures.put(palette, RegistryTasks.submit("item palette " + palette.version(), () -> {
+                String resource = String.format("bedrock/runtime_item_states.%s.json", palette.version());
+                try {
+                    return RegistrySnapshot.load(resource, "runtime_item_states." + palette.version(),
+                            ItemRegistryPopulator::readPaletteSnapshot, ItemRegistryPopulator::writePaletteSnapshot, () -> {
+                                TypeReference<List<PaletteItem>> paletteEntriesType = new TypeReference<>() {};
+                                try (InputStream stream = bootstrap.getResourceOrThrow(resource)) {
+                                    return GeyserImpl.JSON_MAPPER.readValue(stream, paletteEntriesType);
+                                }
+                            });
+                } catch (Exception e) {
+                    throw new AssertionError("Unable to load Bedrock runtime item IDs", e);
+                }
+            }));
+        }
+
         TypeReference<Map<String, GeyserMappingItem>> mappingItemsType = new TypeReference<>() { };
 
         Map<String, GeyserMappingItem> items;
@@ -119,14 +144,7 @@ public class ItemRegistryPopulator {
 
         /* Load item palette */
         for (PaletteVersion palette : paletteVersions) {
-            TypeReference<List<PaletteItem>> paletteEntriesType = new TypeReference<>() {};
-
-            List<PaletteItem> itemEntries;
-            try (InputStream stream = bootstrap.getResourceOrThrow(String.format("bedrock/runtime_item_states.%s.json", palette.version()))) {
-                itemEntries = GeyserImpl.JSON_MAPPER.readValue(stream, paletteEntriesType);
-            } catch (Exception e) {
-                throw new AssertionError("Unable to load Bedrock runtime item IDs", e);
-            }
+            List<PaletteItem> itemEntries = RegistryTasks.join(paletteFutures.get(palette));
 
             // Used for custom items
             int nextFreeBedrockId = 0;
@@ -585,6 +603,26 @@ public class ItemRegistryPopulator {
         }
     }
 
+    private static List<PaletteItem> readPaletteSnapshot(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<PaletteItem> itemEntries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            PaletteItem entry = new PaletteItem();
+            entry.setName(in.readUTF());
+            entry.setId(in.readInt());
+            itemEntries.add(entry);
+        }
+        return itemEntries;
+    }
+
+    private static void writePaletteSnapshot(DataOutputStream out, List<PaletteItem> itemEntries) throws IOException {
+        out.writeInt(itemEntries.size());
+        for (PaletteItem entry : itemEntries) {
+            out.writeUTF(entry.getName());
+            out.writeInt(entry.getId());
+        }
+    }
+
     private static void registerFurnaceMinecart(int nextFreeBedrockId, List<ComponentItemData> componentItemData) {
         NbtMapBuilder builder = NbtMap.builder();
         builder.putString("name", "geysermc:furnace_minecart")
@@ -129,6 +129,7 @@ import org.geysermc.geyser.item.Items;
 import org.geysermc.geyser.level.JavaDimension;
 import org.geysermc.geyser.level.WorldManager;
 import org.geysermc.geyser.level.physics.CollisionManager;
+import org.geysermc.geyser.metrics.TrafficCounter;
 import org.geysermc.geyser.network.netty.LocalSession;
 import org.geysermc.geyser.registry.Registries;
 import org.geysermc.geyser.registry.type.BlockMappings;
@@ -146,6 +147,8 @@ import org.geysermc.geyser.util.ChunkUtils;
 import org.geysermc.geyser.util.DimensionUtils;
 import org.geysermc.geyser.util.EntityUtils;
 import org.geysermc.geyser.util.LoginEncryptionUtils;
+import org.geysermc.geyser.util.collection.ChunkIndexedMap;
+import org.geysermc.geyser.util.collection.ChunkIndexedSet;
 
 import java.net.ConnectException;
 import java.net.InetSocketAddress;
@@ -169,6 +172,11 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
      * If this is manually called, ensure that any exceptions are properly handled.
      */
     private final EventLoop eventLoop;
+    /**
+     * Count the bytes sent over each connection. Null if translation metrics are disabled.
+     */
+    private final @Nullable TrafficCounter upstreamTraffic;
+    private @Nullable TrafficCounter downstreamTraffic;
     @Setter
     private AuthData authData;
     @Setter
@@ -191,6 +199,7 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
 
     private final AdvancementsCache advancementsCache;
     private final BookEditCache bookEditCache;
+    private final ChunkBlobCache chunkBlobCache;
     private final ChunkCache chunkCache;
     private final EntityCache entityCache;
     private final EntityEffectCache effectCache;
@@ -263,14 +272,14 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
      * A map of Vector3i positions to Java entities.
      * Used for translating Bedrock block actions to Java entity actions.
      */
-    private final Map<Vector3i, ItemFrameEntity> itemFrameCache = new Object2ObjectOpenHashMap<>();
+    private final ChunkIndexedMap<ItemFrameEntity> itemFrameCache = new ChunkIndexedMap<>();
 
     /**
      * Stores a list of all lectern locations and their block entity tags.
      * See {@link WorldManager#sendLecternData(GeyserSession, int, int, int)}
      * for more information.
      */
-    private final Set<Vector3i> lecternCache;
+    private final ChunkIndexedSet lecternCache;
 
     /**
      * A list of all players that have a player head on with a custom texture.
@@ -593,10 +602,18 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
         this.upstream = new UpstreamSession(bedrockServerSession);
         this.eventLoop = eventLoop;
 
+        if (geyser.getTranslationMetrics() != null) {
+            this.upstreamTraffic = new TrafficCounter();
+            bedrockServerSession.getPeer().getChannel().pipeline().addFirst(TrafficCounter.NAME, this.upstreamTraffic);
+        } else {
+            this.upstreamTraffic = null;
+        }
+
         this.erosionHandler = new GeyserboundHandshakePacketHandler(this);
 
         this.advancementsCache = new AdvancementsCache(this);
         this.bookEditCache = new BookEditCache(this);
+        this.chunkBlobCache = new ChunkBlobCache(this);
         this.chunkCache = new ChunkCache(this);
         this.entityCache = new EntityCache(this);
         this.effectCache = new EntityEffectCache();
@@ -628,7 +645,7 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
             // Unneeded on these platforms
             this.lecternCache = null;
         } else {
-            this.lecternCache = new ObjectOpenHashSet<>();
+            this.lecternCache = new ChunkIndexedSet();
         }
 
         if (geyser.getConfig().getEmoteOffhandWorkaround() != EmoteOffhandWorkaroundOption.NO_EMOTES) {
@@ -875,9 +892,10 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
         TcpSession downstream;
         if (geyser.getBootstrap().getSocketAddress() != null) {
             // We're going to connect through the JVM and not through TCP
+            // If enabled, run the connection on our event loop so translating and sending packets never switch threads
             downstream = new LocalSession(this.remoteServer.address(), this.remoteServer.port(),
                     geyser.getBootstrap().getSocketAddress(), upstream.getAddress().getAddress().getHostAddress(),
-                    this.protocol, this.protocol.createHelper());
+                    this.protocol, this.protocol.createHelper(), geyser.getConfig().isSharedEventLoop() ? eventLoop : null);
             this.downstream = new DownstreamSession(downstream);
         } else {
             downstream = new TcpClientSession(this.remoteServer.address(), this.remoteServer.port(), this.protocol);
@@ -962,6 +980,11 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
                 loggingIn = false;
                 loggedIn = true;
 
+                if (geyser.getTranslationMetrics() != null) {
+                    downstreamTraffic = new TrafficCounter();
+                    downstream.getSession().getChannel().pipeline().addFirst(TrafficCounter.NAME, downstreamTraffic);
+                }
+
                 if (downstream instanceof LocalSession) {
                     // Connected directly to the server
                     geyser.getLogger().info(GeyserLocale.getLocaleStringLog("geyser.network.remote.connect_internal",
@@ -1111,8 +1134,12 @@ public class GeyserSession implements GeyserConnection, GeyserCommandSource {
         }
 
         erosionHandler.close();
+        ensureInEventLoop(chunkBlobCache::clear);
 
         closed = true;
+
+        // Give back this session's share of the global chunk cache memory usage
+        ensureInEventLoop(chunkCache::clear);
     }
 
     /**
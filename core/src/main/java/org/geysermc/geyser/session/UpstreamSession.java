@@ -25,14 +25,17 @@
 
 package org.geysermc.geyser.session;
 
+import io.netty.util.ReferenceCountUtil;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.cloudburstmc.protocol.bedrock.BedrockServerSession;
 import org.cloudburstmc.protocol.bedrock.codec.BedrockCodecHelper;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
 import org.geysermc.geyser.network.GeyserBedrockPeer;
+import org.geysermc.geyser.network.compression.MeasuredCompression;
 
 import java.net.InetSocketAddress;
 import java.util.ArrayDeque;
@@ -43,17 +46,30 @@ public class UpstreamSession {
     @Getter private final BedrockServerSession session;
     @Getter @Setter
     private boolean initialized = false;
+    /**
+     * The compression of packets to the client, once the network settings have been sent.
+     */
+    @Getter @Setter
+    private @Nullable MeasuredCompression compression;
     private Queue<BedrockPacket> postStartGamePackets = new ArrayDeque<>();
 
+    /**
+     * Sends a packet to the client. This takes ownership of reference-counted packets, releasing them if the
+     * session has already been closed.
+     */
     public void sendPacket(@NonNull BedrockPacket packet) {
         if (!isClosed()) {
             session.sendPacket(packet);
+        } else {
+            ReferenceCountUtil.release(packet);
         }
     }
 
     public void sendPacketImmediately(@NonNull BedrockPacket packet) {
         if (!isClosed()) {
             session.sendPacketImmediately(packet);
+        } else {
+            ReferenceCountUtil.release(packet);
         }
     }
 
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.session.cache;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongList;
+import lombok.Setter;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheBlobStatusPacket;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheMissResponsePacket;
+import org.geysermc.geyser.session.GeyserSession;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Keeps track of the chunk blobs that have been sent to a Bedrock client with caching enabled.
+ * <p>
+ * When caching is enabled, a chunk is sent with the hash of each sub-chunk and of the biomes instead of their data.
+ * The client then replies with the hashes it already has and the ones it is missing, and only the missing blobs are
+ * sent. Blobs are held here until the client has replied for every chunk that referenced them; they are never dropped
+ * earlier, since the client would be left with a hole in the world if it asked for one.
+ */
+public final class ChunkBlobCache {
+    /**
+     * Limits how much memory a client that never replies can take up. Once reached, chunks are sent without caching.
+     */
+    private static final int MAX_PENDING_BYTES = 16 * 1024 * 1024;
+
+    private static final VarHandle LONG_HANDLE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT_HANDLE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final GeyserSession session;
+    private final Long2ObjectOpenHashMap<PendingBlob> pendingBlobs = new Long2ObjectOpenHashMap<>();
+    private int pendingBytes;
+
+    /**
+     * If the client has told us that it supports the blob cache.
+     */
+    @Setter
+    private boolean supported;
+
+    public ChunkBlobCache(GeyserSession session) {
+        this.session = session;
+    }
+
+    /**
+     * @return if chunks should be sent to this client as blob hashes
+     */
+    public boolean isEnabled() {
+        return supported && session.getGeyser().getConfig().isClientChunkCaching();
+    }
+
+    /**
+     * @param length how many bytes of blobs are about to be added
+     * @return if the blobs can be held without going over the memory limit. If not, the chunk should be sent without
+     * caching.
+     */
+    public boolean hasRoom(int length) {
+        return pendingBytes + length <= MAX_PENDING_BYTES;
+    }
+
+    /**
+     * Holds on to the given bytes until the client has replied to the chunk they are being sent with.
+     *
+     * @param buf the buffer to read the blob from. The reader index is not moved.
+     * @return the blob ID to send the client
+     */
+    public long addBlob(ByteBuf buf, int index, int length) {
+        byte[] data = new byte[length];
+        buf.getBytes(index, data);
+        long blobId = xxHash64(data);
+
+        PendingBlob blob = pendingBlobs.get(blobId);
+        if (blob == null) {
+            blob = new PendingBlob(data);
+            pendingBlobs.put(blobId, blob);
+            pendingBytes += length;
+        }
+        blob.references++;
+        return blobId;
+    }
+
+    /**
+     * Sends any blobs that the client is missing, and forgets about the ones it has replied to.
+     */
+    public void handleStatus(ClientCacheBlobStatusPacket packet) {
+        ClientCacheMissResponsePacket response = collectMissing(packet);
+        if (!response.getBlobs().isEmpty()) {
+            session.sendUpstreamPacket(response);
+        }
+    }
+
+    ClientCacheMissResponsePacket collectMissing(ClientCacheBlobStatusPacket packet) {
+        ClientCacheMissResponsePacket response = new ClientCacheMissResponsePacket();
+        for (int i = 0; i < packet.getNaks().size(); i++) {
+            long blobId = packet.getNaks().getLong(i);
+            PendingBlob blob = pendingBlobs.get(blobId);
+            if (blob == null) {
+                session.getGeyser().getLogger().debug("Client requested unknown chunk blob " + blobId);
+                continue;
+            }
+            response.getBlobs().put(blobId, Unpooled.wrappedBuffer(blob.data));
+            release(blobId, blob);
+        }
+        releaseAll(packet.getAcks());
+        return response;
+    }
+
+    private void releaseAll(LongList blobIds) {
+        for (int i = 0; i < blobIds.size(); i++) {
+            long blobId = blobIds.getLong(i);
+            PendingBlob blob = pendingBlobs.get(blobId);
+            if (blob != null) {
+                release(blobId, blob);
+            }
+        }
+    }
+
+    private void release(long blobId, PendingBlob blob) {
+        if (--blob.references <= 0) {
+            pendingBlobs.remove(blobId);
+            pendingBytes -= blob.data.length;
+        }
+    }
+
+    /**
+     * Forgets every pending blob. Called when the client drops all of its chunks, such as when switching dimensions.
+     */
+    public void clear() {
+        pendingBlobs.clear();
+        pendingBytes = 0;
+    }
+
+    private static final class PendingBlob {
+        private final byte[] data;
+        private int references;
+
+        PendingBlob(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME64_3 = 0x165667B19E3779F9L;
+    private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+    /**
+     * The same hash that the vanilla Bedrock server uses for blob IDs: XXH64 with a seed of zero.
+     */
+    static long xxHash64(byte[] data) {
+        int length = data.length;
+        int index = 0;
+        long hash;
+        if (length >= 32) {
+            long v1 = PRIME64_1 + PRIME64_2;
+            long v2 = PRIME64_2;
+            long v3 = 0;
+            long v4 = -PRIME64_1;
+            int limit = length - 32;
+            do {
+                v1 = round(v1, (long) LONG_HANDLE.get(data, index));
+                v2 = round(v2, (long) LONG_HANDLE.get(data, index + 8));
+                v3 = round(v3, (long) LONG_HANDLE.get(data, index + 16));
+                v4 = round(v4, (long) LONG_HANDLE.get(data, index + 24));
+                index += 32;
+            } while (index <= limit);
+
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        } else {
+            hash = PRIME64_5;
+        }
+
+        hash += length;
+
+        while (index + 8 <= length) {
+            hash ^= round(0, (long) LONG_HANDLE.get(data, index));
+            hash = Long.rotateLeft(hash, 27) * PRIME64_1 + PRIME64_4;
+            index += 8;
+        }
+        if (index + 4 <= length) {
+            hash ^= ((int) INT_HANDLE.get(data, index) & 0xFFFFFFFFL) * PRIME64_1;
+            hash = Long.rotateLeft(hash, 23) * PRIME64_2 + PRIME64_3;
+            index += 4;
+        }
+        while (index < length) {
+            hash ^= (data[index] & 0xFF) * PRIME64_5;
+            hash = Long.rotateLeft(hash, 11) * PRIME64_1;
+            index++;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME64_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME64_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME64_2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME64_1;
+    }
+
+    private static long mergeRound(long acc, long val) {
+        acc ^= round(0, val);
+        return acc * PRIME64_1 + PRIME64_4;
+    }
+}
@@ -26,19 +26,75 @@
 package org.geysermc.geyser.session.cache;
 
 import com.github.steveice10.mc.protocol.data.game.chunk.DataPalette;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import lombok.Getter;
 import lombok.Setter;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.cloudburstmc.math.vector.Vector3i;
+import org.cloudburstmc.nbt.NbtMap;
 import org.geysermc.geyser.level.BedrockDimension;
 import org.geysermc.geyser.level.block.BlockStateValues;
+import org.geysermc.geyser.level.chunk.BedrockChunk;
 import org.geysermc.geyser.level.chunk.GeyserChunk;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.util.MathUtils;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
 public class ChunkCache {
+    /**
+     * The estimated memory usage of the chunk caches of all sessions, in bytes.
+     */
+    private static final AtomicLong GLOBAL_MEMORY_USAGE = new AtomicLong();
+
+    private final GeyserSession session;
     private final boolean cache;
-    private final Long2ObjectMap<GeyserChunk> chunks;
+    private final boolean compact;
+    /**
+     * The global memory usage, in bytes, past which the least recently used chunks are removed. 0 for no limit.
+     */
+    private final long memoryLimit;
+    /**
+     * Ordered from least to most recently used if there is a memory limit.
+     */
+    private final Long2ObjectLinkedOpenHashMap<GeyserChunk> chunks;
+    /**
+     * The estimated memory usage of this session's chunks, in bytes.
+     */
+    @Getter
+    private long memoryUsage;
+    /**
+     * Translated chunks that the client can request sub-chunks from. Only used if sub-chunk requests are enabled.
+     */
+    private final Long2ObjectMap<BedrockChunk> bedrockChunks = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * Chunks that are currently being translated off the event loop, mapped to the work waiting for them.
+     */
+    private final Long2ObjectMap<PendingChunk> pendingChunks = new Long2ObjectOpenHashMap<>();
+    /**
+     * The chunk whose deferred tasks are currently being run. Tasks for it are not deferred again, as they already
+     * come after the copy of the chunk that was just sent.
+     */
+    private PendingChunk runningChunk;
+    /**
+     * Completes once the most recently submitted chunk has been sent. Chained onto to keep chunks in order.
+     */
+    private CompletableFuture<Void> lastPendingChunk = CompletableFuture.completedFuture(null);
+    /**
+     * Incremented on every clear, so chunks from a previous world are thrown away rather than sent.
+     */
+    private int generation;
 
     @Setter
     private int minY;
@@ -53,18 +109,27 @@ public class ChunkCache {
     private BedrockDimension bedrockDimension = BedrockDimension.OVERWORLD;
 
     public ChunkCache(GeyserSession session) {
+        this.session = session;
         this.cache = !session.getGeyser().getWorldManager().hasOwnChunkCache(); // To prevent Spigot from initializing
-        chunks = cache ? new Long2ObjectOpenHashMap<>() : null;
+        this.compact = session.getGeyser().getConfig().isCompactChunkCache();
+        this.memoryLimit = session.getGeyser().getConfig().getChunkCacheMemoryLimit() * 1024L * 1024L;
+        chunks = cache ? new Long2ObjectLinkedOpenHashMap<>() : null;
     }
 
     public void addToCache(int x, int z, DataPalette[] chunks) {
+        session.getCollisionManager().getCollisionSnapshot().invalidateChunk(x, z);
         if (!cache) {
             return;
         }
 
         long chunkPosition = MathUtils.chunkPositionToLong(x, z);
-        GeyserChunk geyserChunk = GeyserChunk.from(chunks);
-        this.chunks.put(chunkPosition, geyserChunk);
+        GeyserChunk geyserChunk = GeyserChunk.from(chunks, compact);
+        GeyserChunk previous = this.chunks.putAndMoveToLast(chunkPosition, geyserChunk);
+        if (previous != null) {
+            addMemoryUsage(-previous.estimateMemoryUsage());
+        }
+        addMemoryUsage(geyserChunk.estimateMemoryUsage());
+        evictIfNeeded();
     }
 
     /**
@@ -72,10 +137,43 @@ public class ChunkCache {
      */
     private GeyserChunk getChunk(int chunkX, int chunkZ) {
         long chunkPosition = MathUtils.chunkPositionToLong(chunkX, chunkZ);
-        return chunks.getOrDefault(chunkPosition, null);
+        if (memoryLimit > 0) {
+            return chunks.getAndMoveToLast(chunkPosition);
+        }
+        return chunks.get(chunkPosition);
+    }
+
+    /**
+     * Removes the least recently used chunks of this session while all chunk caches are over the memory limit.
+     * Only sessions using more than their share of the limit have chunks removed.
+     */
+    private void evictIfNeeded() {
+        if (memoryLimit <= 0 || GLOBAL_MEMORY_USAGE.get() <= memoryLimit) {
+            return;
+        }
+
+        long share = memoryLimit / Math.max(1, session.getGeyser().getSessionManager().size());
+        // Always keep the most recently added chunk
+        while (memoryUsage > share && chunks.size() > 1 && GLOBAL_MEMORY_USAGE.get() > memoryLimit) {
+            addMemoryUsage(-chunks.removeFirst().estimateMemoryUsage());
+        }
+    }
+
+    private void addMemoryUsage(long bytes) {
+        memoryUsage += bytes;
+        GLOBAL_MEMORY_USAGE.addAndGet(bytes);
+    }
+
+    /**
+     * @return the estimated memory usage of the chunk caches of all sessions, in bytes
+     */
+    public static long getGlobalMemoryUsage() {
+        return GLOBAL_MEMORY_USAGE.get();
     }
 
     public void updateBlock(int x, int y, int z, int block) {
+        // Also keeps the snapshot up to date if the world manager has its own chunk cache
+        session.getCollisionManager().getCollisionSnapshot().updateBlock(x, y, z, block);
         if (!cache) {
             return;
         }
@@ -85,26 +183,49 @@ public class ChunkCache {
             return;
         }
 
-        if (y < minY || ((y - minY) >> 4) > chunk.sections().length - 1) {
+        if (y < minY || ((y - minY) >> 4) > chunk.sectionCount() - 1) {
             // Y likely goes above or below the height limit of this world
             return;
         }
 
-        DataPalette palette = chunk.sections()[(y - minY) >> 4];
-        if (palette == null) {
-            if (block != BlockStateValues.JAVA_AIR_ID) {
-                // A previously empty chunk, which is no longer empty as a block has been added to it
-                palette = DataPalette.createForChunk();
-                // Fixes the chunk assuming that all blocks is the `block` variable we are updating. /shrug
-                palette.getPalette().stateToId(BlockStateValues.JAVA_AIR_ID);
-                chunk.sections()[(y - minY) >> 4] = palette;
-            } else {
-                // Nothing to update
-                return;
-            }
+        addMemoryUsage(chunk.setBlock((y - minY) >> 4, x & 0xF, y & 0xF, z & 0xF, block));
+    }
+
+    public void addBedrockChunk(int x, int z, BedrockChunk chunk) {
+        bedrockChunks.put(MathUtils.chunkPositionToLong(x, z), chunk);
+    }
+
+    public @Nullable BedrockChunk getBedrockChunk(int x, int z) {
+        return bedrockChunks.get(MathUtils.chunkPositionToLong(x, z));
+    }
+
+    /**
+     * Updates a block in a chunk that is held for sub-chunk requests, so the client does not get outdated blocks
+     * if it requests the sub-chunk after the update was sent.
+     */
+    public void updateBedrockBlock(int x, int y, int z, int runtimeId, int layer1RuntimeId) {
+        if (bedrockChunks.isEmpty()) {
+            return;
         }
 
-        palette.set(x & 0xF, y & 0xF, z & 0xF, block);
+        BedrockChunk chunk = bedrockChunks.get(MathUtils.chunkPositionToLong(x >> 4, z >> 4));
+        if (chunk != null) {
+            chunk.setBlock(x, y, z, runtimeId, layer1RuntimeId, session.getBlockMappings().getBedrockAir().getRuntimeId());
+        }
+    }
+
+    /**
+     * Like {@link #updateBedrockBlock(int, int, int, int, int)}, for block entities.
+     */
+    public void updateBedrockBlockEntity(Vector3i position, NbtMap blockEntity) {
+        if (bedrockChunks.isEmpty()) {
+            return;
+        }
+
+        BedrockChunk chunk = bedrockChunks.get(MathUtils.chunkPositionToLong(position.getX() >> 4, position.getZ() >> 4));
+        if (chunk != null) {
+            chunk.setBlockEntity(blockEntity);
+        }
     }
 
     public int getBlockAt(int x, int y, int z) {
@@ -117,26 +238,27 @@ public class ChunkCache {
             return BlockStateValues.JAVA_AIR_ID;
         }
 
-        if (y < minY || ((y - minY) >> 4) > column.sections().length - 1) {
+        if (y < minY || ((y - minY) >> 4) > column.sectionCount() - 1) {
             // Y likely goes above or below the height limit of this world
             return BlockStateValues.JAVA_AIR_ID;
         }
 
-        DataPalette chunk = column.sections()[(y - minY) >> 4];
-        if (chunk != null) {
-            return chunk.get(x & 0xF, y & 0xF, z & 0xF);
-        }
-
-        return BlockStateValues.JAVA_AIR_ID;
+        return column.getBlock((y - minY) >> 4, x & 0xF, y & 0xF, z & 0xF);
     }
 
     public void removeChunk(int chunkX, int chunkZ) {
+        long chunkPosition = MathUtils.chunkPositionToLong(chunkX, chunkZ);
+        bedrockChunks.remove(chunkPosition);
+        session.getCollisionManager().getCollisionSnapshot().invalidateChunk(chunkX, chunkZ);
+
         if (!cache) {
             return;
         }
 
-        long chunkPosition = MathUtils.chunkPositionToLong(chunkX, chunkZ);
-        chunks.remove(chunkPosition);
+        GeyserChunk chunk = chunks.remove(chunkPosition);
+        if (chunk != null) {
+            addMemoryUsage(-chunk.estimateMemoryUsage());
+        }
     }
 
     /**
@@ -145,11 +267,140 @@ public class ChunkCache {
      * but it is the client that must clear sections in the event of proxy switches.
      */
     public void clear() {
+        generation++;
+        pendingChunks.clear();
+        bedrockChunks.clear();
+        session.getCollisionManager().getCollisionSnapshot().invalidate();
+
         if (!cache) {
             return;
         }
 
         chunks.clear();
+        addMemoryUsage(-memoryUsage);
+    }
+
+    /**
+     * Runs a chunk translation on the given executor. Results are passed to {@code sender} on the event loop in the
+     * same order they were submitted in. Must be called on the event loop.
+     *
+     * @param translation the work to run off the event loop
+     * @param sender called on the event loop with the translated chunk
+     * @param discard called on the event loop instead of {@code sender} if the chunk is no longer wanted, or on the
+     *                translating thread if the event loop no longer accepts tasks
+     */
+    public <T> void translateAsync(int chunkX, int chunkZ, Executor executor, Supplier<T> translation, Consumer<T> sender, Consumer<T> discard) {
+        long chunkPosition = MathUtils.chunkPositionToLong(chunkX, chunkZ);
+        PendingChunk pendingChunk = pendingChunks.get(chunkPosition);
+        if (pendingChunk == null) {
+            pendingChunk = new PendingChunk();
+            pendingChunks.put(chunkPosition, pendingChunk);
+        }
+        pendingChunk.translations.addLast(new ArrayList<>());
+
+        int generation = this.generation;
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(translation, executor);
+        } catch (RejectedExecutionException e) {
+            // The translation never ran, and no task can have been deferred after it yet
+            pendingChunk.translations.removeLast();
+            if (pendingChunk.translations.isEmpty()) {
+                pendingChunks.remove(chunkPosition);
+            }
+            throw e;
+        }
+
+        // Completes once the chunk has been handed to the event loop; the event loop then keeps the order
+        lastPendingChunk = lastPendingChunk
+                .thenCompose(previous -> future)
+                .handle((result, throwable) -> {
+                    try {
+                        session.getEventLoop().execute(() -> {
+                            try {
+                                if (throwable != null) {
+                                    session.getGeyser().getLogger().error("Error while translating chunk", throwable);
+                                } else if (generation != this.generation || session.isClosed()) {
+                                    discard.accept(result);
+                                } else {
+                                    sender.accept(result);
+                                }
+                            } catch (Throwable e) {
+                                session.getGeyser().getLogger().error("Error thrown in " + session.bedrockUsername() + "'s event loop!", e);
+                            }
+
+                            finishPendingChunk(chunkPosition, generation, true);
+                        });
+                    } catch (RejectedExecutionException e) {
+                        // The event loop is shutting down, so nothing else runs on it anymore
+                        try {
+                            if (result != null) {
+                                discard.accept(result);
+                            }
+                            finishPendingChunk(chunkPosition, generation, false);
+                        } catch (Throwable t) {
+                            session.getGeyser().getLogger().error("Error while discarding chunk", t);
+                        }
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Holds back a task affecting a chunk that is still being translated, so it doesn't get overwritten by the chunk.
+     * The task is run right after the most recently submitted copy of the chunk has been sent, and before any copy
+     * submitted after it. Must be called on the event loop.
+     *
+     * @return true if the task will be run once the chunk has been sent, false if it should be run now
+     */
+    public boolean deferIfPending(int chunkX, int chunkZ, Runnable task) {
+        if (pendingChunks.isEmpty()) {
+            return false;
+        }
+        PendingChunk pendingChunk = pendingChunks.get(MathUtils.chunkPositionToLong(chunkX, chunkZ));
+        if (pendingChunk == null || pendingChunk == runningChunk) {
+            return false;
+        }
+        pendingChunk.translations.getLast().add(task);
+        return true;
+    }
+
+    /**
+     * Runs the tasks that were deferred after the oldest pending copy of a chunk, once that copy has been sent or
+     * thrown away.
+     *
+     * @param runTasks false to drop the tasks, if they can no longer be run on the event loop
+     */
+    private void finishPendingChunk(long chunkPosition, int generation, boolean runTasks) {
+        if (generation != this.generation) {
+            // Cleared since; the tasks were thrown away with the rest of the world
+            return;
+        }
+        PendingChunk pendingChunk = pendingChunks.get(chunkPosition);
+        if (pendingChunk == null) {
+            return;
+        }
+        List<Runnable> tasks = pendingChunk.translations.removeFirst();
+        if (pendingChunk.translations.isEmpty()) {
+            pendingChunks.remove(chunkPosition);
+        }
+        if (!runTasks) {
+            return;
+        }
+
+        PendingChunk previousRunningChunk = runningChunk;
+        runningChunk = pendingChunk;
+        try {
+            for (Runnable task : tasks) {
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    session.getGeyser().getLogger().error("Error thrown in " + session.bedrockUsername() + "'s event loop!", e);
+                }
+            }
+        } finally {
+            runningChunk = previousRunningChunk;
+        }
     }
 
     public int getChunkMinY() {
@@ -159,4 +410,12 @@ public class ChunkCache {
     public int getChunkHeightY() {
         return heightY >> 4;
     }
+
+    private static final class PendingChunk {
+        /**
+         * One entry for every copy of the chunk that hasn't been sent yet, oldest first. Each holds the tasks that
+         * arrived after that copy and before the next one.
+         */
+        private final ArrayDeque<List<Runnable>> translations = new ArrayDeque<>();
+    }
 }
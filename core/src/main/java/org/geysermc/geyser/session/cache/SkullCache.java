@@ -28,7 +28,6 @@ package org.geysermc.geyser.session.cache;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.cloudburstmc.math.vector.Vector3f;
 import org.cloudburstmc.math.vector.Vector3i;
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import lombok.Data;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -41,6 +40,7 @@ import org.geysermc.geyser.registry.BlockRegistries;
 import org.geysermc.geyser.registry.type.CustomSkull;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.skin.SkinManager;
+import org.geysermc.geyser.util.collection.ChunkIndexedMap;
 
 import java.io.IOException;
 import java.util.*;
@@ -57,7 +57,7 @@ public class SkullCache {
     private static final long CLEANUP_PERIOD = 10000;
 
     @Getter
-    private final Map<Vector3i, Skull> skulls = new Object2ObjectOpenHashMap<>();
+    private final ChunkIndexedMap<Skull> skulls = new ChunkIndexedMap<>();
 
     private final List<Skull> inRangeSkulls = new ArrayList<>();
 
@@ -147,6 +147,15 @@ public class SkullCache {
         }
     }
 
+    /**
+     * Removes every skull in a chunk column, for when the chunk is unloaded.
+     */
+    public void removeChunk(int chunkX, int chunkZ) {
+        for (Skull skull : skulls.removeChunk(chunkX, chunkZ)) {
+            reassignSkullEntity(skull);
+        }
+    }
+
     public Skull updateSkull(Vector3i position, int blockState) {
         Skull skull = skulls.get(position);
         if (skull != null) {
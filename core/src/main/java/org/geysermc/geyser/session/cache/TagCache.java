@@ -26,8 +26,9 @@
 package org.geysermc.geyser.session.cache;
 
 import com.github.steveice10.mc.protocol.packet.common.clientbound.ClientboundUpdateTagsPacket;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import it.unimi.dsi.fastutil.ints.IntList;
-import it.unimi.dsi.fastutil.ints.IntLists;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.geysermc.geyser.GeyserLogger;
 import org.geysermc.geyser.inventory.GeyserItemStack;
@@ -36,36 +37,27 @@ import org.geysermc.geyser.registry.type.BlockMapping;
 import org.geysermc.geyser.session.GeyserSession;
 
 import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Manages information sent from the {@link ClientboundUpdateTagsPacket}. If that packet is not sent, all lists here
  * will remain empty, matching Java Edition behavior.
+ * <p>
+ * Tags are stored as bit sets indexed by block or item ID, since they are checked often, such as every time a block
+ * is mined. Every session on the same backend receives the same tags, so sessions with identical tags share them.
  */
 @ParametersAreNonnullByDefault
 public class TagCache {
-    /* Blocks */
-    private IntList leaves;
-    private IntList wool;
-
-    private IntList axeEffective;
-    private IntList hoeEffective;
-    private IntList pickaxeEffective;
-    private IntList shovelEffective;
-
-    private IntList requiresStoneTool;
-    private IntList requiresIronTool;
-    private IntList requiresDiamondTool;
-
-    /* Items */
-    private IntList axolotlTemptItems;
-    private IntList creeperIgniters;
-    private IntList fishes;
-    private IntList flowers;
-    private IntList foxFood;
-    private IntList piglinLoved;
-    private IntList smallFlowers;
-    private IntList snifferFood;
+    /**
+     * Tags loaded by recent sessions. The bit sets are never modified once loaded.
+     */
+    private static final Cache<TagsKey, Tags> LOADED_TAGS = CacheBuilder.newBuilder()
+            .maximumSize(16)
+            .build();
+
+    private Tags tags;
 
     public TagCache() {
         // Ensure all lists are non-null
@@ -74,17 +66,14 @@ public class TagCache {
 
     public void loadPacket(GeyserSession session, ClientboundUpdateTagsPacket packet) {
         Map<String, int[]> blockTags = packet.getTags().get("minecraft:block");
-        this.leaves = IntList.of(blockTags.get("minecraft:leaves"));
-        this.wool = IntList.of(blockTags.get("minecraft:wool"));
-
-        this.axeEffective = IntList.of(blockTags.get("minecraft:mineable/axe"));
-        this.hoeEffective = IntList.of(blockTags.get("minecraft:mineable/hoe"));
-        this.pickaxeEffective = IntList.of(blockTags.get("minecraft:mineable/pickaxe"));
-        this.shovelEffective = IntList.of(blockTags.get("minecraft:mineable/shovel"));
-
-        this.requiresStoneTool = IntList.of(blockTags.get("minecraft:needs_stone_tool"));
-        this.requiresIronTool = IntList.of(blockTags.get("minecraft:needs_iron_tool"));
-        this.requiresDiamondTool = IntList.of(blockTags.get("minecraft:needs_diamond_tool"));
+        Map<String, int[]> itemTags = packet.getTags().get("minecraft:item");
+        TagsKey key = TagsKey.of(blockTags, itemTags);
+        Tags tags = LOADED_TAGS.getIfPresent(key);
+        if (tags == null) {
+            tags = new Tags(blockTags, itemTags);
+            LOADED_TAGS.put(key, tags);
+        }
+        this.tags = tags;
 
         // Hack btw
         GeyserLogger logger = session.getGeyser().getLogger();
@@ -95,16 +84,6 @@ public class TagCache {
             logger.debug("Emulating post 1.18 block predication logic for " + session.bedrockUsername() + "? " + emulatePost1_18Logic);
         }
 
-        Map<String, int[]> itemTags = packet.getTags().get("minecraft:item");
-        this.axolotlTemptItems = IntList.of(itemTags.get("minecraft:axolotl_tempt_items"));
-        this.creeperIgniters = load(itemTags.get("minecraft:creeper_igniters"));
-        this.fishes = IntList.of(itemTags.get("minecraft:fishes"));
-        this.flowers = IntList.of(itemTags.get("minecraft:flowers"));
-        this.foxFood = IntList.of(itemTags.get("minecraft:fox_food"));
-        this.piglinLoved = IntList.of(itemTags.get("minecraft:piglin_loved"));
-        this.smallFlowers = IntList.of(itemTags.get("minecraft:small_flowers"));
-        this.snifferFood = load(itemTags.get("minecraft:sniffer_food"));
-
         // Hack btw
         boolean emulatePost1_13Logic = itemTags.get("minecraft:signs").length > 1;
         session.setEmulatePost1_13Logic(emulatePost1_13Logic);
@@ -113,98 +92,149 @@ public class TagCache {
         }
     }
 
-    private IntList load(int @Nullable[] tags) {
-        if (tags == null) {
-            return IntLists.EMPTY_LIST;
-        }
-        return IntList.of(tags);
-    }
-
     public void clear() {
-        this.leaves = IntLists.emptyList();
-        this.wool = IntLists.emptyList();
-
-        this.axeEffective = IntLists.emptyList();
-        this.hoeEffective = IntLists.emptyList();
-        this.pickaxeEffective = IntLists.emptyList();
-        this.shovelEffective = IntLists.emptyList();
-
-        this.requiresStoneTool = IntLists.emptyList();
-        this.requiresIronTool = IntLists.emptyList();
-        this.requiresDiamondTool = IntLists.emptyList();
-
-        this.axolotlTemptItems = IntLists.emptyList();
-        this.creeperIgniters = IntLists.emptyList();
-        this.fishes = IntLists.emptyList();
-        this.flowers = IntLists.emptyList();
-        this.foxFood = IntLists.emptyList();
-        this.piglinLoved = IntLists.emptyList();
-        this.smallFlowers = IntLists.emptyList();
-        this.snifferFood = IntLists.emptyList();
+        this.tags = Tags.EMPTY;
     }
 
     public boolean isAxolotlTemptItem(Item item) {
-        return axolotlTemptItems.contains(item.javaId());
+        return tags.axolotlTemptItems.get(item.javaId());
     }
 
     public boolean isCreeperIgniter(Item item) {
-        return creeperIgniters.contains(item.javaId());
+        return tags.creeperIgniters.get(item.javaId());
     }
 
     public boolean isFish(GeyserItemStack itemStack) {
-        return fishes.contains(itemStack.getJavaId());
+        return tags.fishes.get(itemStack.getJavaId());
     }
 
     public boolean isFlower(Item item) {
-        return flowers.contains(item.javaId());
+        return tags.flowers.get(item.javaId());
     }
 
     public boolean isFoxFood(Item item) {
-        return foxFood.contains(item.javaId());
+        return tags.foxFood.get(item.javaId());
     }
 
     public boolean shouldPiglinAdmire(Item item) {
-        return piglinLoved.contains(item.javaId());
+        return tags.piglinLoved.get(item.javaId());
     }
 
     public boolean isSmallFlower(GeyserItemStack itemStack) {
-        return smallFlowers.contains(itemStack.getJavaId());
+        return tags.smallFlowers.get(itemStack.getJavaId());
     }
 
     public boolean isSnifferFood(Item item) {
-        return snifferFood.contains(item.javaId());
+        return tags.snifferFood.get(item.javaId());
     }
 
     public boolean isAxeEffective(BlockMapping blockMapping) {
-        return axeEffective.contains(blockMapping.getJavaBlockId());
+        return tags.axeEffective.get(blockMapping.getJavaBlockId());
     }
 
     public boolean isHoeEffective(BlockMapping blockMapping) {
-        return hoeEffective.contains(blockMapping.getJavaBlockId());
+        return tags.hoeEffective.get(blockMapping.getJavaBlockId());
     }
 
     public boolean isPickaxeEffective(BlockMapping blockMapping) {
-        return pickaxeEffective.contains(blockMapping.getJavaBlockId());
+        return tags.pickaxeEffective.get(blockMapping.getJavaBlockId());
     }
 
     public boolean isShovelEffective(BlockMapping blockMapping) {
-        return shovelEffective.contains(blockMapping.getJavaBlockId());
+        return tags.shovelEffective.get(blockMapping.getJavaBlockId());
     }
 
     public boolean isShearsEffective(BlockMapping blockMapping) {
         int javaBlockId = blockMapping.getJavaBlockId();
-        return leaves.contains(javaBlockId) || wool.contains(javaBlockId);
+        return tags.leaves.get(javaBlockId) || tags.wool.get(javaBlockId);
     }
 
     public boolean requiresStoneTool(BlockMapping blockMapping) {
-        return requiresStoneTool.contains(blockMapping.getJavaBlockId());
+        return tags.requiresStoneTool.get(blockMapping.getJavaBlockId());
     }
 
     public boolean requiresIronTool(BlockMapping blockMapping) {
-        return requiresIronTool.contains(blockMapping.getJavaBlockId());
+        return tags.requiresIronTool.get(blockMapping.getJavaBlockId());
     }
 
     public boolean requiresDiamondTool(BlockMapping blockMapping) {
-        return requiresDiamondTool.contains(blockMapping.getJavaBlockId());
+        return tags.requiresDiamondTool.get(blockMapping.getJavaBlockId());
+    }
+
+    private static final class Tags {
+        static final Tags EMPTY = new Tags(Map.of(), Map.of());
+
+        /* Blocks */
+        final BitSet leaves;
+        final BitSet wool;
+
+        final BitSet axeEffective;
+        final BitSet hoeEffective;
+        final BitSet pickaxeEffective;
+        final BitSet shovelEffective;
+
+        final BitSet requiresStoneTool;
+        final BitSet requiresIronTool;
+        final BitSet requiresDiamondTool;
+
+        /* Items */
+        final BitSet axolotlTemptItems;
+        final BitSet creeperIgniters;
+        final BitSet fishes;
+        final BitSet flowers;
+        final BitSet foxFood;
+        final BitSet piglinLoved;
+        final BitSet smallFlowers;
+        final BitSet snifferFood;
+
+        Tags(Map<String, int[]> blockTags, Map<String, int[]> itemTags) {
+            this.leaves = load(blockTags.get("minecraft:leaves"));
+            this.wool = load(blockTags.get("minecraft:wool"));
+
+            this.axeEffective = load(blockTags.get("minecraft:mineable/axe"));
+            this.hoeEffective = load(blockTags.get("minecraft:mineable/hoe"));
+            this.pickaxeEffective = load(blockTags.get("minecraft:mineable/pickaxe"));
+            this.shovelEffective = load(blockTags.get("minecraft:mineable/shovel"));
+
+            this.requiresStoneTool = load(blockTags.get("minecraft:needs_stone_tool"));
+            this.requiresIronTool = load(blockTags.get("minecraft:needs_iron_tool"));
+            this.requiresDiamondTool = load(blockTags.get("minecraft:needs_diamond_tool"));
+
+            this.axolotlTemptItems = load(itemTags.get("minecraft:axolotl_tempt_items"));
+            this.creeperIgniters = load(itemTags.get("minecraft:creeper_igniters"));
+            this.fishes = load(itemTags.get("minecraft:fishes"));
+            this.flowers = load(itemTags.get("minecraft:flowers"));
+            this.foxFood = load(itemTags.get("minecraft:fox_food"));
+            this.piglinLoved = load(itemTags.get("minecraft:piglin_loved"));
+            this.smallFlowers = load(itemTags.get("minecraft:small_flowers"));
+            this.snifferFood = load(itemTags.get("minecraft:sniffer_food"));
+        }
+
+        private static BitSet load(int @Nullable[] tags) {
+            BitSet set = new BitSet();
+            if (tags != null) {
+                for (int id : tags) {
+                    set.set(id);
+                }
+            }
+            return set;
+        }
+    }
+
+    /**
+     * The contents of every block and item tag, so sessions whose backend sends the same tags can share them.
+     */
+    private record TagsKey(Map<String, IntList> blockTags, Map<String, IntList> itemTags) {
+        static TagsKey of(Map<String, int[]> blockTags, Map<String, int[]> itemTags) {
+            return new TagsKey(wrap(blockTags), wrap(itemTags));
+        }
+
+        private static Map<String, IntList> wrap(Map<String, int[]> tags) {
+            Map<String, IntList> wrapped = new HashMap<>(tags.size());
+            for (Map.Entry<String, int[]> entry : tags.entrySet()) {
+                wrapped.put(entry.getKey(), IntList.of(entry.getValue()));
+            }
+            return wrapped;
+        }
     }
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.skin;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs the outbound HTTP requests for skins, capes and ears. The size of the pool bounds how many requests can be
+ * in flight at once, and requests to third-party hosts are additionally capped per host so that one slow provider
+ * can't take up every download thread.
+ * <p>
+ * Nothing submitted here may wait on another download; chain futures instead.
+ */
+public final class SkinDownloadScheduler {
+    /**
+     * Upper bounds of the latency histogram buckets, in milliseconds. The last bucket holds everything above.
+     */
+    private static final long[] LATENCY_BUCKETS = {50, 100, 250, 500, 1000, 2500, 5000, 10000};
+    private static final int MAX_REQUESTS_PER_HOST = 4;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, HostQueue> hostQueues = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    /**
+     * Requests waiting for a per-host slot; these are not in the executor's queue yet.
+     */
+    private final AtomicInteger waitingForHost = new AtomicInteger();
+
+    SkinDownloadScheduler(int maxConcurrentRequests) {
+        this.executor = new ThreadPoolExecutor(maxConcurrentRequests, maxConcurrentRequests,
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    }
+
+    /**
+     * Runs a request on the download pool.
+     *
+     * @param provider the name latency is recorded under
+     * @param url the URL to limit by host, or null if the request should only count against the global limit
+     * @param task the request
+     * @return a future completed with the result of the task
+     */
+    public <T> CompletableFuture<T> submit(String provider, @Nullable String url, Supplier<T> task) {
+        Supplier<T> timedTask = () -> measure(provider, task);
+        String host = url == null ? null : URI.create(url).getHost();
+        if (host == null) {
+            return CompletableFuture.supplyAsync(timedTask, executor);
+        }
+
+        HostQueue hostQueue = hostQueues.computeIfAbsent(host, $ -> new HostQueue());
+        CompletableFuture<T> future = new CompletableFuture<>();
+        hostQueue.submit(() -> CompletableFuture.supplyAsync(timedTask, executor).whenComplete((result, throwable) -> {
+            hostQueue.release();
+            if (throwable != null) {
+                future.completeExceptionally(throwable);
+            } else {
+                future.complete(result);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Runs a request on the calling thread, recording its latency.
+     */
+    public <T> T measure(String provider, Supplier<T> task) {
+        long startTime = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            histograms.computeIfAbsent(provider, $ -> new LatencyHistogram()).record(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * @return how many requests are waiting to start, either for a thread or for a per-host slot
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size() + waitingForHost.get();
+    }
+
+    /**
+     * @return how many requests are running right now
+     */
+    public int getActiveRequests() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return the latency bucket counts per provider. Bucket {@code i} counts requests that took at most
+     * {@link #getLatencyBuckets()}{@code [i]} milliseconds; the last bucket counts the rest.
+     */
+    public Map<String, long[]> getLatencyHistograms() {
+        Map<String, long[]> snapshot = new LinkedHashMap<>();
+        histograms.forEach((provider, histogram) -> snapshot.put(provider, histogram.snapshot()));
+        return snapshot;
+    }
+
+    public static long[] getLatencyBuckets() {
+        return LATENCY_BUCKETS.clone();
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private final class HostQueue {
+        private final Queue<Runnable> pending = new ArrayDeque<>();
+        private int active;
+
+        void submit(Runnable start) {
+            synchronized (this) {
+                if (active >= MAX_REQUESTS_PER_HOST) {
+                    pending.add(start);
+                    waitingForHost.incrementAndGet();
+                    return;
+                }
+                active++;
+            }
+            start.run();
+        }
+
+        void release() {
+            Runnable next;
+            synchronized (this) {
+                next = pending.poll();
+                if (next == null) {
+                    active--;
+                    return;
+                }
+                waitingForHost.decrementAndGet();
+            }
+            // Hand our slot straight to the next request
+            next.run();
+        }
+    }
+
+    private static final class LatencyHistogram {
+        private final LongAdder[] buckets = new LongAdder[LATENCY_BUCKETS.length + 1];
+
+        LatencyHistogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = 0;
+            while (bucket < LATENCY_BUCKETS.length && millis > LATENCY_BUCKETS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+        }
+
+        long[] snapshot() {
+            long[] counts = new long[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                counts[i] = buckets[i].sum();
+            }
+            return counts;
+        }
+    }
+}
@@ -59,6 +59,7 @@ import java.util.function.Predicate;
 public class SkinProvider {
     private static final boolean ALLOW_THIRD_PARTY_CAPES = GeyserImpl.getInstance().getConfig().isAllowThirdPartyCapes();
     private static ExecutorService EXECUTOR_SERVICE;
+    private static SkinDownloadScheduler DOWNLOAD_SCHEDULER;
 
     static final Skin EMPTY_SKIN;
     static final Cape EMPTY_CAPE = new Cape("", "no-cape", ByteArrays.EMPTY_ARRAY, -1, true);
@@ -140,11 +141,22 @@ public class SkinProvider {
         return EXECUTOR_SERVICE;
     }
 
+    public static SkinDownloadScheduler getDownloadScheduler() {
+        if (DOWNLOAD_SCHEDULER == null) {
+            DOWNLOAD_SCHEDULER = new SkinDownloadScheduler(ALLOW_THIRD_PARTY_CAPES ? 21 : 14);
+        }
+        return DOWNLOAD_SCHEDULER;
+    }
+
     public static void shutdown() {
         if (EXECUTOR_SERVICE != null) {
             EXECUTOR_SERVICE.shutdown();
             EXECUTOR_SERVICE = null;
         }
+        if (DOWNLOAD_SCHEDULER != null) {
+            DOWNLOAD_SCHEDULER.shutdown();
+            DOWNLOAD_SCHEDULER = null;
+        }
     }
 
     public static void registerCacheImageTask(GeyserImpl geyser) {
@@ -246,77 +258,74 @@ public class SkinProvider {
         }
 
         return requestSkinAndCape(entity.getUuid(), data.skinUrl(), data.capeUrl())
-                .thenApplyAsync(skinAndCape -> {
-                    try {
-                        Skin skin = skinAndCape.skin();
-                        Cape cape = skinAndCape.cape();
-                        SkinGeometry geometry = data.isAlex() ? SkinGeometry.SLIM : SkinGeometry.WIDE;
-
-                        // Whether we should see if this player has a Bedrock skin we should check for on failure of
-                        // any skin property
-                        boolean checkForBedrock = entity.getUuid().version() != 4;
-
-                        if (cape.failed() && checkForBedrock) {
-                            cape = getCachedBedrockCape(entity.getUuid());
-                        }
+                .thenCompose(skinAndCape -> {
+                    Skin skin = skinAndCape.skin();
+                    Cape cape = skinAndCape.cape();
+                    SkinGeometry geometry = data.isAlex() ? SkinGeometry.SLIM : SkinGeometry.WIDE;
 
-                        if (cape.failed() && ALLOW_THIRD_PARTY_CAPES) {
-                            cape = getOrDefault(requestUnofficialCape(
-                                    cape, entity.getUuid(),
-                                    entity.getUsername(), false
-                            ), EMPTY_CAPE, CapeProvider.VALUES.length * 3);
-                        }
+                    // Whether we should see if this player has a Bedrock skin we should check for on failure of
+                    // any skin property
+                    boolean checkForBedrock = entity.getUuid().version() != 4;
 
-                        boolean isDeadmau5 = "deadmau5".equals(entity.getUsername());
-                        // Not a bedrock player check for ears
-                        if (geometry.failed() && (ALLOW_THIRD_PARTY_EARS || isDeadmau5)) {
-                            boolean isEars;
+                    if (cape.failed() && checkForBedrock) {
+                        cape = getCachedBedrockCape(entity.getUuid());
+                    }
 
-                            // Its deadmau5, gotta support his skin :)
-                            if (isDeadmau5) {
-                                isEars = true;
-                            } else {
-                                // Get the ears texture for the player
-                                skin = getOrDefault(requestUnofficialEars(
-                                        skin, entity.getUuid(), entity.getUsername(), false
-                                ), skin, 3);
-
-                                isEars = skin.isEars();
-                            }
+                    CompletableFuture<Cape> capeFuture;
+                    if (cape.failed() && ALLOW_THIRD_PARTY_CAPES) {
+                        capeFuture = orTimeout(requestUnofficialCape(
+                                cape, entity.getUuid(),
+                                entity.getUsername(), 0
+                        ), EMPTY_CAPE, CapeProvider.VALUES.length * 3);
+                    } else {
+                        capeFuture = CompletableFuture.completedFuture(cape);
+                    }
 
-                            // Does the skin have an ears texture
-                            if (isEars) {
+                    boolean isDeadmau5 = "deadmau5".equals(entity.getUsername());
+                    // Not a bedrock player check for ears
+                    boolean checkForEars = geometry.failed() && (ALLOW_THIRD_PARTY_EARS || isDeadmau5);
+                    CompletableFuture<Skin> skinFuture;
+                    if (checkForEars && !isDeadmau5) {
+                        // Get the ears texture for the player
+                        skinFuture = orTimeout(requestUnofficialEars(
+                                skin, entity.getUuid(), entity.getUsername(), 0
+                        ), skin, 3);
+                    } else {
+                        skinFuture = CompletableFuture.completedFuture(skin);
+                    }
+
+                    return capeFuture.thenCombine(skinFuture, (finalCape, finalSkin) -> {
+                        try {
+                            SkinGeometry finalGeometry = geometry;
+                            // Its deadmau5, gotta support his skin :)
+                            if (checkForEars && (isDeadmau5 || finalSkin.isEars())) {
                                 // Get the new geometry
-                                geometry = SkinGeometry.getEars(data.isAlex());
+                                finalGeometry = SkinGeometry.getEars(data.isAlex());
 
                                 // Store the skin and geometry for the ears
-                                storeEarSkin(skin);
+                                storeEarSkin(finalSkin);
                                 storeEarGeometry(entity.getUuid(), data.isAlex());
                             }
-                        }
 
-                        return new SkinData(skin, cape, geometry);
-                    } catch (Exception e) {
-                        GeyserImpl.getInstance().getLogger().error(GeyserLocale.getLocaleStringLog("geyser.skin.fail", entity.getUuid()), e);
-                    }
+                            return new SkinData(finalSkin, finalCape, finalGeometry);
+                        } catch (Exception e) {
+                            GeyserImpl.getInstance().getLogger().error(GeyserLocale.getLocaleStringLog("geyser.skin.fail", entity.getUuid()), e);
+                        }
 
-                    return new SkinData(skinAndCape.skin(), skinAndCape.cape(), null);
+                        return new SkinData(skinAndCape.skin(), skinAndCape.cape(), null);
+                    });
                 });
     }
 
     private static CompletableFuture<SkinAndCape> requestSkinAndCape(UUID playerId, String skinUrl, String capeUrl) {
-        return CompletableFuture.supplyAsync(() -> {
-            long time = System.currentTimeMillis();
+        long time = System.currentTimeMillis();
 
-            CapeProvider provider = capeUrl != null ? CapeProvider.MINECRAFT : null;
-            SkinAndCape skinAndCape = new SkinAndCape(
-                    getOrDefault(requestSkin(playerId, skinUrl, false), EMPTY_SKIN, 5),
-                    getOrDefault(requestCape(capeUrl, provider, false), EMPTY_CAPE, 5)
-            );
-
-            GeyserImpl.getInstance().getLogger().debug("Took " + (System.currentTimeMillis() - time) + "ms for " + playerId);
-            return skinAndCape;
-        }, getExecutorService());
+        CapeProvider provider = capeUrl != null ? CapeProvider.MINECRAFT : null;
+        return orTimeout(requestSkin(playerId, skinUrl, true), EMPTY_SKIN, 5)
+                .thenCombine(orTimeout(requestCape(capeUrl, provider), EMPTY_CAPE, 5), (skin, cape) -> {
+                    GeyserImpl.getInstance().getLogger().debug("Took " + (System.currentTimeMillis() - time) + "ms for " + playerId);
+                    return new SkinAndCape(skin, cape);
+                });
     }
 
     static CompletableFuture<Skin> requestSkin(UUID playerId, String textureUrl, boolean newThread) {
@@ -334,7 +343,7 @@ public class SkinProvider {
 
         CompletableFuture<Skin> future;
         if (newThread) {
-            future = CompletableFuture.supplyAsync(() -> supplySkin(playerId, textureUrl), getExecutorService())
+            future = getDownloadScheduler().submit("minecraft", null, () -> supplySkin(playerId, textureUrl))
                     .whenCompleteAsync((skin, throwable) -> {
                         skin.updated = true;
                         CACHED_JAVA_SKINS.put(textureUrl, skin);
@@ -342,14 +351,14 @@ public class SkinProvider {
                     });
             requestedSkins.put(textureUrl, future);
         } else {
-            Skin skin = supplySkin(playerId, textureUrl);
+            Skin skin = getDownloadScheduler().measure("minecraft", () -> supplySkin(playerId, textureUrl));
             future = CompletableFuture.completedFuture(skin);
             CACHED_JAVA_SKINS.put(textureUrl, skin);
         }
         return future;
     }
 
-    private static CompletableFuture<Cape> requestCape(String capeUrl, CapeProvider provider, boolean newThread) {
+    private static CompletableFuture<Cape> requestCape(String capeUrl, CapeProvider provider) {
         if (capeUrl == null || capeUrl.isEmpty()) return CompletableFuture.completedFuture(EMPTY_CAPE);
         CompletableFuture<Cape> requestedCape = requestedCapes.get(capeUrl);
         if (requestedCape != null) {
@@ -361,54 +370,42 @@ public class SkinProvider {
             return CompletableFuture.completedFuture(cachedCape);
         }
 
-        CompletableFuture<Cape> future;
-        if (newThread) {
-            future = CompletableFuture.supplyAsync(() -> supplyCape(capeUrl, provider), getExecutorService())
-                    .whenCompleteAsync((cape, throwable) -> {
-                        CACHED_JAVA_CAPES.put(capeUrl, cape);
-                        requestedCapes.remove(capeUrl);
-                    });
-            requestedCapes.put(capeUrl, future);
-        } else {
-            Cape cape = supplyCape(capeUrl, provider); // blocking
-            future = CompletableFuture.completedFuture(cape);
-            CACHED_JAVA_CAPES.put(capeUrl, cape);
-        }
+        CompletableFuture<Cape> future = getDownloadScheduler().submit(providerName(provider), thirdPartyUrl(capeUrl, provider), () -> supplyCape(capeUrl, provider))
+                .whenCompleteAsync((cape, throwable) -> {
+                    CACHED_JAVA_CAPES.put(capeUrl, cape);
+                    requestedCapes.remove(capeUrl);
+                });
+        requestedCapes.put(capeUrl, future);
         return future;
     }
 
+    /**
+     * Try each third-party cape provider in order, starting at the given one, until one has a cape
+     */
     private static CompletableFuture<Cape> requestUnofficialCape(Cape officialCape, UUID playerId,
-                                                                String username, boolean newThread) {
-        if (officialCape.failed() && ALLOW_THIRD_PARTY_CAPES) {
-            for (CapeProvider provider : CapeProvider.VALUES) {
-                if (provider.type != CapeUrlType.USERNAME && IS_NPC.test(playerId)) {
-                    continue;
-                }
+                                                                String username, int providerIndex) {
+        if (!officialCape.failed() || !ALLOW_THIRD_PARTY_CAPES) {
+            return CompletableFuture.completedFuture(officialCape);
+        }
 
-                Cape cape1 = getOrDefault(
-                        requestCape(provider.getUrlFor(playerId, username), provider, newThread),
-                        EMPTY_CAPE, 4
-                );
-                if (!cape1.failed()) {
-                    return CompletableFuture.completedFuture(cape1);
-                }
+        for (int i = providerIndex; i < CapeProvider.VALUES.length; i++) {
+            CapeProvider provider = CapeProvider.VALUES[i];
+            if (provider.type != CapeUrlType.USERNAME && IS_NPC.test(playerId)) {
+                continue;
             }
+
+            int nextProvider = i + 1;
+            return orTimeout(requestCape(provider.getUrlFor(playerId, username), provider), EMPTY_CAPE, 4)
+                    .thenCompose(cape -> cape.failed() ? requestUnofficialCape(officialCape, playerId, username, nextProvider)
+                            : CompletableFuture.completedFuture(cape));
         }
         return CompletableFuture.completedFuture(officialCape);
     }
 
-    private static CompletableFuture<Skin> requestEars(String earsUrl, boolean newThread, Skin skin) {
+    private static CompletableFuture<Skin> requestEars(EarsProvider provider, String earsUrl, Skin skin) {
         if (earsUrl == null || earsUrl.isEmpty()) return CompletableFuture.completedFuture(skin);
 
-        CompletableFuture<Skin> future;
-        if (newThread) {
-            future = CompletableFuture.supplyAsync(() -> supplyEars(skin, earsUrl), getExecutorService())
-                    .whenCompleteAsync((outSkin, throwable) -> { });
-        } else {
-            Skin ears = supplyEars(skin, earsUrl); // blocking
-            future = CompletableFuture.completedFuture(ears);
-        }
-        return future;
+        return getDownloadScheduler().submit(provider.name().toLowerCase(Locale.ROOT) + "-ears", earsUrl, () -> supplyEars(skin, earsUrl));
     }
 
     /**
@@ -417,22 +414,20 @@ public class SkinProvider {
      * @param officialSkin The current players skin
      * @param playerId The players UUID
      * @param username The players username
-     * @param newThread Should we start in a new thread
+     * @param providerIndex The first provider to try
      * @return The updated skin with ears
      */
-    private static CompletableFuture<Skin> requestUnofficialEars(Skin officialSkin, UUID playerId, String username, boolean newThread) {
-        for (EarsProvider provider : EarsProvider.VALUES) {
+    private static CompletableFuture<Skin> requestUnofficialEars(Skin officialSkin, UUID playerId, String username, int providerIndex) {
+        for (int i = providerIndex; i < EarsProvider.VALUES.length; i++) {
+            EarsProvider provider = EarsProvider.VALUES[i];
             if (provider.type != CapeUrlType.USERNAME && IS_NPC.test(playerId)) {
                 continue;
             }
 
-            Skin skin1 = getOrDefault(
-                    requestEars(provider.getUrlFor(playerId, username), newThread, officialSkin),
-                    officialSkin, 4
-            );
-            if (skin1.isEars()) {
-                return CompletableFuture.completedFuture(skin1);
-            }
+            int nextProvider = i + 1;
+            return orTimeout(requestEars(provider, provider.getUrlFor(playerId, username), officialSkin), officialSkin, 4)
+                    .thenCompose(skin -> skin.isEars() ? CompletableFuture.completedFuture(skin)
+                            : requestUnofficialEars(officialSkin, playerId, username, nextProvider));
         }
 
         return CompletableFuture.completedFuture(officialSkin);
@@ -618,7 +613,7 @@ public class SkinProvider {
      * @return a completable GameProfile with textures included
      */
     public static CompletableFuture<@Nullable String> requestTexturesFromUUID(String uuid) {
-        return CompletableFuture.supplyAsync(() -> {
+        return getDownloadScheduler().submit("mojang-api", null, () -> {
             try {
                 JsonNode node = WebUtils.getJson("https://sessionserver.mojang.com/session/minecraft/profile/" + uuid);
                 JsonNode properties = node.get("properties");
@@ -634,7 +629,7 @@ public class SkinProvider {
                 }
                 return null;
             }
-        }, getExecutorService());
+        });
     }
 
     /**
@@ -644,7 +639,7 @@ public class SkinProvider {
      * @return a completable GameProfile with textures included
      */
     public static CompletableFuture<@Nullable String> requestTexturesFromUsername(String username) {
-        return CompletableFuture.supplyAsync(() -> {
+        return getDownloadScheduler().submit("mojang-api", null, () -> {
             try {
                 // Offline skin, or no present UUID
                 JsonNode node = WebUtils.getJson("https://api.mojang.com/users/profiles/minecraft/" + username);
@@ -660,7 +655,7 @@ public class SkinProvider {
                 }
                 return null;
             }
-        }, getExecutorService()).thenCompose(uuid -> {
+        }).thenCompose(uuid -> {
             if (uuid == null) {
                 return CompletableFuture.completedFuture(null);
             }
@@ -760,6 +755,27 @@ public class SkinProvider {
         return outputStream.toByteArray();
     }
 
+    /**
+     * The non-blocking counterpart to {@link #getOrDefault(CompletableFuture, Object, int)}. The given future is left
+     * untouched, as it may be shared with other requests.
+     */
+    private static <T> CompletableFuture<T> orTimeout(CompletableFuture<T> future, T defaultValue, int timeoutInSeconds) {
+        return future.copy()
+                .completeOnTimeout(defaultValue, timeoutInSeconds, TimeUnit.SECONDS)
+                .exceptionally(throwable -> defaultValue);
+    }
+
+    private static String providerName(@Nullable CapeProvider provider) {
+        return provider == null ? "minecraft" : provider.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the URL if it belongs to a third-party provider and should be limited per host
+     */
+    private static @Nullable String thirdPartyUrl(String url, @Nullable CapeProvider provider) {
+        return provider == null || provider == CapeProvider.MINECRAFT ? null : url;
+    }
+
     public static <T> T getOrDefault(CompletableFuture<T> future, T defaultValue, int timeoutInSeconds) {
         try {
             return future.get(timeoutInSeconds, TimeUnit.SECONDS);
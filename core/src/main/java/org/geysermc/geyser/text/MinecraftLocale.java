@@ -170,6 +170,7 @@ public class MinecraftLocale {
 
         if (!langMap.isEmpty()) {
             LOCALE_MAPPINGS.put(lowercaseLocale, langMap);
+            MinecraftTranslationRegistry.clearFormats(lowercaseLocale);
             return true;
         } else {
             return false;
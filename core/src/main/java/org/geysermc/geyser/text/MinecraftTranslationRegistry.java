@@ -25,20 +25,31 @@
 
 package org.geysermc.geyser.text;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import net.kyori.adventure.text.renderer.TranslatableComponentRenderer;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.text.MessageFormat;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * This class is used for mapping a translation key with the already loaded Java locale data
  * Used in MessageTranslator.java as part of the KyoriPowered/Adventure library
+ * <p>
+ * Formats built from locale strings are cached per locale. They only contain plain {@code {x}} inserts, so formatting
+ * with them does not modify them and they can be shared between threads.
  */
 public class MinecraftTranslationRegistry extends TranslatableComponentRenderer<String> {
+    private static final int MAX_FORMATS_PER_LOCALE = 2048;
+    private static final Map<String, Cache<String, MessageFormat>> FORMATS = new ConcurrentHashMap<>();
+
     private final Pattern stringReplacement = Pattern.compile("%s");
     private final Pattern positionalStringReplacement = Pattern.compile("%([0-9]+)\\$s");
 
@@ -61,8 +72,22 @@ public class MinecraftTranslationRegistry extends TranslatableComponentRenderer<
                 // Can be tested with 1.19.4: {"translate":"%s","with":[{"text":"weeeeeee"}]}
                 localeString = key;
             }
+            return createFormat(localeString);
         }
 
+        Cache<String, MessageFormat> formats = FORMATS.computeIfAbsent(locale.toLowerCase(Locale.ROOT), $ -> CacheBuilder.newBuilder()
+                .maximumSize(MAX_FORMATS_PER_LOCALE)
+                .recordStats()
+                .build());
+        MessageFormat format = formats.getIfPresent(key);
+        if (format == null) {
+            format = createFormat(localeString);
+            formats.put(key, format);
+        }
+        return format;
+    }
+
+    private MessageFormat createFormat(String localeString) {
         // Replace the `%s` with numbered inserts `{0}`
         Pattern p = stringReplacement;
         Matcher m = p.matcher(localeString);
@@ -87,4 +112,28 @@ public class MinecraftTranslationRegistry extends TranslatableComponentRenderer<
         // Locale shouldn't need to be specific - dates for example will not be handled
         return new MessageFormat(sb.toString().replace("'", "''"), Locale.ROOT);
     }
+
+    /**
+     * Drops the cached formats of a locale when it is (re)loaded. Only strings found in a loaded locale are cached;
+     * fallback strings and untranslated keys are formatted again on every call, so no other locale is affected.
+     *
+     * @param locale the lowercase locale that was loaded
+     */
+    public static void clearFormats(String locale) {
+        Cache<String, MessageFormat> formats = FORMATS.get(locale);
+        if (formats != null) {
+            formats.invalidateAll();
+        }
+    }
+
+    /**
+     * @return the combined hit and miss counts of the format caches of all locales
+     */
+    public static CacheStats formatStats() {
+        CacheStats stats = new CacheStats(0, 0, 0, 0, 0, 0);
+        for (Cache<String, MessageFormat> formats : FORMATS.values()) {
+            stats = stats.plus(formats.stats());
+        }
+        return stats;
+    }
 }
@@ -95,8 +95,7 @@ public class BiomeTranslator {
         session.setBiomeTranslations(biomes);
     }
 
-    public static BlockStorage toNewBedrockBiome(GeyserSession session, DataPalette biomeData) {
-        int[] biomeTranslations = session.getBiomeTranslations();
+    public static BlockStorage toNewBedrockBiome(int[] biomeTranslations, DataPalette biomeData) {
         // As of 1.17.10: the client expects the same format as a chunk but filled with biomes
         // As of 1.18 this is the same as Java Edition
 
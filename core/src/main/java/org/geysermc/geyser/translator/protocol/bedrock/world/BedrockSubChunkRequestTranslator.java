@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.translator.protocol.bedrock.world;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.cloudburstmc.math.vector.Vector3i;
+import org.cloudburstmc.protocol.bedrock.data.HeightMapDataType;
+import org.cloudburstmc.protocol.bedrock.data.SubChunkData;
+import org.cloudburstmc.protocol.bedrock.data.SubChunkRequestResult;
+import org.cloudburstmc.protocol.bedrock.packet.SubChunkPacket;
+import org.cloudburstmc.protocol.bedrock.packet.SubChunkRequestPacket;
+import org.geysermc.geyser.level.chunk.BedrockChunk;
+import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.translator.protocol.PacketTranslator;
+import org.geysermc.geyser.translator.protocol.Translator;
+import org.geysermc.geyser.util.DimensionUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends the sections of a chunk that the client asks for, if sub-chunk requests are enabled.
+ */
+@Translator(packet = SubChunkRequestPacket.class)
+public class BedrockSubChunkRequestTranslator extends PacketTranslator<SubChunkRequestPacket> {
+
+    @Override
+    public void translate(GeyserSession session, SubChunkRequestPacket packet) {
+        int dimension = DimensionUtils.javaToBedrock(session.getChunkCache().getBedrockDimension());
+        Vector3i center = packet.getSubChunkPosition();
+
+        List<SubChunkData> subChunks = new ArrayList<>(packet.getPositionOffsets().size());
+        for (Vector3i offset : packet.getPositionOffsets()) {
+            SubChunkData subChunk = new SubChunkData();
+            subChunk.setPosition(offset);
+            subChunk.setHeightMapType(HeightMapDataType.NO_DATA);
+            subChunk.setData(Unpooled.EMPTY_BUFFER);
+            subChunk.setResult(getSubChunk(session, packet.getDimension() == dimension, center.add(offset), subChunk));
+            subChunks.add(subChunk);
+        }
+
+        SubChunkPacket subChunkPacket = new SubChunkPacket();
+        subChunkPacket.setDimension(dimension);
+        subChunkPacket.setCenterPosition(center);
+        subChunkPacket.setSubChunks(subChunks);
+        subChunkPacket.setCacheEnabled(false);
+        session.sendUpstreamPacket(subChunkPacket);
+    }
+
+    private static SubChunkRequestResult getSubChunk(GeyserSession session, boolean correctDimension, Vector3i position, SubChunkData subChunk) {
+        if (!correctDimension) {
+            return SubChunkRequestResult.INVALID_DIMENSION;
+        }
+
+        BedrockChunk chunk = session.getChunkCache().getBedrockChunk(position.getX(), position.getZ());
+        if (chunk == null) {
+            return SubChunkRequestResult.CHUNK_NOT_FOUND;
+        }
+        if (!chunk.isInBounds(position.getY())) {
+            return SubChunkRequestResult.Y_INDEX_OUT_OF_BOUNDS;
+        }
+        if (chunk.isEmpty(position.getY())) {
+            return SubChunkRequestResult.SUCCESS_ALL_AIR;
+        }
+
+        ByteBuf byteBuf = Unpooled.buffer();
+        try {
+            chunk.writeSubChunk(position.getY(), byteBuf);
+        } catch (IOException e) {
+            session.getGeyser().getLogger().error("IO error while encoding sub-chunk", e);
+            return SubChunkRequestResult.CHUNK_NOT_FOUND;
+        }
+        subChunk.setData(byteBuf);
+        return SubChunkRequestResult.SUCCESS;
+    }
+}
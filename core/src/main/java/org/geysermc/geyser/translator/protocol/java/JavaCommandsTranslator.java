@@ -30,6 +30,8 @@ import com.github.steveice10.mc.protocol.data.game.command.CommandParser;
 import com.github.steveice10.mc.protocol.data.game.command.properties.ResourceProperties;
 import com.github.steveice10.mc.protocol.data.game.entity.attribute.AttributeType;
 import com.github.steveice10.mc.protocol.packet.ingame.clientbound.ClientboundCommandsPacket;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import it.unimi.dsi.fastutil.Hash;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
@@ -91,6 +93,14 @@ public class JavaCommandsTranslator extends PacketTranslator<ClientboundCommands
         }
     };
 
+    /**
+     * Players with the same permissions receive the same command tree, so the translated commands are shared between
+     * every session that receives the same tree.
+     */
+    private static final Cache<CommandTreeKey, TranslatedCommands> TRANSLATED_COMMANDS = CacheBuilder.newBuilder()
+            .maximumSize(32)
+            .build();
+
     static {
         List<String> validColors = new ArrayList<>(NamedTextColor.NAMES.keys());
         validColors.add("reset");
@@ -115,9 +125,47 @@ public class JavaCommandsTranslator extends PacketTranslator<ClientboundCommands
             return;
         }
 
+        CommandTreeKey key = CommandTreeKey.of(session, packet);
+        TranslatedCommands translated = TRANSLATED_COMMANDS.getIfPresent(key);
+        if (translated == null) {
+            translated = new TranslatedCommands(translateCommands(session, packet));
+            TRANSLATED_COMMANDS.put(key, translated);
+        }
+
+        // Listeners may remove commands, so each session needs its own copy
+        Map<BedrockCommandInfo, Set<String>> commands = new Object2ObjectOpenCustomHashMap<>(translated.commands, PARAM_STRATEGY);
+
+        var eventBus = session.getGeyser().eventBus();
+
+        var event = new ServerDefineCommandsEvent(session, commands.keySet());
+        eventBus.fire(event);
+        if (event.isCancelled()) {
+            return;
+        }
+
+        var oldEvent = new org.geysermc.geyser.api.event.downstream.ServerDefineCommandsEvent(session, commands.keySet());
+        eventBus.fire(oldEvent);
+        if (oldEvent.isCancelled()) {
+            return;
+        }
+
+        // Commands can only be removed, so if none were the shared packet can be sent
+        AvailableCommandsPacket availableCommandsPacket = commands.size() == translated.commands.size() ?
+                translated.packet() : createPacket(commands);
+
+        session.getGeyser().getLogger().debug("Sending command packet of " + availableCommandsPacket.getCommands().size() + " commands");
+
+        // Finally, send the commands to the client
+        session.sendUpstreamPacket(availableCommandsPacket);
+    }
+
+    /**
+     * Finds every command in the tree and translates its parameters. The result is shared with every other session
+     * that receives the same tree.
+     */
+    private static Map<BedrockCommandInfo, Set<String>> translateCommands(GeyserSession session, ClientboundCommandsPacket packet) {
         GeyserCommandManager manager = session.getGeyser().commandManager();
         CommandNode[] nodes = packet.getNodes();
-        List<CommandData> commandData = new ArrayList<>();
         IntSet commandNodes = new IntOpenHashSet();
         Set<String> knownAliases = new HashSet<>();
         Map<BedrockCommandInfo, Set<String>> commands = new Object2ObjectOpenCustomHashMap<>(PARAM_STRATEGY);
@@ -147,20 +195,11 @@ public class JavaCommandsTranslator extends PacketTranslator<ClientboundCommands
             commands.computeIfAbsent(new BedrockCommandInfo(node.getName().toLowerCase(Locale.ROOT), manager.description(node.getName().toLowerCase(Locale.ROOT)), params),
                     index -> new HashSet<>()).add(node.getName().toLowerCase());
         }
+        return commands;
+    }
 
-        var eventBus = session.getGeyser().eventBus();
-
-        var event = new ServerDefineCommandsEvent(session, commands.keySet());
-        eventBus.fire(event);
-        if (event.isCancelled()) {
-            return;
-        }
-
-        var oldEvent = new org.geysermc.geyser.api.event.downstream.ServerDefineCommandsEvent(session, commands.keySet());
-        eventBus.fire(oldEvent);
-        if (oldEvent.isCancelled()) {
-            return;
-        }
+    private static AvailableCommandsPacket createPacket(Map<BedrockCommandInfo, Set<String>> commands) {
+        List<CommandData> commandData = new ArrayList<>();
 
         // The command flags, not sure what these do apart from break things
         Set<CommandData.Flag> flags = Set.of();
@@ -186,11 +225,7 @@ public class JavaCommandsTranslator extends PacketTranslator<ClientboundCommands
         // Add our commands to the AvailableCommandsPacket for the bedrock client
         AvailableCommandsPacket availableCommandsPacket = new AvailableCommandsPacket();
         availableCommandsPacket.getCommands().addAll(commandData);
-
-        session.getGeyser().getLogger().debug("Sending command packet of " + commandData.size() + " commands");
-
-        // Finally, send the commands to the client
-        session.sendUpstreamPacket(availableCommandsPacket);
+        return availableCommandsPacket;
     }
 
     /**
@@ -278,6 +313,83 @@ public class JavaCommandsTranslator extends PacketTranslator<ClientboundCommands
     {
     }
 
+    /**
+     * The commands of a command tree, and the packet sending all of them. Shared between sessions, so nothing in here
+     * may be modified.
+     */
+    private static final class TranslatedCommands {
+        private final Map<BedrockCommandInfo, Set<String>> commands;
+        private volatile AvailableCommandsPacket packet;
+
+        TranslatedCommands(Map<BedrockCommandInfo, Set<String>> commands) {
+            this.commands = commands;
+        }
+
+        AvailableCommandsPacket packet() {
+            AvailableCommandsPacket packet = this.packet;
+            if (packet == null) {
+                // Building this twice at once is harmless
+                this.packet = packet = createPacket(commands);
+            }
+            return packet;
+        }
+    }
+
+    /**
+     * Identifies a command tree by its structure. Trees using arguments whose suggestions come from the session, such
+     * as dimensions or teams, also include those suggestions.
+     */
+    private static final class CommandTreeKey {
+        private final CommandNode[] nodes;
+        private final int firstNodeIndex;
+        private final int protocolVersion;
+        private final List<Object> sessionValues;
+        private final int hashCode;
+
+        private CommandTreeKey(CommandNode[] nodes, int firstNodeIndex, int protocolVersion, List<Object> sessionValues) {
+            this.nodes = nodes;
+            this.firstNodeIndex = firstNodeIndex;
+            this.protocolVersion = protocolVersion;
+            this.sessionValues = sessionValues;
+            this.hashCode = Objects.hash(Arrays.hashCode(nodes), firstNodeIndex, protocolVersion, sessionValues);
+        }
+
+        static CommandTreeKey of(GeyserSession session, ClientboundCommandsPacket packet) {
+            boolean dimensions = false;
+            boolean teams = false;
+            for (CommandNode node : packet.getNodes()) {
+                if (node.getParser() == CommandParser.DIMENSION) {
+                    dimensions = true;
+                } else if (node.getParser() == CommandParser.TEAM) {
+                    teams = true;
+                }
+            }
+
+            List<Object> sessionValues = new ArrayList<>(2);
+            if (dimensions) {
+                String[] levels = session.getLevels();
+                sessionValues.add(levels == null ? List.of() : Arrays.asList(levels));
+            }
+            if (teams) {
+                sessionValues.add(List.copyOf(session.getWorldCache().getScoreboard().getTeamNames().keySet()));
+            }
+            return new CommandTreeKey(packet.getNodes(), packet.getFirstNodeIndex(), session.getUpstream().getProtocolVersion(), sessionValues);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CommandTreeKey other)) return false;
+            return hashCode == other.hashCode && firstNodeIndex == other.firstNodeIndex && protocolVersion == other.protocolVersion
+                    && sessionValues.equals(other.sessionValues) && Arrays.equals(nodes, other.nodes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
     /**
      * Stores command completions so we don't have to rebuild the same values multiple times.
      */
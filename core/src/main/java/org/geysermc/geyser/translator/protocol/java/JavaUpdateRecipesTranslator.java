@@ -34,9 +34,13 @@ import com.github.steveice10.mc.protocol.data.game.recipe.data.ShapelessRecipeDa
 import com.github.steveice10.mc.protocol.data.game.recipe.data.SmithingTransformRecipeData;
 import com.github.steveice10.mc.protocol.data.game.recipe.data.StoneCuttingRecipeData;
 import com.github.steveice10.mc.protocol.packet.ingame.clientbound.ClientboundUpdateRecipesPacket;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import it.unimi.dsi.fastutil.ints.*;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.cloudburstmc.protocol.bedrock.data.definitions.ItemDefinition;
 import org.cloudburstmc.protocol.bedrock.data.inventory.ItemData;
 import org.cloudburstmc.protocol.bedrock.data.inventory.crafting.recipe.MultiRecipeData;
@@ -55,12 +59,14 @@ import org.geysermc.geyser.inventory.recipe.GeyserStonecutterData;
 import org.geysermc.geyser.inventory.recipe.TrimRecipe;
 import org.geysermc.geyser.registry.Registries;
 import org.geysermc.geyser.registry.type.ItemMapping;
+import org.geysermc.geyser.registry.type.ItemMappings;
 import org.geysermc.geyser.session.GeyserSession;
 import org.geysermc.geyser.translator.inventory.item.ItemTranslator;
 import org.geysermc.geyser.translator.protocol.PacketTranslator;
 import org.geysermc.geyser.translator.protocol.Translator;
 import org.geysermc.geyser.util.InventoryUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -104,19 +110,62 @@ public class JavaUpdateRecipesTranslator extends PacketTranslator<ClientboundUpd
         "minecraft:wooden_slab", "minecraft:wooden_slabs",
         "minecraft:planks", "minecraft:planks");
 
+    /**
+     * Every player on the same server receives the same recipes, so the translated recipes are shared between all
+     * sessions that received the same recipes and play on the same Bedrock version.
+     */
+    private static final Cache<RecipeSetKey, TranslatedRecipes> TRANSLATED_RECIPES = CacheBuilder.newBuilder()
+            .maximumSize(16)
+            .build();
+
     @Override
     public void translate(GeyserSession session, ClientboundUpdateRecipesPacket packet) {
+        TranslatedRecipes translated;
+        RecipeSetKey key = RecipeSetKey.of(packet.getRecipes(), session.getUpstream().getProtocolVersion());
+        if (key == null) {
+            translated = translateRecipes(session, packet.getRecipes());
+        } else {
+            translated = TRANSLATED_RECIPES.getIfPresent(key);
+            if (translated == null) {
+                translated = translateRecipes(session, packet.getRecipes());
+                TRANSLATED_RECIPES.put(key, translated);
+            }
+        }
+
+        session.getLastRecipeNetId().set(translated.lastRecipeNetId());
+
+        // Only send smithing trim recipes if Java/ViaVersion sends them.
+        if (translated.sendTrimRecipes()) {
+            // BDS sends armor trim templates and materials before the CraftingDataPacket
+            TrimDataPacket trimDataPacket = new TrimDataPacket();
+            trimDataPacket.getPatterns().addAll(TrimRecipe.PATTERNS);
+            trimDataPacket.getMaterials().addAll(TrimRecipe.MATERIALS);
+            session.sendUpstreamPacket(trimDataPacket);
+        }
+        session.setOldSmithingTable(!translated.sendTrimRecipes());
+        session.sendUpstreamPacket(translated.craftingDataPacket());
+        // Crafting recipes can be added to later on, so each session needs its own copy
+        session.setCraftingRecipes(new Int2ObjectOpenHashMap<>(translated.craftingRecipes()));
+        session.setStonecutterRecipes(translated.stonecutterRecipes());
+        session.setJavaToBedrockRecipeIds(translated.javaToBedrockRecipeIds());
+    }
+
+    /**
+     * Translates a set of Java recipes. The result must not depend on anything about the session other than its
+     * Bedrock version, as it may be shared with other sessions.
+     */
+    private TranslatedRecipes translateRecipes(GeyserSession session, Recipe[] recipes) {
         Map<RecipeType, List<RecipeData>> recipeTypes = Registries.CRAFTING_DATA.forVersion(session.getUpstream().getProtocolVersion());
         // Get the last known network ID (first used for the pregenerated recipes) and increment from there.
         int netId = InventoryUtils.LAST_RECIPE_NET_ID + 1;
         boolean sendTrimRecipes = false;
-        Map<String, List<String>> recipeIDs = session.getJavaToBedrockRecipeIds();
+        Map<String, List<String>> recipeIDs = new Object2ObjectOpenHashMap<>();
         Int2ObjectMap<GeyserRecipe> recipeMap = new Int2ObjectOpenHashMap<>(Registries.RECIPES.forVersion(session.getUpstream().getProtocolVersion()));
         Int2ObjectMap<List<StoneCuttingRecipeData>> unsortedStonecutterData = new Int2ObjectOpenHashMap<>();
         CraftingDataPacket craftingDataPacket = new CraftingDataPacket();
         craftingDataPacket.setCleanRecipes(true);
 
-        for (Recipe recipe : packet.getRecipes()) {
+        for (Recipe recipe : recipes) {
             switch (recipe.getType()) {
                 case CRAFTING_SHAPELESS -> {
                     ShapelessRecipeData shapelessRecipeData = (ShapelessRecipeData) recipe.getData();
@@ -134,13 +183,13 @@ public class JavaUpdateRecipesTranslator extends PacketTranslator<ClientboundUpd
 
                     List<String> bedrockRecipeIDs = new ArrayList<>();
                     for (ItemDescriptorWithCount[] inputs : inputCombinations) {
-                        UUID uuid = UUID.randomUUID();
+                        UUID uuid = recipeUuid(netId);
                         bedrockRecipeIDs.add(uuid.toString());
                         craftingDataPacket.getCraftingData().add(org.cloudburstmc.protocol.bedrock.data.inventory.crafting.recipe.ShapelessRecipeData.shapeless(uuid.toString(),
                                 Arrays.asList(inputs), Collections.singletonList(output), uuid, "crafting_table", 0, netId));
                         recipeMap.put(netId++, new GeyserShapelessRecipe(shapelessRecipeData));
                     }
-                    addRecipeIdentifier(session, recipe.getIdentifier(), bedrockRecipeIDs);
+                    addRecipeIdentifier(recipeIDs, recipe.getIdentifier(), bedrockRecipeIDs);
                 }
                 case CRAFTING_SHAPED -> {
                     ShapedRecipeData shapedRecipeData = (ShapedRecipeData) recipe.getData();
@@ -158,14 +207,14 @@ public class JavaUpdateRecipesTranslator extends PacketTranslator<ClientboundUpd
 
                     List<String> bedrockRecipeIDs = new ArrayList<>();
                     for (ItemDescriptorWithCount[] inputs : inputCombinations) {
-                        UUID uuid = UUID.randomUUID();
+                        UUID uuid = recipeUuid(netId);
                         bedrockRecipeIDs.add(uuid.toString());
                         craftingDataPacket.getCraftingData().add(org.cloudburstmc.protocol.bedrock.data.inventory.crafting.recipe.ShapedRecipeData.shaped(uuid.toString(),
                                 shapedRecipeData.getWidth(), shapedRecipeData.getHeight(), Arrays.asList(inputs),
                                 Collections.singletonList(output), uuid, "crafting_table", 0, netId));
                         recipeMap.put(netId++, new GeyserShapedRecipe(shapedRecipeData));
                     }
-                    addRecipeIdentifier(session, recipe.getIdentifier(), bedrockRecipeIDs);
+                    addRecipeIdentifier(recipeIDs, recipe.getIdentifier(), bedrockRecipeIDs);
                 }
                 case STONECUTTING -> {
                     StoneCuttingRecipeData stoneCuttingData = (StoneCuttingRecipeData) recipe.getData();
@@ -220,7 +269,7 @@ public class JavaUpdateRecipesTranslator extends PacketTranslator<ClientboundUpd
                 default -> {
                     List<RecipeData> craftingData = recipeTypes.get(recipe.getType());
                     if (craftingData != null) {
-                        addSpecialRecipesIdentifiers(session, recipe, craftingData);
+                        addSpecialRecipesIdentifiers(recipeIDs, recipe, craftingData);
                         craftingDataPacket.getCraftingData().addAll(craftingData);
                     }
                 }
@@ -250,7 +299,7 @@ public class JavaUpdateRecipesTranslator extends PacketTranslator<ClientboundUpd
                     // Probably modded items
                     continue;
                 }
-                UUID uuid = UUID.randomUUID();
+                UUID uuid = recipeUuid(netId);
                 // We need to register stonecutting recipes, so they show up on Bedrock
                 craftingDataPacket.getCraftingData().add(org.cloudburstmc.protocol.bedrock.data.inventory.crafting.recipe.ShapelessRecipeData.shapeless(uuid.toString(),
                         Collections.singletonList(descriptor), Collections.singletonList(output), uuid, "stonecutter", 0, netId));
@@ -263,32 +312,28 @@ public class JavaUpdateRecipesTranslator extends PacketTranslator<ClientboundUpd
             }
         }
 
-        session.getLastRecipeNetId().set(netId);
-
-        // Only send smithing trim recipes if Java/ViaVersion sends them.
         if (sendTrimRecipes) {
-            // BDS sends armor trim templates and materials before the CraftingDataPacket
-            TrimDataPacket trimDataPacket = new TrimDataPacket();
-            trimDataPacket.getPatterns().addAll(TrimRecipe.PATTERNS);
-            trimDataPacket.getMaterials().addAll(TrimRecipe.MATERIALS);
-            session.sendUpstreamPacket(trimDataPacket);
-
             // Identical smithing_trim recipe sent by BDS that uses tag-descriptors, as the client seems to ignore the
             // approach of using many default-descriptors (which we do for smithing_transform)
             craftingDataPacket.getCraftingData().add(SmithingTrimRecipeData.of(TrimRecipe.ID,
-                    TrimRecipe.BASE, TrimRecipe.ADDITION, TrimRecipe.TEMPLATE, "smithing_table", session.getLastRecipeNetId().getAndIncrement()));
+                    TrimRecipe.BASE, TrimRecipe.ADDITION, TrimRecipe.TEMPLATE, "smithing_table", netId++));
         } else {
             // manually add recipes for the upgrade template (workaround), since Java pre-1.20 doesn't
-            craftingDataPacket.getCraftingData().addAll(getSmithingTransformRecipes(session));
+            craftingDataPacket.getCraftingData().addAll(getSmithingTransformRecipes(session.getItemMappings(), netId));
+            netId += NETHERITE_UPGRADES.size();
         }
-        session.setOldSmithingTable(!sendTrimRecipes);
-        session.sendUpstreamPacket(craftingDataPacket);
-        session.setCraftingRecipes(recipeMap);
-        session.setStonecutterRecipes(stonecutterRecipeMap);
-        session.setJavaToBedrockRecipeIds(recipeIDs);
+        return new TranslatedRecipes(craftingDataPacket, recipeMap, stonecutterRecipeMap, recipeIDs, netId, sendTrimRecipes);
+    }
+
+    /**
+     * Recipe UUIDs only need to be unique within one packet, so they can be derived from the network ID. This keeps the
+     * translated recipes identical between translations of the same recipes.
+     */
+    private static UUID recipeUuid(int netId) {
+        return UUID.nameUUIDFromBytes(("geyser:recipe/" + netId).getBytes(StandardCharsets.UTF_8));
     }
 
-    private void addSpecialRecipesIdentifiers(GeyserSession session, Recipe recipe, List<RecipeData> craftingData) {
+    private void addSpecialRecipesIdentifiers(Map<String, List<String>> recipeIDs, Recipe recipe, List<RecipeData> craftingData) {
         String javaRecipeID = recipe.getIdentifier();
 
         switch (recipe.getType()) {
@@ -316,7 +361,7 @@ public class JavaUpdateRecipesTranslator extends PacketTranslator<ClientboundUpd
                 bedrockRecipeIDs.add(((org.cloudburstmc.protocol.bedrock.data.inventory.crafting.recipe.ShapelessRecipeData) data).getId());
             }
         }
-        addRecipeIdentifier(session, javaRecipeID, bedrockRecipeIDs);
+        addRecipeIdentifier(recipeIDs, javaRecipeID, bedrockRecipeIDs);
     }
 
     //TODO: rewrite
@@ -410,8 +455,8 @@ public class JavaUpdateRecipesTranslator extends PacketTranslator<ClientboundUpd
         return combinations;
     }
 
-    private void addRecipeIdentifier(GeyserSession session, String javaIdentifier, List<String> bedrockIdentifiers) {
-        session.getJavaToBedrockRecipeIds().computeIfAbsent(javaIdentifier, k -> new ArrayList<>()).addAll(bedrockIdentifiers);
+    private void addRecipeIdentifier(Map<String, List<String>> recipeIDs, String javaIdentifier, List<String> bedrockIdentifiers) {
+        recipeIDs.computeIfAbsent(javaIdentifier, k -> new ArrayList<>()).addAll(bedrockIdentifiers);
     }
 
     @EqualsAndHashCode
@@ -421,28 +466,104 @@ public class JavaUpdateRecipesTranslator extends PacketTranslator<ClientboundUpd
         int count;
     }
 
-    private List<RecipeData> getSmithingTransformRecipes(GeyserSession session) {
+    private List<RecipeData> getSmithingTransformRecipes(ItemMappings mappings, int netId) {
         List<RecipeData> recipes = new ArrayList<>();
-        ItemMapping template = session.getItemMappings().getStoredItems().upgradeTemplate();
+        ItemMapping template = mappings.getStoredItems().upgradeTemplate();
 
         for (String identifier : NETHERITE_UPGRADES) {
             recipes.add(org.cloudburstmc.protocol.bedrock.data.inventory.crafting.recipe.SmithingTransformRecipeData.of(identifier + "_smithing",
-                    getDescriptorFromId(session, template.getBedrockIdentifier()),
-                    getDescriptorFromId(session, identifier.replace("netherite", "diamond")),
-                    getDescriptorFromId(session, "minecraft:netherite_ingot"),
-                    ItemData.builder().definition(Objects.requireNonNull(session.getItemMappings().getDefinition(identifier))).count(1).build(),
+                    getDescriptorFromId(mappings, template.getBedrockIdentifier()),
+                    getDescriptorFromId(mappings, identifier.replace("netherite", "diamond")),
+                    getDescriptorFromId(mappings, "minecraft:netherite_ingot"),
+                    ItemData.builder().definition(Objects.requireNonNull(mappings.getDefinition(identifier))).count(1).build(),
                     "smithing_table",
-                    session.getLastRecipeNetId().getAndIncrement()));
+                    netId++));
         }
         return recipes;
     }
 
-    private ItemDescriptorWithCount getDescriptorFromId(GeyserSession session, String bedrockId) {
-        ItemDefinition bedrockDefinition = session.getItemMappings().getDefinition(bedrockId);
+    private ItemDescriptorWithCount getDescriptorFromId(ItemMappings mappings, String bedrockId) {
+        ItemDefinition bedrockDefinition = mappings.getDefinition(bedrockId);
         if (bedrockDefinition != null) {
             return ItemDescriptorWithCount.fromItem(ItemData.builder().definition(bedrockDefinition).count(1).build());
         }
         GeyserImpl.getInstance().getLogger().debug("Unable to find item with identifier " + bedrockId);
         return ItemDescriptorWithCount.EMPTY;
     }
+
+    /**
+     * The result of translating a set of recipes. Shared between sessions, so nothing in here may be modified.
+     */
+    private record TranslatedRecipes(CraftingDataPacket craftingDataPacket, Int2ObjectMap<GeyserRecipe> craftingRecipes,
+                                     Int2ObjectMap<GeyserStonecutterData> stonecutterRecipes,
+                                     Map<String, List<String>> javaToBedrockRecipeIds, int lastRecipeNetId, boolean sendTrimRecipes) {
+    }
+
+    /**
+     * Identifies a set of Java recipes by their contents and the Bedrock version they are translated for.
+     */
+    private static final class RecipeSetKey {
+        private final Recipe[] recipes;
+        private final int protocolVersion;
+        private final int hashCode;
+
+        private RecipeSetKey(Recipe[] recipes, int protocolVersion) {
+            this.recipes = recipes;
+            this.protocolVersion = protocolVersion;
+            this.hashCode = 31 * Arrays.hashCode(recipes) + protocolVersion;
+        }
+
+        /**
+         * @return the key of these recipes, or null if they can't be shared. Items with NBT may be translated differently
+         * for each session, such as with a different locale.
+         */
+        static @Nullable RecipeSetKey of(Recipe[] recipes, int protocolVersion) {
+            for (Recipe recipe : recipes) {
+                if (hasNbt(recipe)) {
+                    return null;
+                }
+            }
+            return new RecipeSetKey(recipes, protocolVersion);
+        }
+
+        private static boolean hasNbt(Recipe recipe) {
+            if (recipe.getData() instanceof ShapelessRecipeData data) {
+                return hasNbt(data.getResult()) || hasNbt(data.getIngredients());
+            } else if (recipe.getData() instanceof ShapedRecipeData data) {
+                return hasNbt(data.getResult()) || hasNbt(data.getIngredients());
+            } else if (recipe.getData() instanceof StoneCuttingRecipeData data) {
+                return hasNbt(data.getResult()) || hasNbt(data.getIngredient());
+            } else if (recipe.getData() instanceof SmithingTransformRecipeData data) {
+                return hasNbt(data.getResult()) || hasNbt(data.getTemplate(), data.getBase(), data.getAddition());
+            }
+            return false;
+        }
+
+        private static boolean hasNbt(Ingredient... ingredients) {
+            for (Ingredient ingredient : ingredients) {
+                for (ItemStack option : ingredient.getOptions()) {
+                    if (hasNbt(option)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static boolean hasNbt(@Nullable ItemStack item) {
+            return item != null && item.getNbt() != null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RecipeSetKey other)) return false;
+            return hashCode == other.hashCode && protocolVersion == other.protocolVersion && Arrays.equals(recipes, other.recipes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
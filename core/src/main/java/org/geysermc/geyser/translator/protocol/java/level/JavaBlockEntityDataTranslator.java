@@ -51,6 +51,9 @@ public class JavaBlockEntityDataTranslator extends PacketTranslator<ClientboundB
         if (type == null) {
             return;
         }
+        if (session.getChunkCache().deferIfPending(packet.getPosition().getX() >> 4, packet.getPosition().getZ() >> 4, () -> translate(session, packet))) {
+            return;
+        }
         BlockEntityTranslator translator = BlockEntityUtils.getBlockEntityTranslator(type);
         // The Java block state is used in BlockEntityTranslator.translateTag() to make up for some inconsistencies
         // between Java block states and Bedrock block entity data
@@ -48,6 +48,9 @@ public class JavaBlockEventTranslator extends PacketTranslator<ClientboundBlockE
     @Override
     public void translate(GeyserSession session, ClientboundBlockEventPacket packet) {
         Vector3i position = packet.getPosition();
+        if (session.getChunkCache().deferIfPending(position.getX() >> 4, position.getZ() >> 4, () -> translate(session, packet))) {
+            return;
+        }
         BlockValue value = packet.getValue();
 
         BlockEventPacket blockEventPacket = new BlockEventPacket();
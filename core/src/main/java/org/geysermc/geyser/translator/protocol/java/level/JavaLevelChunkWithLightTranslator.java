@@ -23,8 +23,10 @@
  * @link https://github.com/GeyserMC/Geyser
  */
 
+
 package org.geysermc.geyser.translator.protocol.java.level;
 
+import com.github.steveice10.mc.protocol.codec.MinecraftCodecHelper;
 import com.github.steveice10.mc.protocol.data.game.chunk.BitStorage;
 import com.github.steveice10.mc.protocol.data.game.chunk.ChunkSection;
 import com.github.steveice10.mc.protocol.data.game.chunk.DataPalette;
@@ -38,6 +40,7 @@ import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntImmutableList;
@@ -45,6 +48,8 @@ import it.unimi.dsi.fastutil.ints.IntList;
 import it.unimi.dsi.fastutil.ints.IntLists;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import org.cloudburstmc.math.vector.Vector3i;
 import org.cloudburstmc.nbt.NBTOutputStream;
@@ -54,16 +59,19 @@ import org.cloudburstmc.nbt.NbtUtils;
 import org.cloudburstmc.protocol.bedrock.data.definitions.BlockDefinition;
 import org.cloudburstmc.protocol.bedrock.packet.LevelChunkPacket;
 import org.geysermc.erosion.util.LecternUtils;
-import org.geysermc.geyser.entity.type.ItemFrameEntity;
 import org.geysermc.geyser.level.BedrockDimension;
 import org.geysermc.geyser.level.block.BlockStateValues;
+import org.geysermc.geyser.level.chunk.BedrockChunk;
 import org.geysermc.geyser.level.chunk.BlockStorage;
+import org.geysermc.geyser.level.chunk.ChunkSectionCache;
 import org.geysermc.geyser.level.chunk.GeyserChunkSection;
 import org.geysermc.geyser.level.chunk.bitarray.BitArray;
 import org.geysermc.geyser.level.chunk.bitarray.BitArrayVersion;
+import org.geysermc.geyser.level.chunk.bitarray.SectionTransposer;
 import org.geysermc.geyser.level.chunk.bitarray.SingletonBitArray;
 import org.geysermc.geyser.registry.BlockRegistries;
 import org.geysermc.geyser.session.GeyserSession;
+import org.geysermc.geyser.session.cache.ChunkBlobCache;
 import org.geysermc.geyser.translator.level.BiomeTranslator;
 import org.geysermc.geyser.translator.level.block.entity.BedrockOnlyBlockEntity;
 import org.geysermc.geyser.translator.level.block.entity.BlockEntityTranslator;
@@ -74,9 +82,10 @@ import org.geysermc.geyser.util.BlockEntityUtils;
 import org.geysermc.geyser.util.ChunkUtils;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.Executor;
 
 import static org.geysermc.geyser.util.ChunkUtils.EMPTY_BLOCK_STORAGE;
 import static org.geysermc.geyser.util.ChunkUtils.EMPTY_CHUNK_SECTION_SIZE;
@@ -88,40 +97,255 @@ public class JavaLevelChunkWithLightTranslator extends PacketTranslator<Clientbo
 
     @Override
     public void translate(GeyserSession session, ClientboundLevelChunkWithLightPacket packet) {
-        final boolean useExtendedCollisions = !session.getBlockMappings().getExtendedCollisionBoxes().isEmpty();
-
         if (session.isSpawned()) {
             ChunkUtils.updateChunkPosition(session, session.getPlayerEntity().getPosition().toInt());
         }
 
-        // Ensure that, if the player is using lower world heights, the position is not offset
-        int yOffset = session.getChunkCache().getChunkMinY();
-        int chunkSize = session.getChunkCache().getChunkHeightY();
-        int biomeGlobalPalette = session.getBiomeGlobalPalette();
+        TranslatedSections translated = new TranslatedSections(session, packet);
+
+        Executor executor = session.getGeyser().getChunkTranslationExecutor();
+        if (executor == null) {
+            try {
+                translated.translate();
+            } catch (IOException e) {
+                session.getGeyser().getLogger().error("IO error while encoding chunk", e);
+                return;
+            }
+            sendChunk(session, packet, translated);
+            return;
+        }
 
-        DataPalette[] javaChunks = new DataPalette[chunkSize];
-        DataPalette[] javaBiomes = new DataPalette[chunkSize];
+        // Convert and encode the block sections off the event loop. The chunk cache takes care of sending chunks
+        // in the order they were received, and holds back any block updates for this chunk until it has been sent.
+        session.getChunkCache().translateAsync(packet.getX(), packet.getZ(), executor, () -> {
+            try {
+                translated.translate();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return translated;
+        }, result -> sendChunk(session, packet, result), TranslatedSections::release);
+    }
+
+    /**
+     * Translates the block entities of this chunk and sends it to the client. Must be called on the event loop.
+     */
+    private void sendChunk(GeyserSession session, ClientboundLevelChunkWithLightPacket packet, TranslatedSections translated) {
+        final int yOffset = translated.yOffset;
+        final BedrockDimension bedrockDimension = translated.bedrockDimension;
+        final int maxBedrockSectionY = (bedrockDimension.height() >> 4) - 1;
+
+        final DataPalette[] javaChunks = translated.javaChunks;
+        final GeyserChunkSection[] sections = translated.sections;
+        final byte[][] encodedSections = translated.encodedSections;
 
         final BlockEntityInfo[] blockEntities = packet.getBlockEntities();
-        final List<NbtMap> bedrockBlockEntities = new ObjectArrayList<>(blockEntities.length);
+        final List<NbtMap> bedrockBlockEntities = translated.bedrockBlockEntities;
         final List<BlockEntityInfo> lecterns = new ObjectArrayList<>();
 
-        BitSet waterloggedPaletteIds = new BitSet();
-        BitSet bedrockOnlyBlockEntityIds = new BitSet();
+        ByteBuf byteBuf = translated.sectionData;
+        LongList blobIds = null;
+        boolean encoded = false;
+        try {
+            if (!session.getErosionHandler().isActive()) {
+                session.getChunkCache().addToCache(packet.getX(), packet.getZ(), javaChunks);
+            }
 
-        BedrockDimension bedrockDimension = session.getChunkCache().getBedrockDimension();
-        int maxBedrockSectionY = (bedrockDimension.height() >> 4) - 1;
+            boolean sectionsModified = false;
+            final int chunkBlockX = packet.getX() << 4;
+            final int chunkBlockZ = packet.getZ() << 4;
+            for (BlockEntityInfo blockEntity : blockEntities) {
+                BlockEntityType type = blockEntity.getType();
+                if (type == null) {
+                    // As an example: ViaVersion will send -1 if it cannot find the block entity type
+                    // Vanilla Minecraft gracefully handles this
+                    continue;
+                }
+                CompoundTag tag = blockEntity.getNbt();
+                int x = blockEntity.getX(); // Relative to chunk
+                int y = blockEntity.getY();
+                int z = blockEntity.getZ(); // Relative to chunk
 
-        int sectionCount;
-        byte[] payload;
-        ByteBuf byteBuf = null;
-        GeyserChunkSection[] sections = new GeyserChunkSection[javaChunks.length - (yOffset + (bedrockDimension.minY() >> 4))];
+                // Get the Java block state ID from block entity position
+                DataPalette section = javaChunks[(y >> 4) - yOffset];
+                int blockState = section.get(x, y & 0xF, z);
+
+                if (type == BlockEntityType.LECTERN && BlockStateValues.getLecternBookStates().get(blockState)) {
+                    // If getLecternBookStates is false, let's just treat it like a normal block entity
+                    // Fill in tag with a default value
+                    NbtMapBuilder lecternTag = LecternUtils.getBaseLecternTag(x + chunkBlockX, y, z + chunkBlockZ, 1);
+                    lecternTag.putCompound("book", NbtMap.builder()
+                                    .putByte("Count", (byte) 1)
+                                    .putShort("Damage", (short) 0)
+                                    .putString("Name", "minecraft:written_book").build());
+                    lecternTag.putInt("page", -1);
+                    bedrockBlockEntities.add(lecternTag.build());
+                    lecterns.add(blockEntity);
+                    continue;
+                }
+
+                BlockEntityTranslator blockEntityTranslator = BlockEntityUtils.getBlockEntityTranslator(type);
+                bedrockBlockEntities.add(blockEntityTranslator.getBlockEntityTag(session, type, x + chunkBlockX, y, z + chunkBlockZ, tag, blockState));
+
+                // Check for custom skulls
+                if (session.getPreferencesCache().showCustomSkulls() && type == BlockEntityType.SKULL && tag != null && tag.contains("SkullOwner")) {
+                    BlockDefinition blockDefinition = SkullBlockEntityTranslator.translateSkull(session, tag, Vector3i.from(x + chunkBlockX, y, z + chunkBlockZ), blockState);
+                    if (blockDefinition != null) {
+                        int bedrockSectionY = (y >> 4) - (bedrockDimension.minY() >> 4);
+                        int subChunkIndex = (y >> 4) + (bedrockDimension.minY() >> 4);
+                        if (0 <= bedrockSectionY && bedrockSectionY < maxBedrockSectionY) {
+                            // Custom skull is in a section accepted by Bedrock
+                            GeyserChunkSection bedrockSection = sections[bedrockSectionY];
+                            IntList palette = bedrockSection.getBlockStorageArray()[0].getPalette();
+                            if (encodedSections[bedrockSectionY] != null || palette instanceof IntImmutableList || palette instanceof IntLists.Singleton) {
+                                // TODO there has to be a better way to expand the palette .-.
+                                bedrockSection = bedrockSection.copy(subChunkIndex);
+                                sections[bedrockSectionY] = bedrockSection;
+                                encodedSections[bedrockSectionY] = null;
+                            }
+                            bedrockSection.setFullBlock(x, y & 0xF, z, 0, blockDefinition.getRuntimeId());
+                            sectionsModified = true;
+                        }
+                    }
+                }
+            }
+
+            if (sectionsModified && !translated.requestSubChunks) {
+                // The sections were already encoded before we knew about custom skulls
+                byteBuf.clear();
+                translated.writeSections(byteBuf);
+            }
+
+            ChunkBlobCache blobCache = session.getChunkBlobCache();
+            if (translated.requestSubChunks) {
+                // Sections and their block entities are only sent once the client asks for them
+                // Only the biomes have been written at this point; keep them in case the chunk has to be sent again
+                session.getChunkCache().addBedrockChunk(packet.getX(), packet.getZ(),
+                        new BedrockChunk(sections, encodedSections, bedrockBlockEntities, bedrockDimension.minY() >> 4,
+                                ByteBufUtil.getBytes(byteBuf), Math.min(sections.length, maxBedrockSectionY + 1)));
+            } else if (blobCache.isEnabled() && blobCache.hasRoom(byteBuf.readableBytes())) {
+                // Only send the hashes of each section and the biomes - the client will ask for the ones it doesn't have
+                int[] blobOffsets = translated.blobOffsets;
+                blobIds = new LongArrayList(blobOffsets.length - 1);
+                for (int i = 0; i < blobOffsets.length - 1; i++) {
+                    blobIds.add(blobCache.addBlob(byteBuf, blobOffsets[i], blobOffsets[i + 1] - blobOffsets[i]));
+                }
+                byteBuf.clear();
+            }
+
+            byteBuf.writeByte(0); // Border blocks - Edu edition only
+
+            if (!translated.requestSubChunks) {
+                // Encode tile entities into buffer
+                NBTOutputStream nbtStream = NbtUtils.createNetworkWriter(new ByteBufOutputStream(byteBuf));
+                for (NbtMap blockEntity : bedrockBlockEntities) {
+                    nbtStream.writeTag(blockEntity);
+                }
+            }
+            encoded = true;
+        } catch (IOException e) {
+            session.getGeyser().getLogger().error("IO error while encoding chunk", e);
+            return;
+        } finally {
+            if (!encoded) {
+                byteBuf.release();
+            }
+        }
+
+        LevelChunkPacket levelChunkPacket = new LevelChunkPacket();
+        if (translated.requestSubChunks) {
+            levelChunkPacket.setRequestSubChunks(true);
+            levelChunkPacket.setSubChunkLimit(Math.min(sections.length, maxBedrockSectionY + 1));
+        } else {
+            levelChunkPacket.setSubChunksLength(translated.sectionCount);
+        }
+        levelChunkPacket.setCachingEnabled(blobIds != null);
+        if (blobIds != null) {
+            levelChunkPacket.getBlobIds().addAll(blobIds);
+        }
+        levelChunkPacket.setChunkX(packet.getX());
+        levelChunkPacket.setChunkZ(packet.getZ());
+        // The packet takes ownership of the pooled buffer, and releases it once it has been encoded
+        levelChunkPacket.setData(byteBuf);
+        session.sendUpstreamPacket(levelChunkPacket);
+
+        if (!lecterns.isEmpty()) {
+            session.getGeyser().getWorldManager().sendLecternData(session, packet.getX(), packet.getZ(), lecterns);
+        }
+
+        // Update item frames in this chunk so they don't get lost in the abyss
+        session.getItemFrameCache().forEachInChunk(packet.getX(), packet.getZ(), (position, itemFrame) -> itemFrame.updateBlock(true));
+    }
+
+    /**
+     * The block sections of a chunk, converted to Bedrock and encoded. This only reads session state that is captured
+     * on construction or does not change during the session, so {@link #translate()} is safe to run off the event loop.
+     */
+    private static final class TranslatedSections {
+        private final GeyserSession session;
+        private final MinecraftCodecHelper codecHelper;
+        private final ClientboundLevelChunkWithLightPacket packet;
+        private final ChunkSectionCache sectionCache;
+
+        // Ensure that, if the player is using lower world heights, the position is not offset
+        private final int yOffset;
+        private final int chunkSize;
+        private final int biomeGlobalPalette;
+        private final int[] biomeTranslations;
+        private final BedrockDimension bedrockDimension;
+        /**
+         * If true, only the biomes are written here and the sections are sent once the client requests them.
+         */
+        private final boolean requestSubChunks;
+
+        private final DataPalette[] javaChunks;
+        private final DataPalette[] javaBiomes;
+        private final GeyserChunkSection[] sections;
+        // If a section is present here, it is shared with other sessions through the section cache and must not be modified
+        private final byte[][] encodedSections;
+        private final List<NbtMap> bedrockBlockEntities;
+        private int sectionCount;
+        /**
+         * Holds the encoded sections and biomes once translated.
+         */
+        private ByteBuf sectionData;
+        /**
+         * Where each section starts in {@link #sectionData}, followed by where the biomes start and end.
+         */
+        private int[] blobOffsets;
+
+        TranslatedSections(GeyserSession session, ClientboundLevelChunkWithLightPacket packet) {
+            this.session = session;
+            this.codecHelper = session.getDownstream().getCodecHelper();
+            this.packet = packet;
+            this.sectionCache = session.getGeyser().getChunkSectionCache();
+
+            this.yOffset = session.getChunkCache().getChunkMinY();
+            this.chunkSize = session.getChunkCache().getChunkHeightY();
+            this.biomeGlobalPalette = session.getBiomeGlobalPalette();
+            this.biomeTranslations = session.getBiomeTranslations();
+            this.bedrockDimension = session.getChunkCache().getBedrockDimension();
+            this.requestSubChunks = session.getGeyser().getConfig().isRequestSubChunks();
+
+            this.javaChunks = new DataPalette[chunkSize];
+            this.javaBiomes = new DataPalette[chunkSize];
+            this.sections = new GeyserChunkSection[javaChunks.length - (yOffset + (bedrockDimension.minY() >> 4))];
+            this.encodedSections = new byte[sections.length][];
+            this.bedrockBlockEntities = new ObjectArrayList<>(packet.getBlockEntities().length);
+        }
+
+        void translate() throws IOException {
+            final boolean useExtendedCollisions = !session.getBlockMappings().getExtendedCollisionBoxes().isEmpty();
+
+            BitSet waterloggedPaletteIds = new BitSet();
+            BitSet bedrockOnlyBlockEntityIds = new BitSet();
+
+            int maxBedrockSectionY = (bedrockDimension.height() >> 4) - 1;
 
-        try {
             ByteBuf in = Unpooled.wrappedBuffer(packet.getChunkData());
             boolean extendedCollisionNextSection = false;
             for (int sectionY = 0; sectionY < chunkSize; sectionY++) {
-                ChunkSection javaSection = session.getDownstream().getCodecHelper().readChunkSection(in, biomeGlobalPalette);
+                ChunkSection javaSection = codecHelper.readChunkSection(in, biomeGlobalPalette);
                 javaChunks[sectionY] = javaSection.getChunkData();
                 javaBiomes[sectionY] = javaSection.getBiomeData();
                 boolean extendedCollision = extendedCollisionNextSection;
@@ -278,6 +502,18 @@ public class JavaLevelChunkWithLightTranslator extends PacketTranslator<Clientbo
                     }
                 }
 
+                // Extended collisions depend on the neighbouring sections, so those can't be shared
+                ChunkSectionCache.ContentKey cacheKey = null;
+                if (sectionCache != null && !useExtendedCollisions) {
+                    cacheKey = sectionCache.sectionKey(session.getBlockMappings(), subChunkIndex, javaPalette, javaData);
+                    ChunkSectionCache.CachedSection cached = sectionCache.getSection(cacheKey);
+                    if (cached != null) {
+                        sections[bedrockSectionY] = cached.section();
+                        encodedSections[bedrockSectionY] = cached.encoded();
+                        continue;
+                    }
+                }
+
                 // We need to ensure we use enough bits to represent extended collision blocks in the chunk section
                 int sectionCollisionBlocks = 0;
                 if (useExtendedCollisions) {
@@ -292,28 +528,15 @@ public class JavaLevelChunkWithLightTranslator extends PacketTranslator<Clientbo
                 // Convert data array from YZX to XZY coordinate order
                 if (waterloggedPaletteIds.isEmpty() && !extendedCollision) {
                     // No blocks are waterlogged, simply convert coordinate order
-                    // This could probably be optimized further...
-                    for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
-                        int paletteId = javaData.get(yzx);
-                        int xzy = indexYZXtoXZY(yzx);
-                        bedrockData.set(xzy, paletteId);
-                    }
+                    SectionTransposer.transpose(javaData, bedrockData, null, null);
 
                     layers = new BlockStorage[]{ layer0 };
                 } else if (!waterloggedPaletteIds.isEmpty() && !extendedCollision) {
                     // The section contains waterlogged blocks, we need to convert coordinate order AND generate a V1 block storage for
                     // layer 1 with palette ID 1 indicating water
                     int[] layer1Data = new int[BlockStorage.SIZE >> 5];
-                    for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
-                        int paletteId = javaData.get(yzx);
-                        int xzy = indexYZXtoXZY(yzx);
-                        bedrockData.set(xzy, paletteId);
+                    SectionTransposer.transpose(javaData, bedrockData, waterloggedPaletteIds, layer1Data);
 
-                        if (waterloggedPaletteIds.get(paletteId)) {
-                            layer1Data[xzy >> 5] |= 1 << (xzy & 0x1F);
-                        }
-                    }
-                    
                     // V1 palette
                     IntList layer1Palette = IntList.of(
                             session.getBlockMappings().getBedrockAir().getRuntimeId(), // Air - see BlockStorage's constructor for more information
@@ -381,105 +604,76 @@ public class JavaLevelChunkWithLightTranslator extends PacketTranslator<Clientbo
                 }
 
                 sections[bedrockSectionY] = new GeyserChunkSection(layers, subChunkIndex);
-                extendedCollisionNextSection = thisExtendedCollisionNextSection;
-            }
-
-            if (!session.getErosionHandler().isActive()) {
-                session.getChunkCache().addToCache(packet.getX(), packet.getZ(), javaChunks);
-            }
-
-            final int chunkBlockX = packet.getX() << 4;
-            final int chunkBlockZ = packet.getZ() << 4;
-            for (BlockEntityInfo blockEntity : blockEntities) {
-                BlockEntityType type = blockEntity.getType();
-                if (type == null) {
-                    // As an example: ViaVersion will send -1 if it cannot find the block entity type
-                    // Vanilla Minecraft gracefully handles this
-                    continue;
-                }
-                CompoundTag tag = blockEntity.getNbt();
-                int x = blockEntity.getX(); // Relative to chunk
-                int y = blockEntity.getY();
-                int z = blockEntity.getZ(); // Relative to chunk
-
-                // Get the Java block state ID from block entity position
-                DataPalette section = javaChunks[(y >> 4) - yOffset];
-                int blockState = section.get(x, y & 0xF, z);
-
-                if (type == BlockEntityType.LECTERN && BlockStateValues.getLecternBookStates().get(blockState)) {
-                    // If getLecternBookStates is false, let's just treat it like a normal block entity
-                    // Fill in tag with a default value
-                    NbtMapBuilder lecternTag = LecternUtils.getBaseLecternTag(x + chunkBlockX, y, z + chunkBlockZ, 1);
-                    lecternTag.putCompound("book", NbtMap.builder()
-                                    .putByte("Count", (byte) 1)
-                                    .putShort("Damage", (short) 0)
-                                    .putString("Name", "minecraft:written_book").build());
-                    lecternTag.putInt("page", -1);
-                    bedrockBlockEntities.add(lecternTag.build());
-                    lecterns.add(blockEntity);
-                    continue;
-                }
-
-                BlockEntityTranslator blockEntityTranslator = BlockEntityUtils.getBlockEntityTranslator(type);
-                bedrockBlockEntities.add(blockEntityTranslator.getBlockEntityTag(session, type, x + chunkBlockX, y, z + chunkBlockZ, tag, blockState));
-
-                // Check for custom skulls
-                if (session.getPreferencesCache().showCustomSkulls() && type == BlockEntityType.SKULL && tag != null && tag.contains("SkullOwner")) {
-                    BlockDefinition blockDefinition = SkullBlockEntityTranslator.translateSkull(session, tag, Vector3i.from(x + chunkBlockX, y, z + chunkBlockZ), blockState);
-                    if (blockDefinition != null) {
-                        int bedrockSectionY = (y >> 4) - (bedrockDimension.minY() >> 4);
-                        int subChunkIndex = (y >> 4) + (bedrockDimension.minY() >> 4);
-                        if (0 <= bedrockSectionY && bedrockSectionY < maxBedrockSectionY) {
-                            // Custom skull is in a section accepted by Bedrock
-                            GeyserChunkSection bedrockSection = sections[bedrockSectionY];
-                            IntList palette = bedrockSection.getBlockStorageArray()[0].getPalette();
-                            if (palette instanceof IntImmutableList || palette instanceof IntLists.Singleton) {
-                                // TODO there has to be a better way to expand the palette .-.
-                                bedrockSection = bedrockSection.copy(subChunkIndex);
-                                sections[bedrockSectionY] = bedrockSection;
-                            }
-                            bedrockSection.setFullBlock(x, y & 0xF, z, 0, blockDefinition.getRuntimeId());
-                        }
-                    }
+                if (cacheKey != null) {
+                    encodedSections[bedrockSectionY] = sectionCache.putSection(cacheKey, sections[bedrockSectionY]);
                 }
+                extendedCollisionNextSection = thisExtendedCollisionNextSection;
             }
 
             // Find highest section
-            sectionCount = sections.length - 1;
+            int sectionCount = sections.length - 1;
             while (sectionCount >= 0 && sections[sectionCount] == null) {
                 sectionCount--;
             }
-            sectionCount++;
-
-            // As of 1.18.30, the amount of biomes read is dependent on how high Bedrock thinks the dimension is
-            int biomeCount = bedrockDimension.height() >> 4;
+            this.sectionCount = sectionCount + 1;
 
             // Estimate chunk size
             int size = 0;
-            for (int i = 0; i < sectionCount; i++) {
-                GeyserChunkSection section = sections[i];
-                if (section != null) {
-                    size += section.estimateNetworkSize();
-                } else {
-                    size += EMPTY_CHUNK_SECTION_SIZE;
+            if (!requestSubChunks) {
+                for (int i = 0; i < this.sectionCount; i++) {
+                    GeyserChunkSection section = sections[i];
+                    if (encodedSections[i] != null) {
+                        size += encodedSections[i].length;
+                    } else if (section != null) {
+                        size += section.estimateNetworkSize();
+                    } else {
+                        size += EMPTY_CHUNK_SECTION_SIZE;
+                    }
                 }
             }
-            size += ChunkUtils.EMPTY_BIOME_DATA.length * biomeCount;
+            size += ChunkUtils.EMPTY_BIOME_DATA.length * (bedrockDimension.height() >> 4);
             size += 1; // Border blocks
-            size += bedrockBlockEntities.size() * 64; // Conservative estimate of 64 bytes per tile entity
+            size += (bedrockBlockEntities.size() + packet.getBlockEntities().length) * 64; // Conservative estimate of 64 bytes per tile entity
 
             // Allocate output buffer
-            byteBuf = ByteBufAllocator.DEFAULT.ioBuffer(size);
-            for (int i = 0; i < sectionCount; i++) {
-                GeyserChunkSection section = sections[i];
-                if (section != null) {
-                    section.writeToNetwork(byteBuf);
-                } else {
-                    int subChunkIndex = (i + (bedrockDimension.minY() >> 4));
-                    new GeyserChunkSection(EMPTY_BLOCK_STORAGE, subChunkIndex).writeToNetwork(byteBuf);
+            ByteBuf byteBuf = ByteBufAllocator.DEFAULT.ioBuffer(size);
+            try {
+                writeSections(byteBuf);
+            } catch (Throwable t) {
+                byteBuf.release();
+                throw t;
+            }
+            this.sectionData = byteBuf;
+        }
+
+        /**
+         * Writes all sections up to the highest non-empty one, followed by the biomes. Only the biomes are written
+         * if the client will request sections itself.
+         */
+        void writeSections(ByteBuf byteBuf) {
+            if (blobOffsets == null) {
+                blobOffsets = new int[sectionCount + 2];
+            }
+
+            if (!requestSubChunks) {
+                for (int i = 0; i < sectionCount; i++) {
+                    blobOffsets[i] = byteBuf.writerIndex();
+                    GeyserChunkSection section = sections[i];
+                    if (encodedSections[i] != null) {
+                        byteBuf.writeBytes(encodedSections[i]);
+                    } else if (section != null) {
+                        section.writeToNetwork(byteBuf);
+                    } else {
+                        int subChunkIndex = (i + (bedrockDimension.minY() >> 4));
+                        new GeyserChunkSection(EMPTY_BLOCK_STORAGE, subChunkIndex).writeToNetwork(byteBuf);
+                    }
                 }
             }
 
+            blobOffsets[sectionCount] = byteBuf.writerIndex();
+
+            // As of 1.18.30, the amount of biomes read is dependent on how high Bedrock thinks the dimension is
+            int biomeCount = bedrockDimension.height() >> 4;
             int dimensionOffset = bedrockDimension.minY() >> 4;
             for (int i = 0; i < biomeCount; i++) {
                 int biomeYOffset = dimensionOffset + i;
@@ -495,45 +689,23 @@ public class JavaLevelChunkWithLightTranslator extends PacketTranslator<Clientbo
                     continue;
                 }
 
-                BiomeTranslator.toNewBedrockBiome(session, javaBiomes[i + (dimensionOffset - yOffset)]).writeToNetwork(byteBuf);
-            }
-
-            byteBuf.writeByte(0); // Border blocks - Edu edition only
-
-            // Encode tile entities into buffer
-            NBTOutputStream nbtStream = NbtUtils.createNetworkWriter(new ByteBufOutputStream(byteBuf));
-            for (NbtMap blockEntity : bedrockBlockEntities) {
-                nbtStream.writeTag(blockEntity);
-            }
-            payload = new byte[byteBuf.readableBytes()];
-            byteBuf.readBytes(payload);
-        } catch (IOException e) {
-            session.getGeyser().getLogger().error("IO error while encoding chunk", e);
-            return;
-        } finally {
-            if (byteBuf != null) {
-                byteBuf.release(); // Release buffer to allow buffer pooling to be useful
+                DataPalette biomeData = javaBiomes[i + (dimensionOffset - yOffset)];
+                if (sectionCache != null) {
+                    byteBuf.writeBytes(sectionCache.getBiome(biomeTranslations, biomeData));
+                } else {
+                    BiomeTranslator.toNewBedrockBiome(biomeTranslations, biomeData).writeToNetwork(byteBuf);
+                }
             }
+            blobOffsets[sectionCount + 1] = byteBuf.writerIndex();
         }
 
-        LevelChunkPacket levelChunkPacket = new LevelChunkPacket();
-        levelChunkPacket.setSubChunksLength(sectionCount);
-        levelChunkPacket.setCachingEnabled(false);
-        levelChunkPacket.setChunkX(packet.getX());
-        levelChunkPacket.setChunkZ(packet.getZ());
-        levelChunkPacket.setData(Unpooled.wrappedBuffer(payload));
-        session.sendUpstreamPacket(levelChunkPacket);
-
-        if (!lecterns.isEmpty()) {
-            session.getGeyser().getWorldManager().sendLecternData(session, packet.getX(), packet.getZ(), lecterns);
-        }
-
-        for (Map.Entry<Vector3i, ItemFrameEntity> entry : session.getItemFrameCache().entrySet()) {
-            Vector3i position = entry.getKey();
-            if ((position.getX() >> 4) == packet.getX() && (position.getZ() >> 4) == packet.getZ()) {
-                // Update this item frame so it doesn't get lost in the abyss
-                //TODO optimize
-                entry.getValue().updateBlock(true);
+        /**
+         * Called if this chunk is no longer needed.
+         */
+        void release() {
+            if (this.sectionData != null) {
+                this.sectionData.release();
+                this.sectionData = null;
             }
         }
     }
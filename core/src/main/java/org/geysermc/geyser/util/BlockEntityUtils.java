@@ -88,5 +88,7 @@ public class BlockEntityUtils {
         blockEntityPacket.setBlockPosition(position);
         blockEntityPacket.setData(blockEntity);
         session.sendUpstreamPacket(blockEntityPacket);
+
+        session.getChunkCache().updateBedrockBlockEntity(position, blockEntity);
     }
 }
@@ -30,17 +30,22 @@ import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import it.unimi.dsi.fastutil.ints.IntLists;
 import lombok.experimental.UtilityClass;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.cloudburstmc.math.GenericMath;
 import org.cloudburstmc.math.vector.Vector2i;
 import org.cloudburstmc.math.vector.Vector3i;
+import org.cloudburstmc.protocol.bedrock.data.BlockChangeEntry;
 import org.cloudburstmc.protocol.bedrock.data.definitions.BlockDefinition;
 import org.cloudburstmc.protocol.bedrock.packet.LevelChunkPacket;
 import org.cloudburstmc.protocol.bedrock.packet.NetworkChunkPublisherUpdatePacket;
 import org.cloudburstmc.protocol.bedrock.packet.UpdateBlockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.UpdateSubChunkBlocksPacket;
+import org.geysermc.geyser.configuration.GeyserConfiguration;
 import org.geysermc.geyser.entity.type.ItemFrameEntity;
 import org.geysermc.geyser.level.BedrockDimension;
 import org.geysermc.geyser.level.JavaDimension;
 import org.geysermc.geyser.level.block.BlockStateValues;
+import org.geysermc.geyser.level.chunk.BedrockChunk;
 import org.geysermc.geyser.level.chunk.BlockStorage;
 import org.geysermc.geyser.level.chunk.GeyserChunkSection;
 import org.geysermc.geyser.level.chunk.bitarray.SingletonBitArray;
@@ -57,6 +62,11 @@ public class ChunkUtils {
 
     public static final byte[] EMPTY_BIOME_DATA;
 
+    /**
+     * {@link UpdateBlockPacket.Flag#NEIGHBORS} and {@link UpdateBlockPacket.Flag#NETWORK}
+     */
+    private static final int LAYER_0_UPDATE_FLAGS = 0b11;
+
     public static final BlockStorage[] EMPTY_BLOCK_STORAGE;
 
     public static final int EMPTY_CHUNK_SECTION_SIZE;
@@ -113,12 +123,17 @@ public class ChunkUtils {
 
     /**
      * Sends a block update to the Bedrock client. If the platform is not Spigot, this also
-     * adds that block to the cache.
+     * adds that block to the cache. If the chunk is still being translated, the update is held back until it has
+     * been sent.
      * @param session the Bedrock session to send/register the block to
      * @param blockState the Java block state of the block
      * @param position the position of the block
      */
     public static void updateBlock(GeyserSession session, int blockState, Vector3i position) {
+        if (session.getChunkCache().deferIfPending(position.getX() >> 4, position.getZ() >> 4,
+                () -> updateBlock(session, blockState, position))) {
+            return;
+        }
         updateBlockClientSide(session, blockState, position);
         session.getChunkCache().updateBlock(position.getX(), position.getY(), position.getZ(), blockState);
     }
@@ -127,13 +142,72 @@ public class ChunkUtils {
      * Updates a block, but client-side only.
      */
     public static void updateBlockClientSide(GeyserSession session, int blockState, Vector3i position) {
+        if (updateBlockLayers(session, blockState, position, null)) {
+            updateBlockSurroundings(session, blockState, position);
+        }
+    }
+
+    /**
+     * Sends every block change of one Java section to the client together. Both layers of each block are sent in one
+     * {@link UpdateSubChunkBlocksPacket}, rather than two packets per block. If the client requests sub-chunks and
+     * more than {@link GeyserConfiguration#getSubChunkResendThreshold()} blocks changed, it is instead told to
+     * request the chunk again.
+     *
+     * @param entries the changed blocks, which must all be inside the given section
+     */
+    public static void updateSection(GeyserSession session, int chunkX, int chunkY, int chunkZ,
+                                     com.github.steveice10.mc.protocol.data.game.level.block.BlockChangeEntry[] entries) {
+        if (entries.length == 1) {
+            updateBlock(session, entries[0].getBlock(), entries[0].getPosition());
+            return;
+        }
+
+        for (var entry : entries) {
+            Vector3i position = entry.getPosition();
+            session.getChunkCache().updateBlock(position.getX(), position.getY(), position.getZ(), entry.getBlock());
+        }
+
+        UpdateSubChunkBlocksPacket updatePacket = new UpdateSubChunkBlocksPacket();
+        // The position of the sub-chunk is given as its lowest block
+        updatePacket.setChunkX(chunkX << 4);
+        updatePacket.setChunkY(chunkY << 4);
+        updatePacket.setChunkZ(chunkZ << 4);
+
+        boolean[] updated = new boolean[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            updated[i] = updateBlockLayers(session, entries[i].getBlock(), entries[i].getPosition(), updatePacket);
+        }
+
+        int resendThreshold = session.getGeyser().getConfig().getSubChunkResendThreshold();
+        BedrockChunk bedrockChunk = session.getChunkCache().getBedrockChunk(chunkX, chunkZ);
+        if (bedrockChunk != null && resendThreshold > 0 && updatePacket.getStandardBlocks().size() >= resendThreshold) {
+            // The stored sub-chunks already have these changes; cheaper than sending each block
+            resendBedrockChunk(session, chunkX, chunkZ, bedrockChunk);
+        } else if (!updatePacket.getStandardBlocks().isEmpty()) {
+            session.sendUpstreamPacket(updatePacket);
+        }
+
+        // Anything that depends on the new blocks must come after them
+        for (int i = 0; i < entries.length; i++) {
+            if (updated[i]) {
+                updateBlockSurroundings(session, entries[i].getBlock(), entries[i].getPosition());
+            }
+        }
+    }
+
+    /**
+     * Sends both layers of a block, or adds them to the given packet.
+     *
+     * @return false if the block was not changed because an item frame takes its place
+     */
+    private static boolean updateBlockLayers(GeyserSession session, int blockState, Vector3i position, @Nullable UpdateSubChunkBlocksPacket batch) {
         // Checks for item frames so they aren't tripped up and removed
         ItemFrameEntity itemFrameEntity = ItemFrameEntity.getItemFrameEntity(session, position);
         if (itemFrameEntity != null) {
             if (blockState == JAVA_AIR_ID) { // Item frame is still present and no block overrides that; refresh it
                 itemFrameEntity.updateBlock(true);
                 // Still update the chunk cache with the new block if updateBlock is called
-                return;
+                return false;
             }
             // Otherwise, let's still store our reference to the item frame, but let the new block take precedence for now
         }
@@ -155,25 +229,38 @@ public class ChunkUtils {
         // Prevent moving_piston from being placed
         // It's used for extending piston heads, but it isn't needed on Bedrock and causes pistons to flicker
         if (!BlockStateValues.isMovingPiston(blockState)) {
-            UpdateBlockPacket updateBlockPacket = new UpdateBlockPacket();
-            updateBlockPacket.setDataLayer(0);
-            updateBlockPacket.setBlockPosition(position);
-            updateBlockPacket.setDefinition(definition);
-            updateBlockPacket.getFlags().add(UpdateBlockPacket.Flag.NEIGHBORS);
-            updateBlockPacket.getFlags().add(UpdateBlockPacket.Flag.NETWORK);
-            session.sendUpstreamPacket(updateBlockPacket);
-
-            UpdateBlockPacket waterPacket = new UpdateBlockPacket();
-            waterPacket.setDataLayer(1);
-            waterPacket.setBlockPosition(position);
-            if (BlockRegistries.WATERLOGGED.get().get(blockState)) {
-                waterPacket.setDefinition(session.getBlockMappings().getBedrockWater());
+            BlockDefinition waterDefinition = BlockRegistries.WATERLOGGED.get().get(blockState) ?
+                    session.getBlockMappings().getBedrockWater() : session.getBlockMappings().getBedrockAir();
+
+            if (batch != null) {
+                batch.getStandardBlocks().add(new BlockChangeEntry(position, definition, LAYER_0_UPDATE_FLAGS, 0, BlockChangeEntry.MessageType.NONE));
+                batch.getExtraBlocks().add(new BlockChangeEntry(position, waterDefinition, 0, 0, BlockChangeEntry.MessageType.NONE));
             } else {
-                waterPacket.setDefinition(session.getBlockMappings().getBedrockAir());
+                UpdateBlockPacket updateBlockPacket = new UpdateBlockPacket();
+                updateBlockPacket.setDataLayer(0);
+                updateBlockPacket.setBlockPosition(position);
+                updateBlockPacket.setDefinition(definition);
+                updateBlockPacket.getFlags().add(UpdateBlockPacket.Flag.NEIGHBORS);
+                updateBlockPacket.getFlags().add(UpdateBlockPacket.Flag.NETWORK);
+                session.sendUpstreamPacket(updateBlockPacket);
+
+                UpdateBlockPacket waterPacket = new UpdateBlockPacket();
+                waterPacket.setDataLayer(1);
+                waterPacket.setBlockPosition(position);
+                waterPacket.setDefinition(waterDefinition);
+                session.sendUpstreamPacket(waterPacket);
             }
-            session.sendUpstreamPacket(waterPacket);
+
+            session.getChunkCache().updateBedrockBlock(position.getX(), position.getY(), position.getZ(),
+                    definition.getRuntimeId(), waterDefinition.getRuntimeId());
         }
+        return true;
+    }
 
+    /**
+     * Handles everything around a changed block that isn't the block itself.
+     */
+    private static void updateBlockSurroundings(GeyserSession session, int blockState, Vector3i position) {
         // Extended collision boxes for custom blocks
         if (!session.getBlockMappings().getExtendedCollisionBoxes().isEmpty()) {
             int aboveBlock = session.getGeyser().getWorldManager().getBlockAt(session, position.getX(), position.getY() + 1, position.getZ());
@@ -225,6 +312,25 @@ public class ChunkUtils {
         }
     }
 
+    /**
+     * Has a client that requests sub-chunks request every sub-chunk of this chunk again.
+     */
+    private static void resendBedrockChunk(GeyserSession session, int chunkX, int chunkZ, BedrockChunk chunk) {
+        byte[] biomeData = chunk.getBiomeData();
+        ByteBuf byteBuf = Unpooled.buffer(biomeData.length + 1);
+        byteBuf.writeBytes(biomeData);
+        byteBuf.writeByte(0); // Border blocks - Edu edition only
+
+        LevelChunkPacket levelChunkPacket = new LevelChunkPacket();
+        levelChunkPacket.setChunkX(chunkX);
+        levelChunkPacket.setChunkZ(chunkZ);
+        levelChunkPacket.setRequestSubChunks(true);
+        levelChunkPacket.setSubChunkLimit(chunk.getSubChunkLimit());
+        levelChunkPacket.setCachingEnabled(false);
+        levelChunkPacket.setData(byteBuf);
+        session.sendUpstreamPacket(levelChunkPacket);
+    }
+
     public static void sendEmptyChunk(GeyserSession session, int chunkX, int chunkZ, boolean forceUpdate) {
         BedrockDimension bedrockDimension = session.getChunkCache().getBedrockDimension();
         int bedrockSubChunkCount = bedrockDimension.height() >> 4;
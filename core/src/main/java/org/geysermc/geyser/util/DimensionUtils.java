@@ -67,6 +67,7 @@ public class DimensionUtils {
         Entity player = session.getPlayerEntity();
 
         session.getChunkCache().clear();
+        session.getChunkBlobCache().clear();
         session.getEntityCache().removeAllEntities();
         session.getItemFrameCache().clear();
         if (session.getLecternCache() != null) {
@@ -28,6 +28,19 @@ package org.geysermc.geyser.util;
 public class MathUtils {
     public static final double SQRT_OF_TWO = Math.sqrt(2);
 
+    /**
+     * Exact powers of ten that can be represented as a double, used by {@link #toShortestDouble(float)}.
+     */
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        double power = 1;
+        for (int i = 0; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+    }
+
     /**
      * Wrap the given float degrees to be between -180.0 and 180.0.
      * 
@@ -196,4 +209,46 @@ public class MathUtils {
     public static int getGlobalPaletteForSize(int size) {
         return 32 - Integer.numberOfLeadingZeros(size - 1);
     }
+
+    /**
+     * Converts a float to the double closest to the float's shortest decimal representation, without going through a
+     * string. This matches {@code Double.parseDouble(Float.toString(value))} on Java 19 and newer. Older versions of
+     * {@link Float#toString(float)} don't always produce the shortest representation; they only agree for magnitudes
+     * between roughly {@code 1e-4} and {@code 3e7}, which covers the world border. A plain cast would keep the binary
+     * error of the float (e.g. {@code 0.1f} becomes {@code 0.10000000149011612}), which makes players get stuck when
+     * walking near walls.
+     *
+     * @param value the float to convert
+     * @return the double nearest to the shortest decimal that still rounds back to {@code value}
+     */
+    public static double toShortestDouble(float value) {
+        if (value == 0 || !Float.isFinite(value)) {
+            return value;
+        }
+        double exact = value;
+        // May be one too high just below a power of ten, which only costs us a digit of precision in the search
+        int exponent = (int) Math.floor(Math.log10(Math.abs(exact)));
+
+        // Rounding to more digits always round-trips if fewer digits did, so search for the fewest digits that do
+        int low = 1;
+        int high = 10;
+        double best = exact;
+        while (low <= high) {
+            int digits = (low + high) >>> 1;
+            int scale = digits - 1 - exponent;
+            if (scale >= POWERS_OF_TEN.length || scale <= -POWERS_OF_TEN.length) {
+                // Far outside of any world coordinate; not worth handling without a string
+                return Double.parseDouble(Float.toString(value));
+            }
+            double candidate = scale >= 0 ? Math.rint(exact * POWERS_OF_TEN[scale]) / POWERS_OF_TEN[scale]
+                    : Math.rint(exact / POWERS_OF_TEN[-scale]) * POWERS_OF_TEN[-scale];
+            if ((float) candidate == value) {
+                best = candidate;
+                high = digits - 1;
+            } else {
+                low = digits + 1;
+            }
+        }
+        return best;
+    }
 }
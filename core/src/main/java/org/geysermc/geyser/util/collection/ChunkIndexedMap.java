@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.util.collection;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.cloudburstmc.math.vector.Vector3i;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A map keyed by block position that also indexes its keys by chunk column; see {@link ChunkIndexedSet}.
+ * Null values are not supported.
+ */
+public class ChunkIndexedMap<V> {
+    private final Map<Vector3i, V> values = new Object2ObjectOpenHashMap<>();
+    private final ChunkIndexedSet positions = new ChunkIndexedSet();
+
+    public @Nullable V get(Vector3i position) {
+        return values.get(position);
+    }
+
+    public boolean containsKey(Vector3i position) {
+        return values.containsKey(position);
+    }
+
+    public @Nullable V put(Vector3i position, V value) {
+        V previous = values.put(position, value);
+        if (previous == null) {
+            positions.add(position);
+        }
+        return previous;
+    }
+
+    public V computeIfAbsent(Vector3i position, Function<Vector3i, V> mappingFunction) {
+        V value = values.get(position);
+        if (value == null) {
+            value = mappingFunction.apply(position);
+            put(position, value);
+        }
+        return value;
+    }
+
+    public @Nullable V remove(Vector3i position) {
+        V value = values.remove(position);
+        if (value != null) {
+            positions.remove(position);
+        }
+        return value;
+    }
+
+    public boolean remove(Vector3i position, V value) {
+        if (values.remove(position, value)) {
+            positions.remove(position);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return a read-only view of the positions in this chunk column
+     */
+    public Set<Vector3i> getChunk(int chunkX, int chunkZ) {
+        return positions.getChunk(chunkX, chunkZ);
+    }
+
+    /**
+     * Removes every entry in this chunk column.
+     *
+     * @return the removed values
+     */
+    public List<V> removeChunk(int chunkX, int chunkZ) {
+        Set<Vector3i> removed = positions.removeChunk(chunkX, chunkZ);
+        if (removed.isEmpty()) {
+            return List.of();
+        }
+        List<V> removedValues = new ArrayList<>(removed.size());
+        for (Vector3i position : removed) {
+            removedValues.add(values.remove(position));
+        }
+        return removedValues;
+    }
+
+    public void forEachInChunk(int chunkX, int chunkZ, BiConsumer<Vector3i, V> consumer) {
+        for (Vector3i position : positions.getChunk(chunkX, chunkZ)) {
+            consumer.accept(position, values.get(position));
+        }
+    }
+
+    /**
+     * @return a read-only view of all values
+     */
+    public Collection<V> values() {
+        return Collections.unmodifiableCollection(values.values());
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    public void clear() {
+        values.clear();
+        positions.clear();
+    }
+}
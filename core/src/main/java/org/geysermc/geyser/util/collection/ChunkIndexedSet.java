@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.util.collection;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import org.cloudburstmc.math.vector.Vector3i;
+import org.geysermc.geyser.util.MathUtils;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * A set of block positions, grouped by the chunk column they are in, so everything in a chunk can be found or
+ * removed without looking at every position in the set.
+ */
+public class ChunkIndexedSet {
+    private final Long2ObjectMap<Set<Vector3i>> chunks = new Long2ObjectOpenHashMap<>();
+    private int size;
+
+    public boolean add(Vector3i position) {
+        Set<Vector3i> chunk = chunks.computeIfAbsent(chunkKey(position), $ -> new ObjectOpenHashSet<>());
+        if (chunk.add(position)) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean remove(Vector3i position) {
+        long key = chunkKey(position);
+        Set<Vector3i> chunk = chunks.get(key);
+        if (chunk != null && chunk.remove(position)) {
+            if (chunk.isEmpty()) {
+                chunks.remove(key);
+            }
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean contains(Vector3i position) {
+        Set<Vector3i> chunk = chunks.get(chunkKey(position));
+        return chunk != null && chunk.contains(position);
+    }
+
+    /**
+     * @return a read-only view of the positions in this chunk column
+     */
+    public Set<Vector3i> getChunk(int chunkX, int chunkZ) {
+        Set<Vector3i> chunk = chunks.get(MathUtils.chunkPositionToLong(chunkX, chunkZ));
+        return chunk == null ? Collections.emptySet() : Collections.unmodifiableSet(chunk);
+    }
+
+    /**
+     * Removes every position in this chunk column.
+     *
+     * @return the removed positions
+     */
+    public Set<Vector3i> removeChunk(int chunkX, int chunkZ) {
+        Set<Vector3i> chunk = chunks.remove(MathUtils.chunkPositionToLong(chunkX, chunkZ));
+        if (chunk == null) {
+            return Collections.emptySet();
+        }
+        size -= chunk.size();
+        return chunk;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        chunks.clear();
+        size = 0;
+    }
+
+    private static long chunkKey(Vector3i position) {
+        return MathUtils.chunkPositionToLong(position.getX() >> 4, position.getZ() >> 4);
+    }
+}
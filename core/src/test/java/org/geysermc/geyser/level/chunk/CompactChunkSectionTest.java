@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.DataPalette;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class CompactChunkSectionTest {
+
+    @Test
+    public void testMatchesJavaSection() {
+        Random random = new Random(0);
+        DataPalette javaSection = DataPalette.createForChunk();
+        for (int i = 0; i < 600; i++) {
+            javaSection.set(random.nextInt(16), random.nextInt(16), random.nextInt(16), random.nextInt(12));
+        }
+
+        int[] expected = new int[4096];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = javaSection.get(i & 0xF, i >> 8, (i >> 4) & 0xF);
+        }
+
+        CompactChunkSection section = CompactChunkSection.from(javaSection);
+        assertMatches(expected, section);
+
+        // Grow the palette past what the Java section started with
+        for (int i = 0; i < 3000; i++) {
+            int index = random.nextInt(4096);
+            int blockState = random.nextInt(200);
+            section = section.set(index & 0xF, index >> 8, (index >> 4) & 0xF, blockState);
+            expected[index] = blockState;
+        }
+        assertMatches(expected, section);
+    }
+
+    @Test
+    public void testGrowsIntoDirectStorage() {
+        CompactChunkSection section = CompactChunkSection.singleton(0);
+        int[] expected = new int[4096];
+        // Every block different, so the palette overflows and block states are stored directly
+        for (int i = 0; i < expected.length; i++) {
+            section = section.set(i & 0xF, i >> 8, (i >> 4) & 0xF, i + 1);
+            expected[i] = i + 1;
+        }
+        assertMatches(expected, section);
+
+        // A block state that doesn't fit in the bits picked when the palette was dropped
+        section = section.set(3, 4, 5, 30000);
+        expected[4 << 8 | 5 << 4 | 3] = 30000;
+        assertMatches(expected, section);
+    }
+
+    @Test
+    public void testSingletonsAreShared() {
+        CompactChunkSection singleton = CompactChunkSection.singleton(5);
+        Assertions.assertSame(singleton, CompactChunkSection.singleton(5));
+        Assertions.assertSame(singleton, singleton.set(1, 2, 3, 5));
+
+        CompactChunkSection modified = singleton.set(1, 2, 3, 7);
+        Assertions.assertNotSame(singleton, modified);
+        Assertions.assertEquals(5, singleton.get(1, 2, 3));
+        Assertions.assertEquals(7, modified.get(1, 2, 3));
+        Assertions.assertEquals(5, modified.get(0, 0, 0));
+        Assertions.assertEquals(0, singleton.estimateMemoryUsage());
+    }
+
+    private static void assertMatches(int[] expected, CompactChunkSection section) {
+        for (int i = 0; i < expected.length; i++) {
+            Assertions.assertEquals(expected[i], section.get(i & 0xF, i >> 8, (i >> 4) & 0xF), "Block at index " + i);
+        }
+    }
+}
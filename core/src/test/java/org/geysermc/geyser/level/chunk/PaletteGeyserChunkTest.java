@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.DataPalette;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class PaletteGeyserChunkTest {
+
+    @Test
+    public void testPaletteGrowsIntoGlobalPalette() {
+        PaletteGeyserChunk chunk = new PaletteGeyserChunk(new DataPalette[1]);
+        long usage = chunk.estimateMemoryUsage();
+
+        // Every block different, so the section goes through every palette size and ends up with the global palette
+        Random random = new Random(0);
+        int[] expected = new int[4096];
+        for (int i = 0; i < expected.length; i++) {
+            int blockState = i + 1 + random.nextInt(4);
+            usage += chunk.setBlock(0, i & 0xF, i >> 8, (i >> 4) & 0xF, blockState);
+            expected[i] = blockState;
+        }
+
+        for (int i = 0; i < expected.length; i++) {
+            Assertions.assertEquals(expected[i], chunk.getBlock(0, i & 0xF, i >> 8, (i >> 4) & 0xF), "Block at index " + i);
+        }
+        Assertions.assertEquals(usage, chunk.estimateMemoryUsage());
+    }
+
+    @Test
+    public void testCompactChunkMatches() {
+        Random random = new Random(0);
+        PaletteGeyserChunk chunk = new PaletteGeyserChunk(new DataPalette[2]);
+        for (int i = 0; i < 8000; i++) {
+            chunk.setBlock(random.nextInt(2), random.nextInt(16), random.nextInt(16), random.nextInt(16), random.nextInt(1000));
+        }
+
+        CompactGeyserChunk compact = CompactGeyserChunk.from(chunk.sections());
+        for (int sectionY = 0; sectionY < 2; sectionY++) {
+            for (int i = 0; i < 4096; i++) {
+                Assertions.assertEquals(chunk.getBlock(sectionY, i & 0xF, i >> 8, (i >> 4) & 0xF),
+                        compact.getBlock(sectionY, i & 0xF, i >> 8, (i >> 4) & 0xF), "Block at index " + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.level.chunk.bitarray;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.BitStorage;
+import org.geysermc.geyser.util.ChunkUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+public class SectionTransposerTest {
+    private static final int SIZE = 4096;
+    private static final BitArrayVersion[] BEDROCK_VERSIONS = {
+            BitArrayVersion.V1, BitArrayVersion.V2, BitArrayVersion.V3, BitArrayVersion.V4,
+            BitArrayVersion.V5, BitArrayVersion.V6, BitArrayVersion.V8, BitArrayVersion.V16
+    };
+
+    @Test
+    public void testMatchesPerEntryConversion() {
+        Random random = new Random(0);
+        for (int javaBits = 4; javaBits <= 8; javaBits++) {
+            for (BitArrayVersion version : BEDROCK_VERSIONS) {
+                int maxValue = Math.min((1 << javaBits) - 1, version.getMaxEntryValue());
+                BitStorage javaData = new BitStorage(javaBits, SIZE);
+                for (int i = 0; i < SIZE; i++) {
+                    javaData.set(i, random.nextInt(maxValue + 1));
+                }
+
+                BitSet waterlogged = new BitSet();
+                for (int i = 0; i <= maxValue; i += 3) {
+                    waterlogged.set(i);
+                }
+
+                BitArray expected = version.createArray(SIZE);
+                int[] expectedLayer1 = new int[SIZE >> 5];
+                for (int yzx = 0; yzx < SIZE; yzx++) {
+                    int paletteId = javaData.get(yzx);
+                    int xzy = ChunkUtils.indexYZXtoXZY(yzx);
+                    expected.set(xzy, paletteId);
+                    if (waterlogged.get(paletteId)) {
+                        expectedLayer1[xzy >> 5] |= 1 << (xzy & 0x1F);
+                    }
+                }
+
+                BitArray actual = version.createArray(SIZE);
+                SectionTransposer.transpose(javaData, actual, null, null);
+                Assertions.assertArrayEquals(expected.getWords(), actual.getWords(), javaBits + " bits into " + version);
+
+                actual = version.createArray(SIZE);
+                int[] actualLayer1 = new int[SIZE >> 5];
+                SectionTransposer.transpose(javaData, actual, waterlogged, actualLayer1);
+                Assertions.assertArrayEquals(expected.getWords(), actual.getWords(), javaBits + " bits into " + version + " with waterlogging");
+                Assertions.assertArrayEquals(expectedLayer1, actualLayer1, "Waterlogged layer for " + javaBits + " bits into " + version);
+            }
+        }
+    }
+}
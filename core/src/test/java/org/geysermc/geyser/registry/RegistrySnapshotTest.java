@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.registry;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+public class RegistrySnapshotTest {
+    private static final List<String> PARSED = List.of("minecraft:stone", "minecraft:dirt", "minecraft:grass_block");
+
+    @TempDir
+    Path folder;
+
+    @Test
+    public void testSnapshotSkipsParsing() throws Exception {
+        Path path = folder.resolve("test.bin");
+        Assertions.assertEquals(PARSED, load(path, "key", () -> PARSED));
+        Assertions.assertTrue(Files.isRegularFile(path));
+        Assertions.assertEquals(PARSED, load(path, "key", RegistrySnapshotTest::failParse));
+    }
+
+    @Test
+    public void testKeyMismatchParses() throws Exception {
+        Path path = folder.resolve("test.bin");
+        load(path, "old build", () -> PARSED);
+
+        List<String> updated = List.of("minecraft:stone");
+        Assertions.assertEquals(updated, load(path, "new build", () -> updated));
+        // The snapshot was replaced
+        Assertions.assertEquals(updated, load(path, "new build", RegistrySnapshotTest::failParse));
+    }
+
+    @Test
+    public void testTruncatedSnapshotParses() throws Exception {
+        Path path = folder.resolve("test.bin");
+        load(path, "key", () -> PARSED);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        Assertions.assertEquals(PARSED, load(path, "key", () -> PARSED));
+        Assertions.assertEquals(PARSED, load(path, "key", RegistrySnapshotTest::failParse));
+
+        // Cut off inside the header
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(6);
+        }
+        Assertions.assertEquals(PARSED, load(path, "key", () -> PARSED));
+    }
+
+    @Test
+    public void testCorruptSnapshotParses() throws Exception {
+        Path path = folder.resolve("test.bin");
+        load(path, "key", () -> PARSED);
+
+        // Trailing garbage
+        Files.write(path, new byte[] {1, 2, 3}, StandardOpenOption.APPEND);
+        Assertions.assertEquals(PARSED, load(path, "key", () -> PARSED));
+
+        // Wrong magic
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[0] ^= 0x7F;
+        Files.write(path, bytes);
+        Assertions.assertEquals(PARSED, load(path, "key", () -> PARSED));
+
+        // Not a snapshot at all
+        Files.write(path, new byte[] {0});
+        Assertions.assertEquals(PARSED, load(path, "key", () -> PARSED));
+        Assertions.assertEquals(PARSED, load(path, "key", RegistrySnapshotTest::failParse));
+    }
+
+    @Test
+    public void testParseErrorsAreThrown() {
+        Path path = folder.resolve("test.bin");
+        Assertions.assertThrows(IllegalStateException.class, () -> load(path, "key", RegistrySnapshotTest::failParse));
+        Assertions.assertFalse(Files.exists(path));
+    }
+
+    private static List<String> load(Path path, String key, Callable<List<String>> parser) throws Exception {
+        return RegistrySnapshot.load(path, key, RegistrySnapshotTest::read, RegistrySnapshotTest::write, parser, message -> {});
+    }
+
+    private static List<String> failParse() {
+        throw new IllegalStateException("Resource should not be parsed");
+    }
+
+    private static List<String> read(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+
+    private static void write(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.registry.populator;
+
+import org.cloudburstmc.nbt.NbtMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+public class BlockPaletteSnapshotTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        NbtMap facingNorth = NbtMap.builder()
+                .putString("minecraft:cardinal_direction", "north")
+                .putByte("open_bit", (byte) 0)
+                .putInt("age", 3)
+                .build();
+        List<NbtMap> blocks = List.of(
+                NbtMap.builder().putString("name", "minecraft:air").putCompound("states", NbtMap.EMPTY).build(),
+                NbtMap.builder().putString("name", "minecraft:barrel").putCompound("states", facingNorth).build(),
+                NbtMap.builder().putString("name", "minecraft:furnace").putCompound("states", NbtMap.builder()
+                        .putString("minecraft:cardinal_direction", "north")
+                        .putByte("open_bit", (byte) 0)
+                        .putInt("age", 3)
+                        .build()).build()
+        );
+
+        List<NbtMap> read = roundTrip(blocks);
+        Assertions.assertEquals(blocks, read);
+        for (int i = 0; i < blocks.size(); i++) {
+            // Entry order matters for block state hashes
+            Assertions.assertEquals(List.copyOf(blocks.get(i).getCompound("states").keySet()),
+                    List.copyOf(read.get(i).getCompound("states").keySet()));
+        }
+        // Identical states are shared
+        Assertions.assertSame(read.get(1).getCompound("states"), read.get(2).getCompound("states"));
+    }
+
+    @Test
+    public void testUnsupportedValuesAreRejected() {
+        List<NbtMap> blocks = List.of(NbtMap.builder().putString("name", "minecraft:stone").putLong("version", 1L).build());
+        Assertions.assertThrows(IOException.class, () -> BlockPaletteSnapshot.write(new DataOutputStream(new ByteArrayOutputStream()), blocks));
+    }
+
+    private static List<NbtMap> roundTrip(List<NbtMap> blocks) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BlockPaletteSnapshot.write(new DataOutputStream(bytes), blocks);
+        return BlockPaletteSnapshot.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.session.cache;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheBlobStatusPacket;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheMissResponsePacket;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class ChunkBlobCacheTest {
+    private static final int BLOB_SIZE = 1024 * 1024;
+
+    @Test
+    public void testBlobsAreKeptUntilAnswered() {
+        // The session is only needed to send packets and log, neither of which happens here
+        ChunkBlobCache cache = new ChunkBlobCache(null);
+        Random random = new Random(0);
+
+        // Fill the cache past its memory limit
+        long[] blobIds = new long[32];
+        byte[][] blobs = new byte[blobIds.length][];
+        int added = 0;
+        while (added < blobIds.length && cache.hasRoom(BLOB_SIZE)) {
+            blobs[added] = new byte[BLOB_SIZE];
+            random.nextBytes(blobs[added]);
+            blobIds[added] = cache.addBlob(Unpooled.wrappedBuffer(blobs[added]), 0, BLOB_SIZE);
+            added++;
+        }
+        Assertions.assertTrue(added > 1 && added < blobIds.length, "Cache never ran out of room");
+        Assertions.assertFalse(cache.hasRoom(BLOB_SIZE));
+
+        // The oldest blob must still be there when the client asks for it
+        ClientCacheBlobStatusPacket status = new ClientCacheBlobStatusPacket();
+        status.getNaks().add(blobIds[0]);
+        ClientCacheMissResponsePacket response = cache.collectMissing(status);
+        ByteBuf data = response.getBlobs().get(blobIds[0]);
+        Assertions.assertNotNull(data, "Blob referenced by an unanswered chunk was dropped");
+        Assertions.assertArrayEquals(blobs[0], ByteBufUtil.getBytes(data));
+        Assertions.assertTrue(cache.hasRoom(BLOB_SIZE));
+
+        // Answering every other chunk frees up the rest
+        status = new ClientCacheBlobStatusPacket();
+        for (int i = 1; i < added; i++) {
+            status.getAcks().add(blobIds[i]);
+        }
+        Assertions.assertTrue(cache.collectMissing(status).getBlobs().isEmpty());
+        Assertions.assertTrue(cache.hasRoom(BLOB_SIZE * (added - 1)));
+    }
+
+    @Test
+    public void testSharedBlobsAreKeptForEveryChunk() {
+        ChunkBlobCache cache = new ChunkBlobCache(null);
+        byte[] blob = new byte[64];
+        long blobId = cache.addBlob(Unpooled.wrappedBuffer(blob), 0, blob.length);
+        Assertions.assertEquals(blobId, cache.addBlob(Unpooled.wrappedBuffer(blob), 0, blob.length));
+
+        // The first chunk is answered; the second still needs the blob
+        ClientCacheBlobStatusPacket status = new ClientCacheBlobStatusPacket();
+        status.getAcks().add(blobId);
+        cache.collectMissing(status);
+
+        status = new ClientCacheBlobStatusPacket();
+        status.getNaks().add(blobId);
+        Assertions.assertNotNull(cache.collectMissing(status).getBlobs().get(blobId));
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2019-2024 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.geyser.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class MathUtilsTest {
+
+    @Test
+    public void testToShortestDouble() {
+        float[] edgeCases = new float[] {0f, -0f, 0.1f, -0.1f, 1f, 9.999999f, 10f, 0.6f, 1.62f, -64.5f, 319.99998f,
+                29999984f, Float.MIN_VALUE, Float.MAX_VALUE, Float.NaN, Float.POSITIVE_INFINITY};
+        for (float value : edgeCases) {
+            assertShortest(value);
+        }
+
+        Random random = new Random(0);
+        for (int i = 0; i < 100000; i++) {
+            // Within the world border
+            assertShortest((random.nextFloat() - 0.5f) * 60_000_000f);
+            // Near spawn, where most movement happens
+            assertShortest((random.nextFloat() - 0.5f) * 1000f);
+        }
+    }
+
+    private static void assertShortest(float value) {
+        double expected = Double.parseDouble(Float.toString(value));
+        Assertions.assertEquals(expected, MathUtils.toShortestDouble(value), "Incorrect conversion of " + value);
+    }
+}
@@ -25,10 +25,13 @@
 
 package org.geysermc.geyser.util.collection;
 
+import org.cloudburstmc.math.vector.Vector3i;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
+import java.util.List;
+
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class GeyserCollectionsTest {
     private final byte[] bytes = new byte[] {(byte) 5, (byte) 4, (byte) 3, (byte) 2, (byte) 2, (byte) 1};
@@ -178,4 +181,38 @@ public class GeyserCollectionsTest {
             Assertions.assertTrue(map.containsValue(i));
         }
     }
+
+    @Test
+    public void testChunkIndexedMap() {
+        ChunkIndexedMap<String> map = new ChunkIndexedMap<>();
+        map.put(Vector3i.from(0, 64, 0), "a");
+        map.put(Vector3i.from(15, -64, 15), "b");
+        map.put(Vector3i.from(16, 64, 0), "c");
+        map.put(Vector3i.from(-1, 64, -1), "d");
+        map.put(Vector3i.from(-16, 64, -16), "e");
+
+        Assertions.assertEquals(5, map.size());
+        Assertions.assertEquals(2, map.getChunk(0, 0).size());
+        Assertions.assertEquals(1, map.getChunk(1, 0).size());
+        Assertions.assertEquals(2, map.getChunk(-1, -1).size());
+        Assertions.assertTrue(map.getChunk(5, 5).isEmpty());
+
+        // Replacing a value must not add the position twice
+        map.put(Vector3i.from(0, 64, 0), "f");
+        Assertions.assertEquals(2, map.getChunk(0, 0).size());
+
+        Assertions.assertFalse(map.remove(Vector3i.from(16, 64, 0), "a"));
+        Assertions.assertTrue(map.remove(Vector3i.from(16, 64, 0), "c"));
+        Assertions.assertTrue(map.getChunk(1, 0).isEmpty());
+
+        List<String> removed = map.removeChunk(-1, -1);
+        Assertions.assertEquals(2, removed.size());
+        Assertions.assertTrue(removed.containsAll(List.of("d", "e")));
+        Assertions.assertNull(map.get(Vector3i.from(-1, 64, -1)));
+        Assertions.assertEquals(2, map.size());
+
+        map.clear();
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertTrue(map.getChunk(0, 0).isEmpty());
+    }
 }
@@ -49,6 +49,7 @@ pluginManagement {
     }
     plugins {
         id("net.kyori.blossom") version "1.2.0"
+        id("me.champeau.jmh") version "0.7.2"
         id("net.kyori.indra")
         id("net.kyori.indra.git")
     }